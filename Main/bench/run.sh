@@ -0,0 +1,9 @@
+#!/bin/sh
+# Compiles the game and the benchmarks, then runs them.
+# Usage: bench/run.sh [filter] [warmup ms] [measure ms]
+set -e
+cd "$(dirname "$0")/.."
+rm -rf bench/out
+javac -d bench/out $(find src bench/src -name '*.java')
+java -cp bench/out utils.CatalogCompiler content/catalog.txt bench/out/catalog.bin
+java -cp bench/out bench.Benchmarks "$@"
@@ -0,0 +1,17 @@
+#!/bin/sh
+# Compiles the game and compares the thread per connection Server with the SelectorServer under the same load.
+# Usage: bench/server-load.sh [active players] [idle players] [seconds]
+set -e
+cd "$(dirname "$0")/.."
+rm -rf bench/out
+javac -d bench/out $(find src bench/src -name '*.java')
+java -cp bench/out utils.CatalogCompiler content/catalog.txt bench/out/catalog.bin
+
+for server in Server SelectorServer; do
+   java -cp bench/out "$server" 5430 > /dev/null &
+   pid=$!
+   printf '%-15s' "$server"
+   java -cp bench/out bench.ServerLoad 5430 "$@" || true
+   kill "$pid"
+   wait "$pid" 2> /dev/null || true
+done
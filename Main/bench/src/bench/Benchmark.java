@@ -0,0 +1,93 @@
+package bench;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * The {@code Benchmark} class is a small harness for measuring the game's hot paths.
+ * Each benchmark is warmed up, then run repeatedly for a fixed amount of time, reporting its throughput and how many bytes it allocates per operation.
+ * Anything the game prints to the console while a benchmark runs is discarded.
+ */
+public final class Benchmark {
+
+   private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+   private static final PrintStream console = System.out;
+   private static final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+   private static long warmupMillis = 1000;
+   private static long measureMillis = 2000;
+   private static volatile Object sink; // Results are stored here so the JIT can't remove the work being measured
+
+   private Benchmark() {
+   }
+
+   /**
+    * Sets how long each benchmark is warmed up and measured for.
+    *
+    * @param warmup  The warmup time in milliseconds
+    * @param measure The measurement time in milliseconds
+    */
+   public static void setDurations(long warmup, long measure) {
+      warmupMillis = warmup;
+      measureMillis = measure;
+   }
+
+   /**
+    * Runs a benchmark and prints a line with its results.
+    *
+    * @param name The name of the benchmark
+    * @param body The operation being measured, its result is kept so it can't be optimised away
+    */
+   public static void run(String name, Supplier<?> body) {
+      run(name, 1, body);
+   }
+
+   /**
+    * Runs a benchmark where each call of the body does several operations, eg. a turn of many fights at once, and prints a line with its results per operation.
+    *
+    * @param name       The name of the benchmark
+    * @param opsPerCall The number of operations each call does
+    * @param body       The operations being measured, its result is kept so it can't be optimised away
+    */
+   public static void run(String name, int opsPerCall, Supplier<?> body) {
+      System.setOut(discard);
+      try {
+         loop(body, warmupMillis);
+
+         long threadId = Thread.currentThread().getId();
+         long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+         long start = System.nanoTime();
+         long ops = loop(body, measureMillis) * opsPerCall;
+         long elapsed = System.nanoTime() - start;
+         long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+         double seconds = elapsed / 1e9;
+         console.printf("%-48s %16.1f ops/s %14.1f B/op %12.1f MB/s alloc%n", name, ops / seconds, (double) allocated / ops, allocated / seconds / (1024 * 1024));
+      } finally {
+         System.setOut(console);
+      }
+   }
+
+   /**
+    * Calls the body in batches until the time runs out.
+    *
+    * @return The number of operations that were run
+    */
+   private static long loop(Supplier<?> body, long millis) {
+      long deadline = System.nanoTime() + millis * 1_000_000;
+      long ops = 0;
+      int batch = 1;
+
+      do {
+         for (int i = 0; i < batch; i++) {
+            sink = body.get();
+         }
+         ops += batch;
+         if (batch < 1 << 16) {
+            batch <<= 1;
+         }
+      } while (System.nanoTime() < deadline);
+      return ops;
+   }
+}
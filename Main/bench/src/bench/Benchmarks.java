@@ -0,0 +1,146 @@
+package bench;
+import utils.*;
+
+/**
+ * The {@code Benchmarks} class lists the benchmarks for the game's hot paths and runs them.
+ * Pass a name filter as the first argument to only run matching benchmarks, eg. {@code backpack}.
+ */
+public class Benchmarks {
+
+   private static final int[] backpackSizes = {5, 100, 1000, 10000};
+   private static final int BATCH_SIZE = 4096;
+
+   public static void main(String[] args) {
+      String filter = args.length > 0 ? args[0].toLowerCase() : "";
+      if (args.length > 2) {
+         Benchmark.setDurations(Long.parseLong(args[1]), Long.parseLong(args[2]));
+      }
+
+      // Combat - a single player turn through the headless engine
+      if (matches("combat.turn", filter)) {
+         Player player = combatPlayer();
+         CombatEngine engine = new CombatEngine(player, new GameRandom(5428));
+         Benchmark.run("combat.turn", () -> {
+            if (engine.getIsEncounterOver()) {
+               player.setHealth(1000);
+               player.setIsAlive(true);
+               player.getWeapon().setAmmo(1000);
+               engine.startEncounter(3);
+            }
+            return engine.step(CombatEngine.Action.FIGHT);
+         });
+      }
+
+      // Combat - a turn of many fights at once through the batch, each op is one fight's turn so it compares with combat.turn
+      if (matches("combat.batch.turn", filter)) {
+         Player player = combatPlayer();
+         CombatBatch batch = new CombatBatch(BATCH_SIZE, player.getWeapon(), 0);
+         GameRandom random = new GameRandom(5428);
+         Benchmark.run("combat.batch.turn", BATCH_SIZE, () -> {
+            for (int lane = 0; lane < BATCH_SIZE; lane++) {
+               if (batch.getOutcome(lane) != CombatBatch.FIGHTING) {
+                  batch.start(lane, 1000, 1000, 0, lane % EnemyType.count(), random.nextLong());
+               }
+            }
+            return batch.step();
+         });
+      }
+
+      // Navigation - rendering the maps
+      World world = new World();
+      if (matches("navigation.map", filter)) {
+         Benchmark.run("navigation.map", () -> {
+            Navigation.map(world);
+            Formatting.flush();
+            return null;
+         });
+      }
+      if (matches("navigation.viewCombinedMap", filter)) {
+         Benchmark.run("navigation.viewCombinedMap", () -> {
+            Navigation.viewCombinedMap(world);
+            Formatting.flush();
+            return null;
+         });
+      }
+
+      // Player - listing and counting the backpack at different inventory sizes
+      for (int size : backpackSizes) {
+         Player player = backpackPlayer(size);
+         String display = "player.displayBackpackContents[" + size + "]";
+         String count = "player.getBackpackSize[" + size + "]";
+
+         if (matches(display, filter)) {
+            Benchmark.run(display, player::displayBackpackContents);
+         }
+         if (matches(count, filter)) {
+            Benchmark.run(count, player::getBackpackSize);
+         }
+      }
+
+      // Snapshot - saving and loading a game in progress
+      if (matches("snapshot", filter)) {
+         Player player = backpackPlayer(5);
+         player.setName("Bot");
+         World snapshotWorld = new World();
+         byte[] saved = GameSnapshot.save(player, snapshotWorld);
+         if (matches("snapshot.save", filter)) {
+            Benchmark.run("snapshot.save", () -> GameSnapshot.save(player, snapshotWorld));
+         }
+         if (matches("snapshot.load", filter)) {
+            Benchmark.run("snapshot.load", () -> GameSnapshot.load(saved));
+         }
+      }
+
+      // Formatting - colouring a fragment of text
+      if (matches("formatting.colour", filter)) {
+         Benchmark.run("formatting.colour", () -> Formatting.colour(Formatting.YELLOW, "Sabretooth Tiger"));
+      }
+
+      // Formatting - printing a combat message built from coloured pieces, first by concatenating strings then by appending each piece
+      if (matches("formatting.message.concat", filter)) {
+         int[] damage = {12};
+         Benchmark.run("formatting.message.concat", () -> {
+            Formatting.print("You hit the " + Formatting.colour(Formatting.BLUE, "Sabretooth Tiger") + " for " + Formatting.colour(Formatting.YELLOW, damage[0] + " damage") + ".");
+            Formatting.flush();
+            return null;
+         });
+      }
+      if (matches("formatting.message.text", filter)) {
+         int[] damage = {12};
+         Benchmark.run("formatting.message.text", () -> {
+            Formatting.text("You hit the ").colour(Formatting.BLUE, "Sabretooth Tiger").append(" for ").colour(Formatting.YELLOW, damage[0], " damage").append('.');
+            Formatting.flush();
+            return null;
+         });
+      }
+   }
+
+   /**
+    * Checks if a benchmark name matches the filter passed on the command line.
+    */
+   private static boolean matches(String name, String filter) {
+      return name.toLowerCase().contains(filter);
+   }
+
+   /**
+    * Creates a player that is always encountered and never runs out of health or ammo.
+    */
+   private static Player combatPlayer() {
+      Player player = new Player(1000, true);
+      player.setWeapon(new Weapon("Rifle", 10, 1000, 3, 3));
+      player.setWeight(20); // Guarantees an encounter every time
+      return player;
+   }
+
+   /**
+    * Creates a player carrying the given number of items.
+    */
+   private static Player backpackPlayer(int size) {
+      Player player = new Player(100, true);
+      player.setWeapon(new Weapon("Pistol", 8, 16, 1, 1));
+      for (int i = 0; i < size; i++) {
+         player.addBackpackItem(new Items("Food Pack " + i, 10, 1, i % 2));
+      }
+      return player;
+   }
+}
@@ -0,0 +1,182 @@
+package bench;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ServerLoad} class measures how many lines of input a game server can play per second.
+ * Active players pick their loadout and then repeatedly view the maps, check their character and open the move menu, waiting for each prompt before sending the next line.
+ * Idle players connect and then sit at the name prompt, to show what waiting players cost the server.
+ * Usage: {@code ServerLoad <port> [active players] [idle players] [seconds]}
+ */
+public class ServerLoad {
+
+   // Every prompt ends with one of these, after the game's colour codes
+   private static final byte[] NAME_PROMPT = "Enter your name: \033[0;49m".getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] CHOICE_PROMPT = " > \033[0;49m".getBytes(StandardCharsets.US_ASCII);
+
+   private static final String[] setupLines = {"Bot", "Y", "1", "Y", "1", "Y", "2", "Y"};
+   private static final String[] roundLines = {"3", "6", "2", "0"};
+
+   public static void main(String[] args) throws Exception {
+      int port = Integer.parseInt(args[0]);
+      int activePlayers = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+      int idlePlayers = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+      long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+
+      List<Socket> idleSockets = new ArrayList<>();
+      for (int i = 0; i < idlePlayers; i++) {
+         Socket socket = connect(port);
+         readUntilPrompt(socket.getInputStream(), new byte[4096]);
+         idleSockets.add(socket);
+      }
+
+      AtomicLong lines = new AtomicLong();
+      AtomicLong bytes = new AtomicLong();
+      long warmupEnd = System.nanoTime() + 2_000_000_000L;
+      long end = warmupEnd + seconds * 1_000_000_000L;
+      ExecutorService players = Executors.newFixedThreadPool(activePlayers);
+      List<Future<?>> results = new ArrayList<>();
+      List<long[]> latencies = new ArrayList<>();
+
+      for (int i = 0; i < activePlayers; i++) {
+         long[] playerLatencies = new long[1 << 16];
+         latencies.add(playerLatencies);
+         results.add(players.submit(() -> play(port, warmupEnd, end, lines, bytes, playerLatencies)));
+      }
+      for (Future<?> result : results) {
+         result.get();
+      }
+      players.shutdown();
+      for (Socket socket : idleSockets) {
+         socket.close();
+      }
+
+      // Each player's latencies are stored after its count in the first slot
+      long[] allLatencies = latencies.stream().flatMapToLong(l -> Arrays.stream(l, 1, (int) l[0] + 1)).sorted().toArray();
+      System.out.printf("%d active, %d idle: %,.0f lines/s, %.1f MB/s, latency p50 %.0f us, p99 %.0f us%n",
+         activePlayers, idlePlayers,
+         lines.get() / (double) seconds,
+         bytes.get() / (double) seconds / 1e6,
+         percentile(allLatencies, 0.5) / 1e3,
+         percentile(allLatencies, 0.99) / 1e3);
+   }
+
+   /**
+    * Plays one player's game until the end time, counting the lines and bytes after the warmup.
+    */
+   private static Void play(int port, long warmupEnd, long end, AtomicLong lines, AtomicLong bytes, long[] latencies) throws IOException {
+      byte[] buffer = new byte[1 << 16];
+
+      try (Socket socket = connect(port)) {
+         InputStream in = socket.getInputStream();
+         OutputStream out = socket.getOutputStream();
+         readUntilPrompt(in, buffer);
+
+         for (String line : setupLines) {
+            send(out, line);
+            readUntilPrompt(in, buffer);
+         }
+
+         long count = 0;
+         long total = 0;
+         for (int i = 0; ; i++) {
+            long start = System.nanoTime();
+            if (start >= end) {
+               break;
+            }
+
+            send(out, roundLines[i % roundLines.length]);
+            int read = readUntilPrompt(in, buffer);
+
+            if (start >= warmupEnd) {
+               count++;
+               total += read;
+               long latency = System.nanoTime() - start;
+               if (latencies[0] < latencies.length - 1) {
+                  latencies[(int) ++latencies[0]] = latency;
+               }
+            }
+         }
+         lines.addAndGet(count);
+         bytes.addAndGet(total);
+      }
+      return null;
+   }
+
+   /**
+    * Connects to the server, waiting for it to start if it isn't listening yet.
+    */
+   private static Socket connect(int port) throws IOException {
+      for (int attempt = 0; ; attempt++) {
+         try {
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            return socket;
+         } catch (ConnectException e) {
+            if (attempt == 100) {
+               throw e;
+            }
+            try {
+               Thread.sleep(100);
+            } catch (InterruptedException interrupted) {
+               Thread.currentThread().interrupt();
+               throw e;
+            }
+         }
+      }
+   }
+
+   private static void send(OutputStream out, String line) throws IOException {
+      out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+      out.flush();
+   }
+
+   /**
+    * Reads the server's output until it ends with a prompt.
+    *
+    * @return The number of bytes read
+    */
+   private static int readUntilPrompt(InputStream in, byte[] buffer) throws IOException {
+      int length = 0;
+      int total = 0;
+
+      while (true) {
+         if (length == buffer.length) {
+            // Only the end of the output is needed to find the prompt
+            System.arraycopy(buffer, length - 64, buffer, 0, 64);
+            length = 64;
+         }
+
+         int read = in.read(buffer, length, buffer.length - length);
+         if (read < 0) {
+            throw new IOException("The server closed the connection");
+         }
+         length += read;
+         total += read;
+
+         if (endsWith(buffer, length, CHOICE_PROMPT) || endsWith(buffer, length, NAME_PROMPT)) {
+            return total;
+         }
+      }
+   }
+
+   private static boolean endsWith(byte[] buffer, int length, byte[] suffix) {
+      return length >= suffix.length && Arrays.equals(buffer, length - suffix.length, length, suffix, 0, suffix.length);
+   }
+
+   private static double percentile(long[] sorted, double fraction) {
+      return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+   }
+}
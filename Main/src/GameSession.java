@@ -0,0 +1,502 @@
+import utils.*;
+import static utils.Formatting.*;
+
+/**
+ * The {@code GameSession} class plays the same game as {@link Main}, but one line of input at a time instead of waiting for input.
+ * Each menu is a {@link State}, and every line the player sends moves the session to its next state and prints what happened.
+ * Because a session never waits, one thread can play any number of sessions, only handling the ones that have received a line.
+ * A session doesn't keep an output buffer between lines, so an idle session only costs its player, world and the lines of the map it last drew.
+ */
+public class GameSession {
+
+   /**
+    * The menus a session can be waiting for input in.
+    * They are in the same order as the menus {@link Metrics#commandLatency} is labelled by, so a state's ordinal is its label.
+    */
+   public enum State {
+      NAME, NAME_CONFIRM, WEAPON, WEAPON_CONFIRM, ITEM, ITEM_CONFIRM, MAIN_MENU, MOVE, COMBAT, USE_ITEM, RESTART, FINISHED
+   }
+
+   private final GameRandom random;
+   private State state;
+   private Journal journal; // Records the session so it can be replayed, or null
+   private final Renderer.Frame frame = new Renderer.Frame(); // The map last drawn for this player, which is redrawn in place when they move
+
+   // The current game
+   private Player playerCharacter;
+   private World world;
+   private boolean printSeperator;
+
+   // Choices the player is being asked to confirm
+   private String playerName;
+   private Items startingItem;
+   private int itemHandler;
+
+   // The item menu, which can be opened from the main menu or during combat
+   private State itemMenuReturnState;
+   private int extraLineBreaks;
+
+   /**
+    * Constructs a new {@code GameSession}, call {@link #start(Renderer)} to print the tutorial and the first prompt.
+    *
+    * @param random The random number generator that each game's generator is split from
+    */
+   public GameSession(GameRandom random) {
+      this.random = random;
+   }
+
+   /**
+    * Starts the session by printing the tutorial and asking for the player's name.
+    *
+    * @param renderer Where the output is printed, it is flushed before this method returns
+    */
+   public void start(Renderer renderer) {
+      Renderer previousRenderer = Formatting.getRenderer();
+      Renderer.Frame previousFrame = useRenderer(renderer);
+      renderer.resetFrame();
+      try {
+         Main.printGameTutorial();
+         newGame();
+         prompt();
+      } finally {
+         renderer.setFrame(previousFrame);
+         Formatting.setRenderer(previousRenderer);
+      }
+   }
+
+   /**
+    * Handles a line of input from the player, moving the session to its next state and printing what happened and the next prompt.
+    *
+    * @param line     The line the player typed, without the line break
+    * @param renderer Where the output is printed, it is flushed before this method returns
+    * @return True if the session is still playing, false if the player has stopped playing
+    */
+   public boolean handleLine(String line, Renderer renderer) {
+      if (state == State.FINISHED) {
+         return false;
+      }
+      if (journal != null) {
+         journal.recordLine(line);
+      }
+
+      State handledState = state;
+      long startTime = System.nanoTime();
+      Renderer previousRenderer = Formatting.getRenderer();
+      Renderer.Frame previousFrame = useRenderer(renderer);
+      try {
+         switch (state) {
+            case NAME -> handleName(line.trim());
+            case NAME_CONFIRM -> handleNameConfirm(line.toUpperCase());
+            case WEAPON -> handleWeapon(line.toUpperCase());
+            case WEAPON_CONFIRM -> handleWeaponConfirm(line.toUpperCase());
+            case ITEM -> handleItem(line.toUpperCase());
+            case ITEM_CONFIRM -> handleItemConfirm(line.toUpperCase());
+            case MAIN_MENU -> handleMainMenu(line.toUpperCase());
+            case MOVE -> handleMove(line);
+            case COMBAT -> handleCombat(line);
+            case USE_ITEM -> handleUseItem(line);
+            case RESTART -> handleRestart(line.toUpperCase());
+            default -> {
+            }
+         }
+         prompt();
+      } finally {
+         renderer.setFrame(previousFrame);
+         Formatting.setRenderer(previousRenderer);
+         Metrics.commandLatency.record(handledState.ordinal(), System.nanoTime() - startTime);
+      }
+      return state != State.FINISHED;
+   }
+
+   /**
+    * Records the session in a journal: every line the player types and every random number drawn, so it can be replayed with {@code java Main --replay <journal>}.
+    * The journal has to be set before the session is started.
+    *
+    * @param journal The journal to record in
+    */
+   public void setJournal(Journal journal) {
+      this.journal = journal;
+      journal.recordStart(random.getState());
+      random.setJournal(journal);
+   }
+
+   /**
+    * Prints the prompt for the menu the session is waiting in again, eg. after the session was loaded on another server.
+    *
+    * @param renderer Where the output is printed, it is flushed before this method returns
+    */
+   public void resume(Renderer renderer) {
+      Renderer previousRenderer = Formatting.getRenderer();
+      Renderer.Frame previousFrame = useRenderer(renderer);
+      // The player may be on a new connection, so nothing they can see is redrawn in place
+      renderer.resetFrame();
+      try {
+         prompt();
+      } finally {
+         renderer.setFrame(previousFrame);
+         Formatting.setRenderer(previousRenderer);
+      }
+   }
+
+   /**
+    * Prints the session's output with a renderer, redrawing against the session's own frame, since the renderer may be printing for other players too.
+    * The caller puts back the previous renderer and the returned frame once the output is printed.
+    *
+    * @return The renderer's frame before it was given the session's
+    */
+   private Renderer.Frame useRenderer(Renderer renderer) {
+      Renderer.Frame previousFrame = renderer.getFrame();
+      Formatting.setRenderer(renderer);
+      renderer.setFrame(frame);
+      return previousFrame;
+   }
+
+   /**
+    * Saves the session: its game, see {@link GameSnapshot}, followed by the menu it is waiting in and the choices the player is confirming.
+    *
+    * @return The saved bytes
+    * @throws IllegalStateException if the session hasn't been started
+    */
+   public byte[] save() {
+      if (playerCharacter == null) {
+         throw new IllegalStateException("The session hasn't been started");
+      }
+
+      SnapshotWriter out = new SnapshotWriter();
+      GameSnapshot.write(out, playerCharacter, world);
+      out.writeLong(random.getState());
+      out.writeVarInt(state.ordinal());
+      out.writeBoolean(printSeperator);
+      out.writeString(playerName);
+      out.writeBoolean(startingItem != null);
+      if (startingItem != null) {
+         startingItem.writeTo(out);
+      }
+      out.writeVarInt(itemHandler);
+      out.writeVarInt(itemMenuReturnState == null ? -1 : itemMenuReturnState.ordinal());
+      out.writeVarInt(extraLineBreaks);
+      return out.toByteArray();
+   }
+
+   /**
+    * Loads a session saved by {@link #save()}, call {@link #resume(Renderer)} to show the player where they were.
+    *
+    * @param bytes The saved bytes
+    * @return The session
+    * @throws IllegalArgumentException if the bytes aren't a saved session, are from another version, or are corrupt
+    */
+   public static GameSession load(byte[] bytes) {
+      SnapshotReader in = new SnapshotReader(bytes);
+      GameSnapshot game = GameSnapshot.read(in);
+      GameSession session = new GameSession(new GameRandom(in.readLong()));
+      State[] states = State.values();
+
+      session.playerCharacter = game.getPlayer();
+      session.world = game.getWorld();
+      session.state = states[in.readVarInt(0, states.length - 1)];
+      session.printSeperator = in.readBoolean();
+      session.playerName = in.readString();
+      if (in.readBoolean()) {
+         session.startingItem = Items.readFrom(in);
+      }
+      session.itemHandler = in.readVarInt();
+      int returnState = in.readVarInt(-1, states.length - 1);
+      session.itemMenuReturnState = returnState < 0 ? null : states[returnState];
+      session.extraLineBreaks = in.readVarInt();
+
+      if (!in.getIsFinished()) {
+         throw new IllegalArgumentException("The save has extra bytes at the end");
+      }
+      return session;
+   }
+
+   /**
+    * Gets the menu the session is waiting for input in.
+    *
+    * @return The state
+    */
+   public State getState() {
+      return state;
+   }
+
+   /**
+    * Checks if the player has stopped playing.
+    *
+    * @return True if the session is finished, otherwise false
+    */
+   public boolean getIsFinished() {
+      return state == State.FINISHED;
+   }
+
+   /**
+    * Creates a new player and world so all information is reset, and asks for the player's name.
+    */
+   private void newGame() {
+      playerCharacter = new Player(100, true, random.split()); // Player is created without a name as it will be set later
+      world = new World();
+      printSeperator = true;
+      state = State.NAME;
+   }
+
+   /**
+    * Prints the prompt for the current state, the same prompt {@link Main} prints before reading each line.
+    */
+   private void prompt() {
+      switch (state) {
+         case NAME -> print(GREEN, "Enter your name: ");
+         case NAME_CONFIRM -> Main.printNameConfirm(playerName);
+         case WEAPON_CONFIRM -> Main.printWeaponConfirm(playerCharacter);
+         case ITEM_CONFIRM -> Main.printItemConfirm(startingItem);
+         case MAIN_MENU -> {
+            // Recalculate player weight before each action
+            playerCharacter.calculateWeight();
+            Main.printMainMenu();
+         }
+         case COMBAT -> Combat.printTurnOptions(playerCharacter);
+         case WEAPON, ITEM, MOVE, USE_ITEM, RESTART -> print(GREEN, " > ");
+         default -> {
+         }
+      }
+   }
+
+   private void handleName(String line) {
+      // If the player enters an empty name, the line is cleared
+      if (line.isEmpty()) {
+         clearLine(1);
+      } else {
+         playerName = line;
+         state = State.NAME_CONFIRM;
+      }
+   }
+
+   private void handleNameConfirm(String line) {
+      if (line.isEmpty()) {
+         clearLine(2);
+         return;
+      }
+
+      switch (line.charAt(0)) {
+         case 'Y' -> {
+            playerCharacter.setName(playerName);
+            lineBreak();
+            printSpacer();
+            Main.displayMissionInformation(playerCharacter, world);
+            Main.printWeaponOptions();
+            state = State.WEAPON;
+         }
+         case 'N' -> {
+            clearLine(3);
+            state = State.NAME;
+         }
+         default -> clearLine(2);
+      }
+   }
+
+   private void handleWeapon(String line) {
+      if (line.isEmpty() || !Main.selectWeapon(playerCharacter, Input.parseInt(line, 0))) {
+         clearLine(1);
+      } else {
+         state = State.WEAPON_CONFIRM;
+      }
+   }
+
+   private void handleWeaponConfirm(String line) {
+      if (line.isEmpty()) {
+         clearLine(2);
+         return;
+      }
+
+      switch (line.charAt(0)) {
+         case 'Y' -> {
+            lineBreak();
+            itemHandler = 0;
+            Main.printItemOptions(itemHandler);
+            state = State.ITEM;
+         }
+         case 'N' -> {
+            clearLine(3);
+            state = State.WEAPON;
+         }
+         default -> clearLine(2);
+      }
+   }
+
+   private void handleItem(String line) {
+      startingItem = line.isEmpty() ? null : Main.createStartingItem(Input.parseInt(line, 0));
+
+      if (startingItem == null) {
+         clearLine(1);
+      } else {
+         state = State.ITEM_CONFIRM;
+      }
+   }
+
+   private void handleItemConfirm(String line) {
+      if (line.isEmpty()) {
+         clearLine(2);
+         return;
+      }
+
+      switch (line.charAt(0)) {
+         case 'Y' -> {
+            playerCharacter.addBackpackItem(startingItem);
+            itemHandler++;
+            lineBreak();
+
+            if (itemHandler < 2) {
+               Main.printItemOptions(itemHandler);
+               state = State.ITEM;
+            } else {
+               printSpacer();
+               state = State.MAIN_MENU;
+            }
+         }
+         case 'N' -> {
+            clearLine(3);
+            state = State.ITEM;
+         }
+         default -> clearLine(2);
+      }
+   }
+
+   private void handleMainMenu(String line) {
+      int choiceInt = line.isEmpty() ? 0 : Input.parseInt(line, 0);
+
+      if (!Main.printMenuHeader(choiceInt)) {
+         // Invalid choice
+         printSeperator = false;
+         clearLine(2);
+      } else if (choiceInt == 1) {
+         openItemMenu(State.MAIN_MENU);
+         return;
+      } else if (choiceInt == 2) {
+         Navigation.printMoveOptions(world);
+         state = State.MOVE;
+         return;
+      } else if (choiceInt == 7) {
+         if (Navigation.startTravel(world) && !travel()) {
+            state = State.COMBAT;
+            return;
+         }
+      } else {
+         Main.playMenuChoice(playerCharacter, world, choiceInt);
+      }
+      finishAction();
+   }
+
+   private void handleMove(String line) {
+      if (line.isEmpty() || !Navigation.move(world, Input.firstChar(line))) {
+         clearLine(1);
+         return;
+      }
+      Navigation.printNewLocation(world);
+
+      // Check if the location has combat
+      if (world.getLocationHasCombat()) {
+         if (Combat.startCombat(playerCharacter, world)) {
+            state = State.COMBAT;
+            return;
+         }
+         Combat.endCombat(playerCharacter, world);
+      }
+      finishAction();
+   }
+
+   /**
+    * Travels to where the player is heading, the same way as {@link Navigation#travel(Player, World)}.
+    *
+    * @return True if the player arrived, false if they have to fight on the way
+    */
+   private boolean travel() {
+      while (Navigation.travelStep(world)) {
+         if (world.getLocationHasCombat()) {
+            Navigation.printPassingThrough(world);
+            if (Combat.startCombat(playerCharacter, world)) {
+               return false;
+            }
+            Combat.endCombat(playerCharacter, world);
+         }
+      }
+      Navigation.printLocation(world);
+      return true;
+   }
+
+   private void handleCombat(String line) {
+      if (Combat.playTurn(playerCharacter, line)) {
+         openItemMenu(State.COMBAT);
+      } else if (playerCharacter.getCombatEngine().getIsEncounterOver()) {
+         Combat.endCombat(playerCharacter, world);
+         finishAction();
+      }
+   }
+
+   private void handleUseItem(String line) {
+      switch (Items.chooseItem(playerCharacter, line)) {
+         case INVALID -> {
+            // The player chooses again
+         }
+         case BACK, USED -> closeItemMenu();
+         case RETRY -> Items.printItemMenu(playerCharacter);
+         case RETRY_AFTER_HEAL -> {
+            extraLineBreaks++;
+            Items.printItemMenu(playerCharacter);
+         }
+      }
+   }
+
+   private void handleRestart(String line) {
+      if (line.isEmpty()) {
+         clearLine(1);
+         return;
+      }
+
+      switch (line.charAt(0)) {
+         case 'Y' -> {
+            clearLine(5000);
+            newGame();
+         }
+         case 'N' -> {
+            Main.printGoodbye();
+            state = State.FINISHED;
+         }
+         default -> clearLine(2);
+      }
+   }
+
+   /**
+    * Opens the item menu, or goes straight back if the player's backpack is empty.
+    *
+    * @param returnState The state to go back to once the player is done with the menu
+    */
+   private void openItemMenu(State returnState) {
+      itemMenuReturnState = returnState;
+      extraLineBreaks = 0;
+
+      if (Items.printItemMenu(playerCharacter)) {
+         state = State.USE_ITEM;
+      } else {
+         closeItemMenu();
+      }
+   }
+
+   private void closeItemMenu() {
+      lineBreak(extraLineBreaks);
+
+      if (itemMenuReturnState == State.COMBAT) {
+         state = State.COMBAT;
+      } else {
+         finishAction();
+      }
+   }
+
+   /**
+    * Finishes an action from the main menu, then goes back to the main menu or asks to play again if the game is over.
+    */
+   private void finishAction() {
+      if (printSeperator) {
+         lineBreak();
+         printSpacer();
+      }
+      state = Main.printGameOver(playerCharacter) ? State.RESTART : State.MAIN_MENU;
+   }
+}
@@ -1,18 +1,158 @@
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
 import utils.*;
 import static utils.Formatting.*;
 
 public class Main {
-   // Scanner object
-   private static final Scanner sc = new Scanner(System.in);
+   // Input validation variables - not static so that several games can run at once, eg. on the Server
+   private boolean primaryChoiceHandler, secondaryChoiceHandler;
 
-   // Global input validation variables
-   private static boolean primaryChoiceHandler, secondaryChoiceHandler;
+   // The size of the generated map to play on, or 0 to play on the default map
+   private static int mapWidth, mapHeight;
+
+   // The most columns and rows of the map shown around the player
+   private static int viewSize = Navigation.VIEW_SIZE;
 
    /**
     * The {@code Main} method iswhere the game is run.
+    * Passing {@code --seed <number>} plays the same game every time, which is useful for reproducing bugs.
+    * Passing {@code --journal <directory>} records the game in a journal file, and {@code --replay <journal file>} plays a recorded game again.
+    * Passing {@code --map <width>x<height>} plays on a map of that size generated from the game's random numbers, instead of the default 5x5 map.
+    * Passing {@code --view <size>} shows that many columns and rows of the map around the player, eg. {@code --view 11}.
     */
-   public static void main(String[] args) {
+   public static void main(String[] args) throws IOException {
+      GameRandom random = new GameRandom();
+      Path journalDirectory = null;
+      JournalReplay replay = null;
+
+      for (int i = 0; i + 1 < args.length; i += 2) {
+         switch (args[i]) {
+            case "--seed" -> random = new GameRandom(Long.parseLong(args[i + 1]));
+            case "--journal" -> journalDirectory = Path.of(args[i + 1]);
+            case "--replay" -> replay = openReplay(Path.of(args[i + 1]));
+            case "--map" -> parseMapSize(args[i + 1]);
+            case "--view" -> parseViewSize(args[i + 1]);
+            default -> {
+            }
+         }
+      }
+
+      if (replay != null) {
+         // The recorded settings are used whatever else was passed, so the game is played exactly as it was recorded
+         random = new GameRandom(replay.getRandomState());
+         random.setReplay(replay);
+         mapWidth = replay.getMapWidth();
+         mapHeight = replay.getMapHeight();
+         viewSize = replay.getViewSize();
+         if (replay.getCatalogFile().isEmpty()) {
+            System.clearProperty("catalog.file");
+         } else {
+            System.setProperty("catalog.file", replay.getCatalogFile());
+         }
+         Input.setSource(replay);
+      }
+
+      Metrics.startWritingIfConfigured();
+      JournalWriter journals = journalDirectory == null ? null : new JournalWriter(journalDirectory);
+      Journal journal = null;
+      if (journals != null) {
+         journal = journals.open();
+         journal.recordStart(random.getState(), mapWidth, mapHeight, viewSize);
+         random.setJournal(journal);
+         Input.setSource(journal.recording(Input.getSource()));
+      }
+
+      try {
+         new Main().play(random);
+      } catch (NoSuchElementException e) {
+         // The input ended, eg. at the end of a replay
+         flush();
+      } catch (IllegalStateException e) {
+         if (replay == null) {
+            throw e;
+         }
+         // The replay played differently from the recording
+         flush();
+         System.err.println(e.getMessage());
+         System.exit(1);
+      } finally {
+         if (journals != null) {
+            journal.close();
+            journals.close();
+         }
+      }
+   }
+
+   /**
+    * Reads the size of the map to generate from a {@code --map} argument, stopping the program with a usage message if it isn't a size a map can have.
+    *
+    * @param size The argument, eg. {@code 40x30}
+    */
+   private static void parseMapSize(String size) {
+      int separator = size.indexOf('x');
+      try {
+         mapWidth = Integer.parseInt(size.substring(0, Math.max(separator, 0)));
+         mapHeight = Integer.parseInt(size.substring(separator + 1));
+      } catch (NumberFormatException e) {
+         usage("--map needs a width and a height like 40x30, not " + size);
+      }
+      if (!ChunkedWorld.isLargeEnough(mapWidth, mapHeight)) {
+         usage("A map of " + size + " is too small for the nuclear cores and the scientist");
+      }
+   }
+
+   /**
+    * Reads how many columns and rows of the map to show from a {@code --view} argument, stopping the program with a usage message if it isn't at least 1.
+    *
+    * @param size The argument, eg. {@code 11}
+    */
+   private static void parseViewSize(String size) {
+      try {
+         viewSize = Integer.parseInt(size);
+      } catch (NumberFormatException e) {
+         usage("--view needs a number of columns and rows like 11, not " + size);
+      }
+      if (viewSize < 1) {
+         usage("The view must show at least one location, not " + size);
+      }
+   }
+
+   /**
+    * Prints what was wrong with the arguments and the arguments the program takes, then stops the program.
+    *
+    * @param problem What was wrong with the arguments
+    */
+   private static void usage(String problem) {
+      System.err.println(problem);
+      System.err.println("Usage: java Main [--seed <number>] [--journal <directory>] [--replay <journal file>] [--map <width>x<height>] [--view <size>]");
+      System.exit(2);
+   }
+
+   /**
+    * Reads a journal to replay, stopping the program if it can't be replayed, eg. because it is truncated.
+    *
+    * @param path The journal file
+    * @return The replay, which gives the recorded lines and checks the recorded random numbers
+    * @throws IOException if the journal can't be read
+    */
+   private static JournalReplay openReplay(Path path) throws IOException {
+      try {
+         return new JournalReplay(JournalReader.open(path));
+      } catch (IllegalArgumentException e) {
+         System.err.println(path + ": " + e.getMessage());
+         System.exit(1);
+         return null;
+      }
+   }
+
+   /**
+    * Plays games until the player chooses to stop.
+    * The game reads from {@link Input} and prints through {@link Formatting}, so it can be played on the console or over a connection.
+    *
+    * @param random The random number generator that each game's generator is split from
+    */
+   public void play(GameRandom random) {
       boolean gameRunning = true;
 
       printGameTutorial();
@@ -20,12 +160,14 @@ public class Main {
       do {
          boolean repeatOptions = true;
          boolean printSeperator = true;
-         Navigation.resetLocationVariables();
 
          // Generate a new player at the start of the while loop so that all player information is reset
-         final Player playerCharacter = new Player(100, true); // Player is created without a name as it will be set later
+         final Player playerCharacter = new Player(100, true, random.split()); // Player is created without a name as it will be set later
+         // Each game gets a new world so all location information is reset
+         final World world = mapWidth == 0 ? new World() : new ChunkedWorld(mapWidth, mapHeight, playerCharacter.getRandom().nextLong());
+         world.setViewSize(viewSize);
          promptPlayerName(playerCharacter);
-         displayMissionInformation(playerCharacter);
+         displayMissionInformation(playerCharacter, world);
          playerWeaponSelection(playerCharacter);
          playerItemSelection(playerCharacter);
 
@@ -36,74 +178,27 @@ public class Main {
             primaryChoiceHandler = true;
             secondaryChoiceHandler = true;
 
-            print("What would you like to do? " + colour(BLUE, "(1) Use item, (2) Move Around, (3) View Maps, (4) Search Location, (5) Rest, (6) Check Character"));
-            lineBreak();
-            print(GREEN, " > ");
-            String choice = sc.nextLine().toUpperCase();
+            printMainMenu();
+            String choice = Input.nextLine(Metrics.MAIN_MENU).toUpperCase();
 
             if (choice.isEmpty()) {
                printSeperator = false;
                clearLine(2);
             } else {
-               int choiceInt;
+               int choiceInt = Input.parseInt(choice, 0);
 
-               try {
-                  choiceInt = Integer.parseInt(choice);
-               } catch (NumberFormatException e) {
-                  choiceInt = 0;
-               }
-
-               switch (choiceInt) {
-                  // Use item
-                  case 1 -> {
-                     print(YELLOW, "<=-- Using Item --=>");
-                     lineBreak(2);
-                     Items.useItem(playerCharacter);
-                  }
-                  // Move
-                  case 2 -> {
-                     print(YELLOW, "<=-- Moving --=>");
-                     lineBreak(2);
-                     Navigation.navigate(playerCharacter);
-                  }
-                  // View Map
-                  case 3 -> {
-                     print(YELLOW, "<=-- Viewing Maps --=>");
-                     lineBreak(2);
-                     Navigation.viewCombinedMap();
-                  }
-                  // Search
-                  case 4 -> {
-                     print(YELLOW, "<=-- Searching Location --=>");
-                     lineBreak(2);
-                     playerCharacter.search();
-                  }
-                  // Rest
-                  case 5 -> {
-                     print(YELLOW, " <=-- Resting --=>");
-                     lineBreak(2);
-                     playerCharacter.rest();
-                  }
-                  // Check Character
-                  case 6 -> {
-                     print(YELLOW, "<=-- Checking Character --=>");
-                     lineBreak(2);
-                     playerCharacter.checkCharacter();
-                  }
-                  // Add all nuclear cores to the player's backpack for testing purposes
-                  case 5428 -> {
-                     print(YELLOW, "<=-- Adding Nuclear Cores --=>");
-                     lineBreak(2);
-                     for (int i = 0; i < 9; i++) {
-                        playerCharacter.addBackpackItem(new Items("Nuclear Core " + (i + 1), 0, 0, 2));
-                     }
-                     lineBreak();
-                  }
+               if (!printMenuHeader(choiceInt)) {
                   // Invalid choice
-                  default -> {
-                     printSeperator = false;
-                     clearLine(2);
-                  }
+                  printSeperator = false;
+                  clearLine(2);
+               } else if (choiceInt == 1) {
+                  Items.useItem(playerCharacter);
+               } else if (choiceInt == 2) {
+                  Navigation.navigate(playerCharacter, world);
+               } else if (choiceInt == 7) {
+                  Navigation.travel(playerCharacter, world);
+               } else {
+                  playMenuChoice(playerCharacter, world, choiceInt);
                }
             }
 
@@ -112,28 +207,7 @@ public class Main {
                printSpacer();
             }
 
-            if (!playerCharacter.getIsAlive()) {
-               print(RED, "+--------------------------------------------------+");
-               lineBreak();
-               print(RED, "| You failed to complete the mission... Game Over  |");
-               lineBreak();
-               print(RED, "+--------------------------------------------------+");
-               lineBreak();
-               lineBreak();
-               print("Do you want to play again? " + colour(BLUE, "(Y)es / (N)o"));
-               lineBreak();
-               repeatOptions = false;
-            } else if (playerCharacter.getIsGameEnding()){
-               lineBreak();
-               print(GREEN, "+--------------------------------------------------+");
-               lineBreak();
-               print(GREEN, "|       You completed the mission! Game Over       |");
-               lineBreak();
-               print(GREEN, "+--------------------------------------------------+");
-               lineBreak();
-               lineBreak();
-               print("Do you want to play again? " + colour(BLUE, "(Y)es / (N)o"));
-               lineBreak();
+            if (printGameOver(playerCharacter)) {
                repeatOptions = false;
             }
          } while (repeatOptions);
@@ -141,7 +215,7 @@ public class Main {
          primaryChoiceHandler = true;
          while (primaryChoiceHandler) {
                print(GREEN, " > ");
-               String restartGame = sc.nextLine().toUpperCase();
+               String restartGame = Input.nextLine(Metrics.RESTART_MENU).toUpperCase();
 
                if (restartGame.isEmpty()) {
                   clearLine(1);
@@ -164,6 +238,109 @@ public class Main {
                }
          }
       } while (gameRunning);
+      printGoodbye();
+      Input.finishCommand();
+      flush();
+   }
+
+   /**
+    * Prints the main menu, where the player chooses their next action.
+    */
+   public static void printMainMenu() {
+      text("What would you like to do? ").colour(BLUE, "(1) Use item, (2) Move Around, (3) View Maps, (4) Search Location, (5) Rest, (6) Check Character, (7) Travel");
+      lineBreak();
+      print(GREEN, " > ");
+   }
+
+   /**
+    * Prints the heading for a choice from the main menu.
+    *
+    * @param choice The player's choice
+    * @return True if the choice is on the menu, otherwise false
+    */
+   public static boolean printMenuHeader(int choice) {
+      switch (choice) {
+         case 1 -> print(YELLOW, "<=-- Using Item --=>");
+         case 2 -> print(YELLOW, "<=-- Moving --=>");
+         case 3 -> print(YELLOW, "<=-- Viewing Maps --=>");
+         case 4 -> print(YELLOW, "<=-- Searching Location --=>");
+         case 5 -> print(YELLOW, " <=-- Resting --=>");
+         case 6 -> print(YELLOW, "<=-- Checking Character --=>");
+         case 7 -> print(YELLOW, "<=-- Travelling --=>");
+         case 5428 -> print(YELLOW, "<=-- Adding Nuclear Cores --=>");
+         default -> {
+            return false;
+         }
+      }
+      lineBreak(2);
+      return true;
+   }
+
+   /**
+    * Plays a choice from the main menu that doesn't need any more input from the player.
+    * Using an item, moving around and travelling ask the player for more input, so they are played by the caller.
+    *
+    * @param playerCharacter The player making the choice
+    * @param world           The world the player is in
+    * @param choice          The player's choice
+    */
+   public static void playMenuChoice(Player playerCharacter, World world, int choice) {
+      switch (choice) {
+         // View Map
+         case 3 -> Navigation.viewCombinedMap(world);
+         // Search
+         case 4 -> playerCharacter.search(world);
+         // Rest
+         case 5 -> playerCharacter.rest(world);
+         // Check Character
+         case 6 -> playerCharacter.checkCharacter();
+         // Add all nuclear cores to the player's backpack for testing purposes
+         case 5428 -> {
+            for (int i = 0; i < 9; i++) {
+               playerCharacter.addBackpackItem(new Items("Nuclear Core " + (i + 1), 0, 0, 2));
+            }
+            lineBreak();
+         }
+         default -> {
+         }
+      }
+   }
+
+   /**
+    * Prints the game over message if the player has died or completed the mission, and asks if they want to play again.
+    *
+    * @param playerCharacter The player to check
+    * @return True if the game is over, otherwise false
+    */
+   public static boolean printGameOver(Player playerCharacter) {
+      if (!playerCharacter.getIsAlive()) {
+         print(RED, "+--------------------------------------------------+");
+         lineBreak();
+         print(RED, "| You failed to complete the mission... Game Over  |");
+         lineBreak();
+         print(RED, "+--------------------------------------------------+");
+         lineBreak();
+      } else if (playerCharacter.getIsGameEnding()) {
+         lineBreak();
+         print(GREEN, "+--------------------------------------------------+");
+         lineBreak();
+         print(GREEN, "|       You completed the mission! Game Over       |");
+         lineBreak();
+         print(GREEN, "+--------------------------------------------------+");
+         lineBreak();
+      } else {
+         return false;
+      }
+      lineBreak();
+      text("Do you want to play again? ").colour(BLUE, "(Y)es / (N)o");
+      lineBreak();
+      return true;
+   }
+
+   /**
+    * Prints the message shown when the player stops playing.
+    */
+   public static void printGoodbye() {
       lineBreak();
       print(GREEN, "Thank you for playing our game!");
       lineBreak();
@@ -175,7 +352,7 @@ public class Main {
    public static void printGameTutorial() {
       print(GREEN, "Welcome to our game!");
       lineBreak();
-      print("Your inputs are denoted by the \"" + colour(GREEN, " > ") + " \"");
+      text("Your inputs are denoted by the \"").colour(GREEN, " > ").append(" \"");
       lineBreak();
       print("You must type your input, it can be a number, letter or something else, it depends on what is being asked");
       lineBreak();
@@ -189,13 +366,13 @@ public class Main {
     *
     * @param playerCharacter The player to set the name for
     */
-   public static void promptPlayerName(Player playerCharacter) {
+   public void promptPlayerName(Player playerCharacter) {
       primaryChoiceHandler = true;
 
       while (primaryChoiceHandler) {
          secondaryChoiceHandler = true;
          print(GREEN, "Enter your name: ");
-         String playerName = sc.nextLine().trim();
+         String playerName = Input.nextLine(Metrics.NAME_MENU).trim();
 
          // If the player enters an empty name, the line is cleared
          if (playerName.isEmpty()) {
@@ -203,10 +380,8 @@ public class Main {
          } else {
             // Asks the player to confirm their name
             while (secondaryChoiceHandler) {
-               print("Are you sure you want to use \"" + colour(YELLOW, playerName) + "\" as your name?" + colour(BLUE, " (Y)es / (N)o"));
-               lineBreak();
-               print(GREEN, " > ");
-               String nameConfirm = sc.nextLine().toUpperCase();
+               printNameConfirm(playerName);
+               String nameConfirm = Input.nextLine(Metrics.NAME_CONFIRM_MENU).toUpperCase();
 
                if (nameConfirm.isEmpty()) {
                   clearLine(2);
@@ -235,13 +410,25 @@ public class Main {
       printSpacer();
    }
 
+   /**
+    * Asks the player to confirm their name.
+    *
+    * @param playerName The name the player entered
+    */
+   public static void printNameConfirm(String playerName) {
+      text("Are you sure you want to use \"").colour(YELLOW, playerName).append("\" as your name?").colour(BLUE, " (Y)es / (N)o");
+      lineBreak();
+      print(GREEN, " > ");
+   }
+
    /**
     * Displays information about the mission to the player.
     *
     * @param playerCharacter The player to display the mission information for
+    * @param world           The world the mission takes place in
     */
-   public static void displayMissionInformation(Player playerCharacter) {
-      print("\"" + colour(YELLOW, playerCharacter.getName()) + ", you have been chosen for an important reconnaissance mission.");
+   public static void displayMissionInformation(Player playerCharacter, World world) {
+      text("\"").colour(YELLOW, playerCharacter.getName()).append(", you have been chosen for an important reconnaissance mission.");
       lineBreak();
       print("Your objective is to rescue two scientists that were conducting important research at a classified nuclear facility. We haven't heard from them -- make sure they're safe until further reinforcements arrive.");
       lineBreak();
@@ -249,7 +436,7 @@ public class Main {
       lineBreak();
       print("The facility sent over this map, but communication cut out before they were able to tell us what it was about. Whatever it was, it must be important.");
       lineBreak();
-      Navigation.viewMissionMap();
+      Navigation.viewMissionMap(world);
       print("We've got another issue -- our armoury's nearly empty. Ammunition is low, and we don't have enough medkits to go around. You'll have to make do with whatever you can scavenge. Stick to stealth if you can -- this mission is too important to risk on a firefight.");
       lineBreak();
       print("Godspeed, soldier.\"");
@@ -262,60 +449,29 @@ public class Main {
     *
     * @param playerCharacter The player to choose a weapon for
     */
-   public static void playerWeaponSelection(Player playerCharacter) {
+   public void playerWeaponSelection(Player playerCharacter) {
       primaryChoiceHandler = true;
 
-      print("Choose a weapon to bring with you: ");
-      lineBreak();
-      print("The " + colour(BLUE, "(1) Pistol") + " is the most basic weapon, it's " + colour(YELLOW, "light and reliable") + ". While it deals " + colour(YELLOW, "low damage") + ", it's ideal for " + colour(YELLOW, "close-quarters combat") + ".");
-      lineBreak();
-      print("The " + colour(BLUE, "(2) Rifle") + " is a balanced weapon, offering " + colour(YELLOW, "moderate power, accuracy and weight") + ". It's versatile and effective at both " + colour(YELLOW, "medium and long ranges") + ".");
-      lineBreak();
-      print("The " + colour(BLUE, "(3) Sniper") + " is a " + colour(YELLOW, "heavy but high-precision weapon") + ", designed for " + colour(YELLOW, "long-range engagements") + ". It delivers " + colour(YELLOW, "powerful shots") + " but requires " + colour(YELLOW, "ammo") + ".");
-      lineBreak();
+      printWeaponOptions();
 
       while (primaryChoiceHandler) {
          secondaryChoiceHandler = true;
          print(GREEN, " > ");
-         String weaponChosen = sc.nextLine().toUpperCase();
+         String weaponChosen = Input.nextLine(Metrics.WEAPON_MENU).toUpperCase();
 
          if (weaponChosen.isEmpty()) {
                clearLine(1);
          } else {
-            int weaponChosenInt;
-
-            try {
-               weaponChosenInt = Integer.parseInt(weaponChosen);
-            } catch (NumberFormatException e) {
-               weaponChosenInt = 0;
-            }
+            int weaponChosenInt = Input.parseInt(weaponChosen, 0);
 
-            switch (weaponChosenInt) {
-               case 1 -> {
-                  playerCharacter.setWeapon(new Weapon("Pistol", 8, 16, 1, 1));
-               }
-               case 2 -> {
-                  playerCharacter.setWeapon(new Weapon("Rifle", 10, 12, 3, 3));
-               }
-               case 3 -> {
-                  playerCharacter.setWeapon(new Weapon("Sniper", 14, 8, 5, 5));
-               }
-               // Admin weapon - for debugging purposes
-               case 5428 -> {
-                  playerCharacter.setWeapon(new Weapon("Admin", 12, 500, 3, 3));
-                  playerCharacter.setHealth(300);
-               }
-               default -> {
-                  clearLine(1);
-                  continue;
-               }
+            if (!selectWeapon(playerCharacter, weaponChosenInt)) {
+               clearLine(1);
+               continue;
             }
 
             while (secondaryChoiceHandler) {
-               print("Are you sure you want to use the " + colour(YELLOW, playerCharacter.getWeapon().getName()) + " as your weapon?" + colour(BLUE, " (Y)es / (N)o"));
-               lineBreak();
-               print(GREEN, " > ");
-               String weaponConfirm = sc.nextLine().toUpperCase();
+               printWeaponConfirm(playerCharacter);
+               String weaponConfirm = Input.nextLine(Metrics.WEAPON_CONFIRM_MENU).toUpperCase();
 
                if (weaponConfirm.isEmpty()) {
                   clearLine(2);
@@ -342,68 +498,86 @@ public class Main {
       lineBreak();
    }
 
+   /**
+    * Prints the weapons the player can choose from.
+    */
+   public static void printWeaponOptions() {
+      print("Choose a weapon to bring with you: ");
+      lineBreak();
+
+      // Each weapon in the catalog, numbered from 1
+      Catalog catalog = Catalog.get();
+      for (int i = 0; i < catalog.getWeaponCount(); i++) {
+         text("The ").colour(BLUE, "(" + (i + 1) + ") " + catalog.getWeaponName(i)).append(' ').append(catalog.getWeaponDescription(i));
+         lineBreak();
+      }
+   }
+
+   /**
+    * Gives the player the weapon they chose.
+    *
+    * @param playerCharacter The player to choose a weapon for
+    * @param weaponChosen    The player's choice
+    * @return True if the choice was a weapon, otherwise false
+    */
+   public static boolean selectWeapon(Player playerCharacter, int weaponChosen) {
+      Catalog catalog = Catalog.get();
+      if (weaponChosen >= 1 && weaponChosen <= catalog.getWeaponCount()) {
+         playerCharacter.setWeapon(catalog.createWeapon(weaponChosen - 1));
+      } else if (weaponChosen == 5428) {
+         // Admin weapon - for debugging purposes
+         playerCharacter.setWeapon(new Weapon("Admin", 12, 500, 3, 3));
+         playerCharacter.setHealth(300);
+      } else {
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Asks the player to confirm their weapon.
+    *
+    * @param playerCharacter The player choosing a weapon
+    */
+   public static void printWeaponConfirm(Player playerCharacter) {
+      text("Are you sure you want to use the ").colour(YELLOW, playerCharacter.getWeapon().getName()).append(" as your weapon?").colour(BLUE, " (Y)es / (N)o");
+      lineBreak();
+      print(GREEN, " > ");
+   }
+
    /**
     * Prompts the player to choose 2 items to start with.
     *
     * @param playerCharacter The player to choose items for
     */
-   public static void playerItemSelection(Player playerCharacter) {
+   public void playerItemSelection(Player playerCharacter) {
       int itemHandler = 0;
 
       while (itemHandler < 2) {
          primaryChoiceHandler = true;
 
-         if (itemHandler == 0) {
-            print("Pick your first item to take with you: ");
-            lineBreak();
-            print("The " + colour(BLUE, "(1) Food Pack") + " is a" + colour(YELLOW, " small item that regenerates 10 health") + ".");
-            lineBreak();
-            print("The " + colour(BLUE, "(2) Ammo Box") + " is a" + colour(YELLOW, " slightly heavier item that gives you 18 ammo for your weapon") + ".");
-            lineBreak();
-            print("The " + colour(BLUE, "(3) First Aid Kit") + " is a" + colour(YELLOW, " large item that heals you for 25 health") + ".");
-         } else {
-               print("Pick your second item to take with you: ");
-         }
-         lineBreak();
+         printItemOptions(itemHandler);
 
          while (primaryChoiceHandler) {
             secondaryChoiceHandler = true;
-            String itemName = "";
             print(GREEN, " > ");
-            String itemChosen = sc.nextLine().toUpperCase();
+            String itemChosen = Input.nextLine(Metrics.ITEM_MENU).toUpperCase();
 
             if (itemChosen.isEmpty()) {
                clearLine(1);
             } else {
-               int itemChosenInt;
+               int itemChosenInt = Input.parseInt(itemChosen, 0);
 
-               try {
-                  itemChosenInt = Integer.parseInt(itemChosen);
-               } catch (NumberFormatException e) {
-                  itemChosenInt = 0;
-               }
+               Items item = createStartingItem(itemChosenInt);
 
-               switch (itemChosenInt) {
-                  case 1 -> {
-                        itemName = "Food Pack";
-                  }
-                  case 2 -> {
-                        itemName = "Ammo Box";
-                  }
-                  case 3 -> {
-                        itemName = "First Aid Kit";
-                  }
-                  default -> {
-                        clearLine(1);
-                        secondaryChoiceHandler = false;
-                  }
+               if (item == null) {
+                  clearLine(1);
+                  secondaryChoiceHandler = false;
                }
 
                while (secondaryChoiceHandler) {
-                  print("Are you sure you want to pick the " + colour(YELLOW, itemName) + "?" + colour(BLUE, " (Y)es / (N)o"));
-                  lineBreak();
-                  print(GREEN, " > ");
-                  String itemConfirm = sc.nextLine().toUpperCase();
+                  printItemConfirm(item);
+                  String itemConfirm = Input.nextLine(Metrics.ITEM_CONFIRM_MENU).toUpperCase();
 
                   if (itemConfirm.isEmpty()) {
                         clearLine(2);
@@ -412,20 +586,7 @@ public class Main {
 
                         switch (itemConfirmChar) {
                         case 'Y' -> {
-                           switch (itemChosenInt) {
-                              case 1 -> {
-                                 playerCharacter.addBackpackItem(new Items("Food Pack", 10, 1, 0));
-                              }
-                              case 2 -> {
-                                 playerCharacter.addBackpackItem(new Items("Ammo Box", 18, 2, 1));
-                              }
-                              case 3 -> {
-                                 playerCharacter.addBackpackItem(new Items("First Aid Kit", 25, 3, 0));
-                              }
-                              default -> {
-                                 clearLine(1);
-                              }
-                           }
+                           playerCharacter.addBackpackItem(item);
                            secondaryChoiceHandler = false;
                            primaryChoiceHandler = false;
                         }
@@ -446,4 +607,50 @@ public class Main {
       }
       printSpacer();
    }
+
+   /**
+    * Prints the items the player can choose from at the start of the game.
+    *
+    * @param itemHandler How many items the player has already chosen
+    */
+   public static void printItemOptions(int itemHandler) {
+      if (itemHandler == 0) {
+         print("Pick your first item to take with you: ");
+
+         // Each starting item in the catalog, numbered from 1
+         Catalog catalog = Catalog.get();
+         for (int i = 0; i < catalog.getStartingItemCount(); i++) {
+            lineBreak();
+            text("The ").colour(BLUE, "(" + (i + 1) + ") " + catalog.getStartingItemName(i)).append(' ').append(catalog.getStartingItemDescription(i));
+         }
+      } else {
+            print("Pick your second item to take with you: ");
+      }
+      lineBreak();
+   }
+
+   /**
+    * Creates the starting item the player chose.
+    *
+    * @param itemChosen The player's choice
+    * @return The item, or null if the choice isn't an item
+    */
+   public static Items createStartingItem(int itemChosen) {
+      Catalog catalog = Catalog.get();
+      if (itemChosen < 1 || itemChosen > catalog.getStartingItemCount()) {
+         return null;
+      }
+      return catalog.createStartingItem(itemChosen - 1);
+   }
+
+   /**
+    * Asks the player to confirm their starting item.
+    *
+    * @param item The item the player chose
+    */
+   public static void printItemConfirm(Items item) {
+      text("Are you sure you want to pick the ").colour(YELLOW, item.getName()).append('?').colour(BLUE, " (Y)es / (N)o");
+      lineBreak();
+      print(GREEN, " > ");
+   }
 }
@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import utils.*;
+import static utils.Formatting.*;
+
+/**
+ * The {@code SelectorServer} class lets many players play at once over TCP like {@link Server}, but plays every game on a single thread.
+ * Each connection has a {@link GameSession}, and a {@link Selector} tells the thread which connections have sent input, so only those are handled.
+ * A player waiting at a prompt costs their input buffer and their game, not a thread and its stack.
+ * Output is rendered into one shared direct buffer and written straight to the connection, only output that a slow connection hasn't accepted yet is kept for that connection.
+ */
+public class SelectorServer {
+
+   private static final int DEFAULT_PORT = 5428;
+   private static final int INPUT_BUFFER_SIZE = 1024; // Longest line a player can send, longer lines are ignored
+   private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+   private final Selector selector;
+   private final ServerSocketChannel serverChannel;
+   private final JournalWriter journals; // Records every session, or null
+
+   // Output for the connection being handled, the renderer writes into it
+   private ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+   private final Renderer renderer = new Renderer(new OutputBuffer(), StandardCharsets.UTF_8); // Shared by every session, each redraws its map against its own frame
+   private final byte[] lineBytes = new byte[INPUT_BUFFER_SIZE];
+
+   /**
+    * Starts the server and plays games until the program is stopped.
+    * The port can be passed as the first argument, otherwise {@value #DEFAULT_PORT} is used.
+    * A directory can be passed as the second argument to record every session in a journal there.
+    */
+   public static void main(String[] args) throws IOException {
+      int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+      Metrics.startWritingIfConfigured();
+      SelectorServer server = new SelectorServer(port, args.length > 1 ? new JournalWriter(Path.of(args[1])) : null);
+
+      print(GREEN, "Server listening on port " + server.getPort());
+      lineBreak();
+      flush();
+      server.run();
+   }
+
+   /**
+    * Constructs a new {@code SelectorServer} that accepts connections from this machine.
+    *
+    * @param port     The port to listen on, or 0 to pick any free port
+    * @param journals Where every session is recorded, or null to not record them
+    * @throws IOException if the port can't be used
+    */
+   public SelectorServer(int port, JournalWriter journals) throws IOException {
+      this.journals = journals;
+      selector = Selector.open();
+      serverChannel = ServerSocketChannel.open();
+      serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+   }
+
+   /**
+    * Gets the port the server is listening on.
+    *
+    * @return The port
+    * @throws IOException if the server has been closed
+    */
+   public int getPort() throws IOException {
+      return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+   }
+
+   /**
+    * Accepts connections and plays their games on the current thread until the thread is interrupted.
+    *
+    * @throws IOException if the server can't accept connections
+    */
+   public void run() throws IOException {
+      try {
+         while (!Thread.currentThread().isInterrupted()) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+            while (keys.hasNext()) {
+               SelectionKey key = keys.next();
+               keys.remove();
+
+               if (!key.isValid()) {
+                  continue;
+               }
+               if (key.isAcceptable()) {
+                  accept();
+                  continue;
+               }
+
+               Connection connection = (Connection) key.attachment();
+               try {
+                  if (key.isWritable()) {
+                     write(key, connection);
+                  }
+                  if (key.isValid() && key.isReadable()) {
+                     read(key, connection);
+                  }
+               } catch (IOException | RuntimeException e) {
+                  // The player disconnected, or their game failed, either way only this connection is closed
+                  close(key);
+               }
+            }
+         }
+      } finally {
+         for (SelectionKey key : selector.keys()) {
+            close(key);
+         }
+         selector.close();
+      }
+   }
+
+   /**
+    * Accepts a new connection and starts its game.
+    */
+   private void accept() throws IOException {
+      SocketChannel channel = serverChannel.accept();
+      if (channel == null) {
+         return;
+      }
+
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      Connection connection = new Connection(channel);
+      if (journals != null) {
+         connection.journal = journals.open();
+         connection.session.setJournal(connection.journal);
+      }
+      SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+
+      try {
+         output.clear();
+         connection.session.start(renderer);
+         send(key, connection);
+      } catch (IOException | RuntimeException e) {
+         close(key);
+      }
+   }
+
+   /**
+    * Reads what the connection has sent and plays each complete line in its game.
+    */
+   private void read(SelectionKey key, Connection connection) throws IOException {
+      ByteBuffer input = connection.input;
+
+      if (connection.channel.read(input) < 0) {
+         close(key);
+         return;
+      }
+
+      output.clear();
+      input.flip();
+      String line;
+      while (!connection.session.getIsFinished() && (line = nextLine(connection)) != null) {
+         connection.session.handleLine(line, renderer);
+      }
+      input.compact();
+
+      connection.isClosing = connection.session.getIsFinished();
+      send(key, connection);
+   }
+
+   /**
+    * Takes the next complete line out of the connection's input, without its line break.
+    * If the buffer fills up without a line break, the line is too long, so it is thrown away up to the next line break rather than played in pieces,
+    * and a player can't fill up the server's memory.
+    *
+    * @param connection The connection, with its input ready to be read
+    * @return The line, or null if there isn't a complete line yet
+    */
+   private String nextLine(Connection connection) {
+      ByteBuffer input = connection.input;
+      int start = input.position();
+      int end = input.limit();
+
+      for (int i = start; i < end; i++) {
+         if (input.get(i) == '\n') {
+            if (connection.isDiscarding) {
+               // The end of a line that was too long
+               connection.isDiscarding = false;
+               input.position(i + 1);
+               start = i + 1;
+               continue;
+            }
+            int length = i > start && input.get(i - 1) == '\r' ? i - 1 - start : i - start;
+            input.get(lineBytes, 0, length);
+            input.position(i + 1);
+            return new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+         }
+      }
+
+      if (connection.isDiscarding || start == 0 && end == input.capacity()) {
+         connection.isDiscarding = true;
+         input.position(end);
+      }
+      return null;
+   }
+
+   /**
+    * Writes the rendered output to the connection, keeping whatever it doesn't accept yet to write once it is ready.
+    * The connection's input isn't read while it has output waiting, so a player that doesn't read can't make the server buffer more.
+    */
+   private void send(SelectionKey key, Connection connection) throws IOException {
+      output.flip();
+      if (connection.pendingOutput == null) {
+         connection.channel.write(output);
+      }
+
+      if (output.hasRemaining()) {
+         connection.pendingOutput = append(connection.pendingOutput, output);
+         key.interestOps(SelectionKey.OP_WRITE);
+      } else if (connection.pendingOutput == null && connection.isClosing) {
+         close(key);
+      }
+   }
+
+   /**
+    * Writes the output the connection didn't accept earlier.
+    */
+   private void write(SelectionKey key, Connection connection) throws IOException {
+      connection.channel.write(connection.pendingOutput);
+
+      if (!connection.pendingOutput.hasRemaining()) {
+         connection.pendingOutput = null;
+         if (connection.isClosing) {
+            close(key);
+         } else {
+            key.interestOps(SelectionKey.OP_READ);
+         }
+      }
+   }
+
+   /**
+    * Adds bytes to the end of a buffer, replacing it with a larger buffer if they don't fit.
+    *
+    * @param buffer The buffer to add to, ready to be read, or null for a new buffer
+    * @param bytes  The bytes to add
+    * @return The buffer with the bytes added, ready to be read
+    */
+   private static ByteBuffer append(ByteBuffer buffer, ByteBuffer bytes) {
+      if (buffer == null) {
+         buffer = ByteBuffer.allocateDirect(bytes.remaining());
+      } else if (buffer.capacity() - buffer.limit() < bytes.remaining()) {
+         ByteBuffer grown = ByteBuffer.allocateDirect(buffer.remaining() + bytes.remaining());
+         grown.put(buffer);
+         grown.flip();
+         buffer = grown;
+      }
+
+      int position = buffer.position();
+      buffer.position(buffer.limit());
+      buffer.limit(buffer.capacity());
+      buffer.put(bytes);
+      buffer.flip();
+      buffer.position(position);
+      return buffer;
+   }
+
+   private static void close(SelectionKey key) {
+      if (key.attachment() instanceof Connection connection && connection.journal != null) {
+         connection.journal.close();
+      }
+      key.cancel();
+      try {
+         key.channel().close();
+      } catch (IOException e) {
+         // The connection is already closed
+      }
+   }
+
+   /**
+    * A player's connection and the game they are playing on it.
+    */
+   private static class Connection {
+      final SocketChannel channel;
+      final GameSession session = new GameSession(new GameRandom());
+      final ByteBuffer input = ByteBuffer.allocateDirect(INPUT_BUFFER_SIZE);
+      Journal journal; // Records the session, or null
+      ByteBuffer pendingOutput; // Output the connection hasn't accepted yet, null once everything has been sent
+      boolean isClosing; // The player stopped playing, so the connection is closed once the output is sent
+      boolean isDiscarding; // The input is the rest of a line that was too long, which is thrown away up to the next line break
+
+      Connection(SocketChannel channel) {
+         this.channel = channel;
+      }
+   }
+
+   /**
+    * The stream the renderer writes to, which adds the rendered bytes to the shared output buffer, growing it if needed.
+    */
+   private class OutputBuffer extends OutputStream {
+
+      @Override
+      public void write(int b) {
+         ensureCapacity(1);
+         output.put((byte) b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+         ensureCapacity(len);
+         output.put(b, off, len);
+      }
+
+      private void ensureCapacity(int length) {
+         if (output.remaining() < length) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(output.capacity() * 2, output.position() + length));
+            output.flip();
+            grown.put(output);
+            output = grown;
+         }
+      }
+   }
+}
@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import utils.*;
+import static utils.Formatting.*;
+
+/**
+ * The {@code Server} class lets many players play the game at the same time over plain TCP connections, eg. with {@code telnet localhost 5428} or {@code nc localhost 5428}.
+ * Each connection plays its own game on its own thread, reading from and printing to its connection.
+ * On Java 21 and later every game runs on a virtual thread, so waiting for a player's input doesn't hold up a platform thread.
+ */
+public class Server {
+
+   private static final int DEFAULT_PORT = 5428;
+
+   private static JournalWriter journals; // Records every session when a journal directory is passed, otherwise null
+
+   /**
+    * Starts the server and accepts connections until the program is stopped.
+    * The port can be passed as the first argument, otherwise {@value #DEFAULT_PORT} is used.
+    * A directory can be passed as the second argument to record every session in a journal there.
+    */
+   public static void main(String[] args) throws IOException {
+      int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+      Metrics.startWritingIfConfigured();
+      if (args.length > 1) {
+         journals = new JournalWriter(Path.of(args[1]));
+      }
+      ExecutorService sessions = newSessionExecutor();
+
+      // Only accept connections from this machine
+      try (ServerSocket serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress())) {
+         print(GREEN, "Server listening on port " + serverSocket.getLocalPort());
+         lineBreak();
+         flush();
+
+         while (true) {
+            Socket socket = serverSocket.accept();
+            sessions.execute(() -> playSession(socket));
+         }
+      } finally {
+         sessions.shutdownNow();
+      }
+   }
+
+   /**
+    * Plays games over a connection until the player stops playing or disconnects.
+    *
+    * @param socket The player's connection
+    */
+   public static void playSession(Socket socket) {
+      Journal journal = journals == null ? null : journals.open();
+
+      try (socket) {
+         socket.setTcpNoDelay(true);
+         Formatting.setRenderer(new Renderer(socket.getOutputStream(), StandardCharsets.UTF_8));
+         InputSource input = new LineReader(socket.getInputStream(), StandardCharsets.UTF_8);
+         GameRandom random = new GameRandom();
+
+         if (journal != null) {
+            journal.recordStart(random.getState());
+            random.setJournal(journal);
+            input = journal.recording(input);
+         }
+         Input.setSource(input);
+         new Main().play(random);
+      } catch (NoSuchElementException | IOException | UncheckedIOException e) {
+         // The player disconnected
+      } finally {
+         if (journal != null) {
+            journal.close();
+         }
+         Input.resetSource();
+         try {
+            Formatting.resetRenderer();
+         } catch (UncheckedIOException e) {
+            // The connection is already closed, so there is nothing left to send
+         }
+      }
+   }
+
+   /**
+    * Creates the executor that runs each connection's game.
+    * Virtual threads are used when the Java version has them, otherwise each game gets a platform thread.
+    *
+    * @return The executor
+    */
+   private static ExecutorService newSessionExecutor() {
+      try {
+         Method virtualThreads = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+         return (ExecutorService) virtualThreads.invoke(null);
+      } catch (ReflectiveOperationException e) {
+         return Executors.newCachedThreadPool();
+      }
+   }
+}
@@ -0,0 +1,258 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import utils.*;
+import static utils.Formatting.*;
+
+/**
+ * The {@code Simulation} class plays huge numbers of encounters through the {@link CombatEngine} without any input or output, to check how balanced the game is.
+ * Every loadout is played: each weapon the player can choose, with each pair of starting items, on each kind of tile, ie. locations with 1, 2 or 3 possible enemies.
+ * It reports the win rate, the health left, the ammo used and how often fleeing worked for each enemy type, tile and loadout.
+ *
+ * <p>Encounters are split into tasks that run in parallel on a {@link ForkJoinPool}. Each task has its own random number stream, split from the seed in order, and keeps its own totals, so tasks never wait for each other and the same seed always gives the same report.
+ * Each encounter starts a new game's player: full health, the loadout's weapon with full ammo and the two items.
+ * The player fights every turn, uses a healing item as soon as the game allows it, and tries to flee once from a lone enemy when their health is low.
+ */
+public class Simulation {
+
+   private static final long DEFAULT_ENCOUNTERS = 10_000_000;
+   private static final int TASK_ENCOUNTERS = 1 << 18; // Encounters in each task, small enough to keep every thread busy until the end
+   private static final int MAX_TILE_ENCOUNTERS = 3;
+
+   private static final int START_HEALTH = 100;
+   private static final int HEAL_LIMIT = 90; // The game won't heal the player past this
+   private static final int FLEE_HEALTH = 30; // The player tries to flee at or below this health
+
+   // The totals kept for each tile and enemy type
+   private static final int FIGHTS = 0;
+   private static final int WINS = 1;
+   private static final int DEATHS = 2;
+   private static final int FLEE_ATTEMPTS = 3;
+   private static final int FLEES = 4;
+   private static final int HEALTH_LEFT = 5;
+   private static final int AMMO_USED = 6;
+   private static final int TOTAL_COUNT = 7;
+
+   /**
+    * Runs the simulation and prints the report.
+    * Passing {@code --encounters <number>} changes how many encounters are played in total, {@value #DEFAULT_ENCOUNTERS} by default.
+    * Passing {@code --seed <number>} plays the same encounters every time, and {@code --threads <number>} changes how many threads are used, every processor by default.
+    */
+   public static void main(String[] args) throws Exception {
+      long encounters = DEFAULT_ENCOUNTERS;
+      GameRandom random = new GameRandom();
+      int threads = Runtime.getRuntime().availableProcessors();
+
+      for (int i = 0; i + 1 < args.length; i += 2) {
+         switch (args[i]) {
+            case "--encounters" -> encounters = Long.parseLong(args[i + 1]);
+            case "--seed" -> random = new GameRandom(Long.parseLong(args[i + 1]));
+            case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+            default -> {
+            }
+         }
+      }
+
+      List<Loadout> loadouts = Loadout.all();
+      long loadoutEncounters = Math.max(1, encounters / loadouts.size());
+      List<Callable<long[]>> tasks = new ArrayList<>();
+      List<Integer> taskLoadouts = new ArrayList<>();
+      for (int i = 0; i < loadouts.size(); i++) {
+         for (long start = 0; start < loadoutEncounters; start += TASK_ENCOUNTERS) {
+            Loadout loadout = loadouts.get(i);
+            GameRandom taskRandom = random.split();
+            long taskEncounters = Math.min(TASK_ENCOUNTERS, loadoutEncounters - start);
+            tasks.add(() -> play(loadout, taskRandom, taskEncounters));
+            taskLoadouts.add(i);
+         }
+      }
+
+      long startTime = System.nanoTime();
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      long[][] totals = new long[loadouts.size()][];
+      try {
+         List<Future<long[]>> results = pool.invokeAll(tasks);
+         for (int i = 0; i < results.size(); i++) {
+            long[] taskTotals = results.get(i).get();
+            int loadout = taskLoadouts.get(i);
+            if (totals[loadout] == null) {
+               totals[loadout] = taskTotals;
+            } else {
+               for (int j = 0; j < taskTotals.length; j++) {
+                  totals[loadout][j] += taskTotals[j];
+               }
+            }
+         }
+      } finally {
+         pool.shutdown();
+      }
+      long time = System.nanoTime() - startTime;
+
+      long fights = 0;
+      for (int i = 0; i < loadouts.size(); i++) {
+         fights += printLoadout(loadouts.get(i), totals[i]);
+      }
+      print(GREEN, String.format("Played %,d encounters and %,d fights in %.1f s on %d threads, %,.0f fights/s", loadoutEncounters * loadouts.size(), fights, time / 1e9, threads, fights / (time / 1e9)));
+      lineBreak();
+      flush();
+   }
+
+   /**
+    * Plays encounters with one loadout, cycling through the tiles.
+    *
+    * @param loadout    The weapon and items each encounter starts with
+    * @param random     The task's own random numbers
+    * @param encounters The number of encounters to play
+    * @return The totals for each tile and enemy type, see {@link #totalIndex(int, int, int)}
+    */
+   private static long[] play(Loadout loadout, GameRandom random, long encounters) {
+      int enemyCount = EnemyType.count();
+      long[] totals = new long[MAX_TILE_ENCOUNTERS * enemyCount * TOTAL_COUNT];
+      Player player = new Player(START_HEALTH, true, random);
+      Weapon weapon = loadout.createWeapon();
+      player.setWeapon(weapon);
+      CombatEngine engine = player.getCombatEngine();
+
+      for (long i = 0; i < encounters; i++) {
+         int tile = (int) (i % MAX_TILE_ENCOUNTERS);
+         loadout.reset(player, weapon);
+         if (!engine.startEncounter(tile + 1)) {
+            continue; // No enemies, so there is nothing to count
+         }
+
+         boolean hasTriedToFlee = false;
+         while (!engine.getIsEncounterOver()) {
+            Items healing = player.getFirstBackpackItem(0);
+            if (healing != null && player.getHealth() + healing.getValue() <= HEAL_LIMIT) {
+               // Using an item doesn't use up the player's turn
+               player.setHealth(player.getHealth() + healing.getValue());
+               player.removeBackpackItem(healing);
+            }
+
+            boolean isFleeing = !hasTriedToFlee && engine.getEnemyCount() == 1 && player.getHealth() <= FLEE_HEALTH;
+            int enemy = engine.getEnemy().getType().getIndex();
+            CombatResult result = engine.step(isFleeing ? CombatEngine.Action.FLEE : CombatEngine.Action.FIGHT);
+            int index = totalIndex(tile, enemy, 0);
+
+            if (isFleeing) {
+               hasTriedToFlee = true;
+               totals[index + FLEE_ATTEMPTS]++;
+            }
+            if (result.getPlayerAttacked()) {
+               totals[index + AMMO_USED]++;
+            }
+            if (result.getIsFightOver()) {
+               totals[index + FIGHTS]++;
+               totals[index + HEALTH_LEFT] += Math.max(0, player.getHealth());
+               if (result.getIsEnemyDefeated()) {
+                  totals[index + WINS]++;
+               } else if (result.getIsPlayerDefeated()) {
+                  totals[index + DEATHS]++;
+               } else if (result.getFled()) {
+                  totals[index + FLEES]++;
+               }
+            }
+         }
+      }
+      return totals;
+   }
+
+   /**
+    * Gets where one of the totals for a tile and enemy type is kept.
+    */
+   private static int totalIndex(int tile, int enemy, int total) {
+      return (tile * EnemyType.count() + enemy) * TOTAL_COUNT + total;
+   }
+
+   /**
+    * Prints the report for a loadout: a row for each tile and enemy type.
+    *
+    * @return The number of fights played with the loadout
+    */
+   private static long printLoadout(Loadout loadout, long[] totals) {
+      print(YELLOW, "<=-- " + loadout.getName() + " --=>");
+      lineBreak();
+      print(BLUE, String.format("%-5s %-18s %12s %7s %7s %7s %8s %10s %13s", "Tile", "Enemy", "Fights", "Win %", "Died %", "Fled %", "HP left", "Ammo used", "Flee success"));
+      lineBreak();
+
+      long fights = 0;
+      for (int tile = 0; tile < MAX_TILE_ENCOUNTERS; tile++) {
+         for (int enemy = 0; enemy < EnemyType.count(); enemy++) {
+            int index = totalIndex(tile, enemy, 0);
+            long enemyFights = totals[index + FIGHTS];
+            if (enemyFights == 0) {
+               continue;
+            }
+            fights += enemyFights;
+            long attempts = totals[index + FLEE_ATTEMPTS];
+            print(String.format("%-5d %-18s %,12d %7.2f %7.2f %7.2f %8.2f %10.2f %13s", tile + 1, EnemyType.get(enemy).getName(), enemyFights,
+                  100.0 * totals[index + WINS] / enemyFights, 100.0 * totals[index + DEATHS] / enemyFights, 100.0 * totals[index + FLEES] / enemyFights,
+                  (double) totals[index + HEALTH_LEFT] / enemyFights, (double) totals[index + AMMO_USED] / enemyFights,
+                  attempts == 0 ? "-" : String.format("%.2f %%", 100.0 * totals[index + FLEES] / attempts)));
+            lineBreak();
+         }
+      }
+      lineBreak();
+      return fights;
+   }
+
+   /**
+    * A weapon and the two items the player starts with.
+    */
+   private static final class Loadout {
+      private final int weapon;
+      private final int startAmmo;
+      private final Items firstItem;
+      private final Items secondItem;
+
+      private Loadout(int weapon, int firstItem, int secondItem) {
+         Catalog catalog = Catalog.get();
+         this.weapon = weapon;
+         this.startAmmo = catalog.createWeapon(weapon).getAmmo();
+         this.firstItem = catalog.createStartingItem(firstItem);
+         this.secondItem = catalog.createStartingItem(secondItem);
+      }
+
+      /**
+       * Gets every weapon in the catalog with every pair of starting items, where the order of the items doesn't matter.
+       */
+      static List<Loadout> all() {
+         Catalog catalog = Catalog.get();
+         List<Loadout> loadouts = new ArrayList<>();
+         for (int weapon = 0; weapon < catalog.getWeaponCount(); weapon++) {
+            for (int first = 0; first < catalog.getStartingItemCount(); first++) {
+               for (int second = first; second < catalog.getStartingItemCount(); second++) {
+                  loadouts.add(new Loadout(weapon, first, second));
+               }
+            }
+         }
+         return loadouts;
+      }
+
+      Weapon createWeapon() {
+         return Catalog.get().createWeapon(weapon);
+      }
+
+      /**
+       * Sets the player up as they would be at the start of a new game, reusing the same weapon and items.
+       * Items are never changed by being used, so they can be shared.
+       */
+      void reset(Player player, Weapon playerWeapon) {
+         player.setHealth(START_HEALTH);
+         player.setIsAlive(true);
+         player.setIsFighting(false);
+         player.setFleeCount(0);
+         playerWeapon.setAmmo(startAmmo);
+         player.clearBackpack();
+         player.addBackpackItem(firstItem);
+         player.addBackpackItem(secondItem);
+         player.calculateWeight();
+      }
+
+      String getName() {
+         return Catalog.get().getWeaponName(weapon) + " + " + firstItem.getName() + " + " + secondItem.getName();
+      }
+   }
+}
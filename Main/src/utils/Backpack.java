@@ -0,0 +1,269 @@
+package utils;
+import java.util.Arrays;
+
+/**
+ * The {@code Backpack} class stores the items a player is carrying.
+ * Each item keeps the slot number it was given when it was added, starting from 1, so using an item doesn't renumber the rest.
+ * A removed item leaves its slot empty, and the next item added goes into the lowest empty slot, so the slots don't grow over a long game.
+ * The size and any slot can be read in constant time, and the listing shown to the player is only rebuilt after the contents change.
+ * The total weight and the items of each type are kept up to date as items are added and removed, so they can also be read in constant time.
+ * Because of this, an item's weight and type should not be changed while it is in a backpack.
+ */
+public class Backpack {
+
+   private static final int TYPE_COUNT = 3; // Healing (0), ammo (1), story (2)
+
+   private Items[] items = new Items[8]; // Indexed by slot number - 1, null for an empty slot
+   private int slotCount; // One past the last slot with an item in it
+   private int firstEmpty; // The lowest empty slot, or slotCount if there are no gaps
+   private int size;
+   private int weight;
+
+   // The items of each type in the order they were added, so the first item of a type is always at index 0
+   private final Items[][] typeItems = new Items[TYPE_COUNT][4];
+   private final int[] typeCounts = new int[TYPE_COUNT];
+   private String listing = ""; // Cached listing of the contents, set to null whenever the contents change
+
+   /**
+    * Gets the number of items in the backpack.
+    *
+    * @return The number of items
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Gets the number of slots up to and including the last one with an item in it, some of which may be empty.
+    *
+    * @return The number of slots
+    */
+   public int getSlotCount() {
+      return slotCount;
+   }
+
+   /**
+    * Gets the total weight of the items in the backpack.
+    *
+    * @return The total weight
+    */
+   public int getWeight() {
+      return weight;
+   }
+
+   /**
+    * Gets the number of items of a type in the backpack.
+    *
+    * @param type The type of item, where 0 is healing, 1 is ammo, and 2 is story-related
+    * @return The number of items of the type
+    */
+   public int getTypeCount(int type) {
+      return isTrackedType(type) ? typeCounts[type] : 0;
+   }
+
+   /**
+    * Gets the first item of a type that was added to the backpack.
+    *
+    * @param type The type of item, where 0 is healing, 1 is ammo, and 2 is story-related
+    * @return The first item of the type, or null if there are none
+    */
+   public Items getFirst(int type) {
+      return getTypeCount(type) > 0 ? typeItems[type][0] : null;
+   }
+
+   /**
+    * Gets an item of a type, in the order the items of the type were added.
+    *
+    * @param type  The type of item, where 0 is healing, 1 is ammo, and 2 is story-related
+    * @param index The index of the item among the items of its type, where 0 is the first added
+    * @return The item
+    * @throws IndexOutOfBoundsException if there aren't that many items of the type
+    */
+   public Items getOfType(int type, int index) {
+      if (index < 0 || index >= getTypeCount(type)) {
+         throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + getTypeCount(type) + " items of type " + type);
+      }
+      return typeItems[type][index];
+   }
+
+   /**
+    * Checks if the backpack has no items in it.
+    *
+    * @return True if the backpack is empty, otherwise false
+    */
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * Gets the item in a slot, where slot 1 is index 0.
+    *
+    * @param index The index of the slot
+    * @return The item in the slot, or null if the slot is empty
+    * @throws IndexOutOfBoundsException if the index is past the last slot
+    */
+   public Items get(int index) {
+      if (index < 0 || index >= slotCount) {
+         throw new IndexOutOfBoundsException("Index " + index + " out of bounds for backpack slot count " + slotCount);
+      }
+      return items[index];
+   }
+
+   /**
+    * Adds an item to the lowest empty slot of the backpack.
+    *
+    * @param item The item to add
+    */
+   public void add(Items item) {
+      put(firstEmpty, item);
+   }
+
+   /**
+    * Puts an item in a slot, eg. when loading a saved game so every item gets its slot back.
+    *
+    * @param index The index of the slot, which must be empty
+    * @param item  The item to put in it
+    * @throws IllegalArgumentException if the slot already has an item in it
+    */
+   public void put(int index, Items item) {
+      if (index < slotCount && items[index] != null) {
+         throw new IllegalArgumentException("Backpack slot " + (index + 1) + " already has an item in it");
+      }
+      if (index >= items.length) {
+         Items[] grown = new Items[Math.max(items.length * 2, index + 1)];
+         System.arraycopy(items, 0, grown, 0, slotCount);
+         items = grown;
+      }
+      items[index] = item;
+      slotCount = Math.max(slotCount, index + 1);
+      // Move past the slot that was just filled and any filled slots after it
+      while (firstEmpty < slotCount && items[firstEmpty] != null) {
+         firstEmpty++;
+      }
+      size++;
+      weight += item.getWeight();
+      listing = null;
+
+      int type = item.getType();
+      if (isTrackedType(type)) {
+         int count = typeCounts[type];
+         if (count == typeItems[type].length) {
+            Items[] grown = new Items[count * 2];
+            System.arraycopy(typeItems[type], 0, grown, 0, count);
+            typeItems[type] = grown;
+         }
+         typeItems[type][count] = item;
+         typeCounts[type]++;
+      }
+   }
+
+   /**
+    * Removes an item from the backpack, leaving its slot empty.
+    *
+    * @param item The item to remove
+    * @return True if the item was in the backpack, otherwise false
+    */
+   public boolean remove(Items item) {
+      int index = indexOf(item);
+      if (index < 0) {
+         return false;
+      }
+      remove(index);
+      return true;
+   }
+
+   /**
+    * Removes the item in a slot, leaving the slot empty so the other items keep their slot numbers.
+    *
+    * @param index The index of the slot
+    * @return The item that was removed, or null if the slot was already empty
+    */
+   public Items remove(int index) {
+      Items item = get(index);
+      if (item == null) {
+         return null;
+      }
+      items[index] = null;
+      firstEmpty = Math.min(firstEmpty, index);
+      // Empty slots at the end aren't slots any more
+      while (slotCount > 0 && items[slotCount - 1] == null) {
+         slotCount--;
+      }
+      size--;
+      weight -= item.getWeight();
+      listing = null;
+
+      int type = item.getType();
+      if (isTrackedType(type)) {
+         Items[] ofType = typeItems[type];
+         int count = typeCounts[type];
+         // The removed item is usually the first of its type, eg. when reloading
+         for (int i = 0; i < count; i++) {
+            if (ofType[i] == item) {
+               System.arraycopy(ofType, i + 1, ofType, i, count - i - 1);
+               ofType[--typeCounts[type]] = null;
+               break;
+            }
+         }
+      }
+      return item;
+   }
+
+   /**
+    * Removes every item from the backpack.
+    */
+   public void clear() {
+      Arrays.fill(items, 0, slotCount, null);
+      for (int type = 0; type < TYPE_COUNT; type++) {
+         Arrays.fill(typeItems[type], 0, typeCounts[type], null);
+         typeCounts[type] = 0;
+      }
+      slotCount = 0;
+      firstEmpty = 0;
+      size = 0;
+      weight = 0;
+      listing = null;
+   }
+
+   /**
+    * Finds the slot an item is in.
+    *
+    * @param item The item to find
+    * @return The index of the item's slot, or -1 if it is not in the backpack
+    */
+   public int indexOf(Items item) {
+      if (item == null) {
+         return -1;
+      }
+      for (int i = 0; i < slotCount; i++) {
+         if (items[i] == item) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private static boolean isTrackedType(int type) {
+      return type >= 0 && type < TYPE_COUNT;
+   }
+
+   /**
+    * Gets the listing of the backpack's contents, with each item's slot number and name on its own line.
+    * Empty slots aren't listed.
+    *
+    * @return The listing, or an empty string if the backpack is empty
+    */
+   public String getListing() {
+      if (listing == null) {
+         StringBuilder builder = new StringBuilder(size * 32);
+         for (int i = 0; i < slotCount; i++) {
+            if (items[i] == null) {
+               continue;
+            }
+            builder.append(" - (").append(i + 1).append(") ").append(items[i].getName()).append('\n');
+         }
+         listing = builder.toString();
+      }
+      return listing;
+   }
+}
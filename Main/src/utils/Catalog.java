@@ -0,0 +1,346 @@
+package utils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code Catalog} class holds the game's content: the terrain of each location, the enemies, the weapons and items the player can start with, and the items they can find.
+ * It reads the binary catalog made by {@link CatalogCompiler}, which is memory mapped, so loading it only reads the header however many entries there are.
+ * Each entry is read the first time it is used, and enemy types and terrain are kept once read since they never change.
+ * Passing {@code -Dcatalog.file=<file>} to any of the programs plays with that catalog, otherwise {@value #DEFAULT_RESOURCE} on the class path is used, which is compiled from {@code content/catalog.txt}.
+ *
+ * <p>The binary catalog starts with a header: {@value #MAGIC} as a check, the version, then for each section the number of entries and where the section's table is.
+ * Each table has where each entry starts, so any entry can be found without reading the ones before it.
+ * Numbers are 4 bytes and strings are their length in 2 bytes then their UTF-8 bytes.
+ */
+public final class Catalog {
+
+   static final int MAGIC = 0x43544C47; // "CTLG"
+   static final int VERSION = 1;
+   static final int MAX_STRING_LENGTH = 0xFFFF;
+   static final String DEFAULT_RESOURCE = "/catalog.bin";
+
+   // The sections, in the order they are in the header
+   static final int TERRAIN = 0;
+   static final int ENEMIES = 1;
+   static final int WEAPONS = 2;
+   static final int STARTING_ITEMS = 3;
+   static final int LOOT = 4;
+   static final int SECTION_COUNT = 5;
+
+   static final int HEADER_SIZE = 8 + 8 * SECTION_COUNT;
+
+   private final ByteBuffer data;
+   private final int[] counts = new int[SECTION_COUNT];
+   private final int[] tables = new int[SECTION_COUNT];
+   // Read the first time each is used, since they are used every time the player moves or fights
+   private final EnemyType[] enemies;
+   private final String[] terrainNames;
+   private final String[] terrainDescriptions;
+
+   /**
+    * The catalog is only loaded the first time it is used.
+    */
+   private static final class Holder {
+      static final Catalog CURRENT = loadConfigured();
+   }
+
+   /**
+    * Constructs a new {@code Catalog} from a binary catalog.
+    *
+    * @param data The binary catalog, which must not be changed afterwards
+    * @throws IOException if the data isn't a binary catalog of this version
+    */
+   private Catalog(ByteBuffer data) throws IOException {
+      this.data = data;
+      if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+         throw new IOException("Not a compiled catalog");
+      }
+      if (data.getInt(4) != VERSION) {
+         throw new IOException("The catalog is version " + data.getInt(4) + ", but only version " + VERSION + " can be read, compile it again");
+      }
+      for (int i = 0; i < SECTION_COUNT; i++) {
+         counts[i] = data.getInt(8 + 8 * i);
+         tables[i] = data.getInt(12 + 8 * i);
+      }
+      this.enemies = new EnemyType[counts[ENEMIES]];
+      this.terrainNames = new String[counts[TERRAIN]];
+      this.terrainDescriptions = new String[counts[TERRAIN]];
+   }
+
+   /**
+    * Gets the catalog the game is played with, loading it the first time.
+    *
+    * @return The catalog from {@code -Dcatalog.file}, or {@value #DEFAULT_RESOURCE} on the class path
+    */
+   public static Catalog get() {
+      return Holder.CURRENT;
+   }
+
+   /**
+    * Loads a binary catalog file by memory mapping it.
+    *
+    * @param file The binary catalog made by {@link CatalogCompiler}
+    * @return The catalog
+    * @throws IOException if the file can't be read, or isn't a binary catalog
+    */
+   public static Catalog load(Path file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+         // The mapping stays valid after the channel is closed
+         return new Catalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      }
+   }
+
+   /**
+    * Reads a catalog from the bytes of a binary catalog.
+    *
+    * @param bytes The binary catalog
+    * @return The catalog
+    * @throws IOException if the bytes aren't a binary catalog
+    */
+   public static Catalog read(byte[] bytes) throws IOException {
+      return new Catalog(ByteBuffer.wrap(bytes));
+   }
+
+   /**
+    * Loads the catalog from {@code -Dcatalog.file}, or from {@value #DEFAULT_RESOURCE} on the class path if it isn't set.
+    * The class path's catalog is memory mapped too when the classes are in a directory, and only read into memory when they are in a jar.
+    */
+   private static Catalog loadConfigured() {
+      String file = System.getProperty("catalog.file");
+      try {
+         if (file != null) {
+            return load(Path.of(file));
+         }
+         URL resource = Catalog.class.getResource(DEFAULT_RESOURCE);
+         if (resource == null) {
+            throw new IllegalStateException("There is no " + DEFAULT_RESOURCE + " on the class path, compile it with java utils.CatalogCompiler content/catalog.txt <classes>" + DEFAULT_RESOURCE + " or pass -Dcatalog.file=<file>");
+         }
+         file = resource.toString();
+         if (resource.getProtocol().equals("file")) {
+            return load(Path.of(resource.toURI()));
+         }
+         try (InputStream in = resource.openStream()) {
+            return read(in.readAllBytes());
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException("Couldn't load the catalog " + file, e);
+      } catch (URISyntaxException e) {
+         throw new IllegalStateException("Couldn't load the catalog " + file, e);
+      }
+   }
+
+   /**
+    * Gets the number of kinds of terrain.
+    *
+    * @return The number of kinds of terrain
+    */
+   public int getTerrainCount() {
+      return counts[TERRAIN];
+   }
+
+   /**
+    * Gets the name of a kind of terrain, reading it the first time.
+    *
+    * @param terrain The index of the terrain
+    * @return The name
+    */
+   public String getTerrainName(int terrain) {
+      String name = terrainNames[terrain];
+      if (name == null) {
+         name = readString(entry(TERRAIN, terrain));
+         terrainNames[terrain] = name;
+      }
+      return name;
+   }
+
+   /**
+    * Gets the description of a kind of terrain, reading it the first time.
+    *
+    * @param terrain The index of the terrain
+    * @return The description
+    */
+   public String getTerrainDescription(int terrain) {
+      String description = terrainDescriptions[terrain];
+      if (description == null) {
+         description = readString(skipString(entry(TERRAIN, terrain)));
+         terrainDescriptions[terrain] = description;
+      }
+      return description;
+   }
+
+   /**
+    * Gets the number of enemy types.
+    *
+    * @return The number of enemy types
+    */
+   public int getEnemyCount() {
+      return counts[ENEMIES];
+   }
+
+   /**
+    * Gets an enemy type, reading it the first time.
+    *
+    * @param index The index of the enemy type
+    * @return The enemy type
+    */
+   public EnemyType getEnemy(int index) {
+      EnemyType enemy = enemies[index];
+      if (enemy == null) {
+         // Two threads might both read it, but they read the same thing and the type can't be seen half made
+         enemy = readEnemy(index);
+         enemies[index] = enemy;
+      }
+      return enemy;
+   }
+
+   private EnemyType readEnemy(int index) {
+      int position = entry(ENEMIES, index);
+      String name = readString(position);
+      position = skipString(position);
+      int health = data.getInt(position);
+      Attacks[] attacks = new Attacks[data.getInt(position + 4)];
+      position += 8;
+
+      for (int i = 0; i < attacks.length; i++) {
+         String attackName = readString(position);
+         position = skipString(position);
+         attacks[i] = new Attacks(attackName, data.getInt(position));
+         position += 4;
+      }
+      return new EnemyType(index, name, health, attacks);
+   }
+
+   /**
+    * Gets the number of weapons the player can choose from.
+    *
+    * @return The number of weapons
+    */
+   public int getWeaponCount() {
+      return counts[WEAPONS];
+   }
+
+   /**
+    * Gets the name of a weapon.
+    *
+    * @param index The index of the weapon
+    * @return The name
+    */
+   public String getWeaponName(int index) {
+      return readString(entry(WEAPONS, index));
+   }
+
+   /**
+    * Creates a new weapon from the catalog, with its full ammo.
+    *
+    * @param index The index of the weapon
+    * @return The weapon
+    */
+   public Weapon createWeapon(int index) {
+      int position = entry(WEAPONS, index);
+      String name = readString(position);
+      position = skipString(position);
+      return new Weapon(name, data.getInt(position), data.getInt(position + 4), data.getInt(position + 8), data.getInt(position + 12));
+   }
+
+   /**
+    * Gets the description of a weapon, to be printed after its name.
+    *
+    * @param index The index of the weapon
+    * @return The description, with its highlighted parts already coloured
+    */
+   public String getWeaponDescription(int index) {
+      return readString(skipString(entry(WEAPONS, index)) + 16);
+   }
+
+   /**
+    * Gets the number of items the player can choose to start with.
+    *
+    * @return The number of starting items
+    */
+   public int getStartingItemCount() {
+      return counts[STARTING_ITEMS];
+   }
+
+   /**
+    * Gets the name of a starting item.
+    *
+    * @param index The index of the item
+    * @return The name
+    */
+   public String getStartingItemName(int index) {
+      return readString(entry(STARTING_ITEMS, index));
+   }
+
+   /**
+    * Creates a new item the player can choose to start with.
+    *
+    * @param index The index of the item
+    * @return The item
+    */
+   public Items createStartingItem(int index) {
+      return readItem(entry(STARTING_ITEMS, index));
+   }
+
+   /**
+    * Gets the description of a starting item, to be printed after its name.
+    *
+    * @param index The index of the item
+    * @return The description, with its highlighted parts already coloured
+    */
+   public String getStartingItemDescription(int index) {
+      return readString(skipString(entry(STARTING_ITEMS, index)) + 12);
+   }
+
+   /**
+    * Gets the number of items the player can find when searching.
+    *
+    * @return The number of items
+    */
+   public int getLootCount() {
+      return counts[LOOT];
+   }
+
+   /**
+    * Creates a new item the player can find when searching.
+    *
+    * @param index The index of the item
+    * @return The item
+    */
+   public Items createLoot(int index) {
+      return readItem(entry(LOOT, index));
+   }
+
+   private Items readItem(int position) {
+      String name = readString(position);
+      position = skipString(position);
+      return new Items(name, data.getInt(position), data.getInt(position + 4), data.getInt(position + 8));
+   }
+
+   /**
+    * Gets where an entry starts.
+    */
+   private int entry(int section, int index) {
+      if (index < 0 || index >= counts[section]) {
+         throw new IndexOutOfBoundsException("Entry " + index + " of " + counts[section]);
+      }
+      return data.getInt(tables[section] + 4 * index);
+   }
+
+   private String readString(int position) {
+      byte[] encoded = new byte[data.getShort(position) & 0xFFFF];
+      data.get(position + 2, encoded);
+      return new String(encoded, StandardCharsets.UTF_8);
+   }
+
+   private int skipString(int position) {
+      return position + 2 + (data.getShort(position) & 0xFFFF);
+   }
+}
@@ -0,0 +1,277 @@
+package utils;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code CatalogCompiler} class compiles the game's text catalog of content into the binary form read by {@link Catalog}.
+ * Run it as part of the build with {@code java utils.CatalogCompiler <catalog text> <catalog binary>}, eg. {@code java utils.CatalogCompiler content/catalog.txt src/catalog.bin}.
+ * {@code content/catalog.txt} is the only copy of the game's content, and the compiled {@code catalog.bin} at the root of the class path is what the game loads, see {@link Catalog#get()}.
+ *
+ * <p>Each line of the text catalog is a kind of entry followed by its fields, separated by {@code |}. Blank lines and lines starting with {@code #} are ignored.
+ * <ul>
+ *    <li>{@code terrain | name | description}, the first 9 are used by the default map and the first is where the player starts</li>
+ *    <li>{@code enemy | name | health | attack: damage | attack: damage ...}</li>
+ *    <li>{@code weapon | name | damage | ammo | weight | range | description}</li>
+ *    <li>{@code item | name | value | weight | type | description}, the items the player can start with, type 0 heals and type 1 is ammo</li>
+ *    <li>{@code loot | name | value | weight | type}, the items the player can find when searching</li>
+ * </ul>
+ * Descriptions are printed after the entry's name, eg. {@code is a {small item}.}, and the parts in braces are highlighted.
+ * Everything is checked while compiling, so the game never has to check the catalog it loads.
+ */
+public final class CatalogCompiler {
+
+   // The number of terrains the default map uses
+   private static final int DEFAULT_MAP_TERRAINS = 9;
+
+   // Terrain is stored in a byte for each location
+   private static final int MAX_TERRAINS = Byte.MAX_VALUE + 1;
+
+   /**
+    * Compiles a text catalog file into a binary catalog file.
+    *
+    * @param args The text catalog to read and the binary catalog to write
+    */
+   public static void main(String[] args) throws IOException {
+      if (args.length != 2) {
+         System.err.println("Usage: java utils.CatalogCompiler <catalog text> <catalog binary>");
+         System.exit(2);
+      }
+
+      byte[] compiled;
+      try (Reader in = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+         compiled = compile(in);
+      } catch (IllegalArgumentException e) {
+         System.err.println(args[0] + ": " + e.getMessage());
+         System.exit(1);
+         return;
+      }
+      Files.write(Path.of(args[1]), compiled);
+   }
+
+   /**
+    * Compiles a text catalog.
+    *
+    * @param text The text catalog
+    * @return The binary catalog, see {@link Catalog} for the layout
+    * @throws IOException              if the text can't be read
+    * @throws IllegalArgumentException if a line isn't a valid entry, or the catalog is missing something the game needs
+    */
+   public static byte[] compile(Reader text) throws IOException {
+      List<List<byte[]>> sections = new ArrayList<>();
+      for (int i = 0; i < Catalog.SECTION_COUNT; i++) {
+         sections.add(new ArrayList<>());
+      }
+
+      BufferedReader lines = new BufferedReader(text);
+      String line;
+      int lineNumber = 0;
+      while ((line = lines.readLine()) != null) {
+         lineNumber++;
+         line = line.strip();
+         if (line.isEmpty() || line.startsWith("#")) {
+            continue;
+         }
+
+         String[] fields = line.split("\\|", -1);
+         for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].strip();
+         }
+         try {
+            int section = sectionOf(fields[0]);
+            sections.get(section).add(compileEntry(section, fields));
+         } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage(), e);
+         }
+      }
+
+      checkCount(sections, Catalog.TERRAIN, "terrain", DEFAULT_MAP_TERRAINS);
+      checkCount(sections, Catalog.ENEMIES, "enemy", 1);
+      checkCount(sections, Catalog.WEAPONS, "weapon", 1);
+      checkCount(sections, Catalog.STARTING_ITEMS, "item", 1);
+      checkCount(sections, Catalog.LOOT, "loot", 1);
+      if (sections.get(Catalog.TERRAIN).size() > MAX_TERRAINS) {
+         throw new IllegalArgumentException("there can't be more than " + MAX_TERRAINS + " terrains");
+      }
+
+      return write(sections);
+   }
+
+   /**
+    * Gets the section an entry belongs in from the first field of its line.
+    */
+   private static int sectionOf(String kind) {
+      return switch (kind) {
+         case "terrain" -> Catalog.TERRAIN;
+         case "enemy" -> Catalog.ENEMIES;
+         case "weapon" -> Catalog.WEAPONS;
+         case "item" -> Catalog.STARTING_ITEMS;
+         case "loot" -> Catalog.LOOT;
+         default -> throw new IllegalArgumentException("unknown kind of entry \"" + kind + "\"");
+      };
+   }
+
+   /**
+    * Encodes one entry, in the layout {@link Catalog} reads it in.
+    */
+   private static byte[] compileEntry(int section, String[] fields) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+      DataOutputStream out = new DataOutputStream(bytes);
+
+      switch (section) {
+         case Catalog.TERRAIN -> {
+            checkFieldCount(fields, 3);
+            writeString(out, fields[1]);
+            writeString(out, fields[2]);
+         }
+         case Catalog.ENEMIES -> {
+            if (fields.length < 4) {
+               throw new IllegalArgumentException("an enemy needs a name, health and at least one attack");
+            }
+            writeString(out, fields[1]);
+            out.writeInt(parseNumber(fields[2], 1));
+            out.writeInt(fields.length - 3);
+            for (int i = 3; i < fields.length; i++) {
+               int colon = fields[i].lastIndexOf(':');
+               if (colon < 0) {
+                  throw new IllegalArgumentException("the attack \"" + fields[i] + "\" should be written as name: damage");
+               }
+               writeString(out, fields[i].substring(0, colon).strip());
+               out.writeInt(parseNumber(fields[i].substring(colon + 1).strip(), 0));
+            }
+         }
+         case Catalog.WEAPONS -> {
+            checkFieldCount(fields, 7);
+            writeString(out, fields[1]);
+            for (int i = 2; i <= 5; i++) {
+               out.writeInt(parseNumber(fields[i], 0));
+            }
+            writeString(out, highlight(fields[6]));
+         }
+         case Catalog.STARTING_ITEMS, Catalog.LOOT -> {
+            checkFieldCount(fields, section == Catalog.LOOT ? 5 : 6);
+            writeString(out, fields[1]);
+            out.writeInt(parseNumber(fields[2], 0));
+            out.writeInt(parseNumber(fields[3], 0));
+            int type = parseNumber(fields[4], 0);
+            if (type > 1) {
+               throw new IllegalArgumentException("the item type must be 0 for healing or 1 for ammo, not " + type);
+            }
+            out.writeInt(type);
+            if (section == Catalog.STARTING_ITEMS) {
+               writeString(out, highlight(fields[5]));
+            }
+         }
+         default -> throw new IllegalArgumentException("unknown section " + section);
+      }
+      return bytes.toByteArray();
+   }
+
+   /**
+    * Writes the header, each section's table of where its entries start, then the entries.
+    */
+   private static byte[] write(List<List<byte[]>> sections) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+      DataOutputStream out = new DataOutputStream(bytes);
+
+      int position = Catalog.HEADER_SIZE;
+      int[] tables = new int[Catalog.SECTION_COUNT];
+      for (int i = 0; i < Catalog.SECTION_COUNT; i++) {
+         tables[i] = position;
+         position += 4 * sections.get(i).size();
+      }
+
+      out.writeInt(Catalog.MAGIC);
+      out.writeInt(Catalog.VERSION);
+      for (int i = 0; i < Catalog.SECTION_COUNT; i++) {
+         out.writeInt(sections.get(i).size());
+         out.writeInt(tables[i]);
+      }
+
+      for (List<byte[]> entries : sections) {
+         for (byte[] entry : entries) {
+            out.writeInt(position);
+            position += entry.length;
+         }
+      }
+      for (List<byte[]> entries : sections) {
+         for (byte[] entry : entries) {
+            out.write(entry);
+         }
+      }
+      return bytes.toByteArray();
+   }
+
+   /**
+    * Writes a string as its length in bytes, then its UTF-8 bytes.
+    */
+   private static void writeString(DataOutputStream out, String text) throws IOException {
+      if (text.isEmpty()) {
+         throw new IllegalArgumentException("a name or description can't be empty");
+      }
+      byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+      if (encoded.length > Catalog.MAX_STRING_LENGTH) {
+         throw new IllegalArgumentException("\"" + text.substring(0, 20) + "...\" is longer than " + Catalog.MAX_STRING_LENGTH + " bytes");
+      }
+      out.writeShort(encoded.length);
+      out.write(encoded);
+   }
+
+   /**
+    * Replaces the parts of a description in braces with the same text in the highlight colour, so it can be printed as it is.
+    */
+   private static String highlight(String description) {
+      StringBuilder highlighted = new StringBuilder(description.length() + 32);
+      boolean isHighlighted = false;
+      for (int i = 0; i < description.length(); i++) {
+         char character = description.charAt(i);
+         if (character == '{' && !isHighlighted) {
+            highlighted.append(Formatting.YELLOW);
+            isHighlighted = true;
+         } else if (character == '}' && isHighlighted) {
+            highlighted.append(Formatting.RESET);
+            isHighlighted = false;
+         } else if (character == '{' || character == '}') {
+            throw new IllegalArgumentException("the braces in \"" + description + "\" don't match");
+         } else {
+            highlighted.append(character);
+         }
+      }
+      if (isHighlighted) {
+         throw new IllegalArgumentException("the braces in \"" + description + "\" don't match");
+      }
+      return highlighted.toString();
+   }
+
+   private static int parseNumber(String field, int min) {
+      int number;
+      try {
+         number = Integer.parseInt(field);
+      } catch (NumberFormatException e) {
+         throw new IllegalArgumentException("\"" + field + "\" isn't a number");
+      }
+      if (number < min) {
+         throw new IllegalArgumentException(number + " is less than " + min);
+      }
+      return number;
+   }
+
+   private static void checkFieldCount(String[] fields, int count) {
+      if (fields.length != count) {
+         throw new IllegalArgumentException("a " + fields[0] + " needs " + (count - 1) + " fields, not " + (fields.length - 1));
+      }
+   }
+
+   private static void checkCount(List<List<byte[]>> sections, int section, String kind, int min) {
+      if (sections.get(section).size() < min) {
+         throw new IllegalArgumentException("the catalog needs at least " + min + " " + kind + (min == 1 ? "" : " entries"));
+      }
+   }
+}
@@ -0,0 +1,313 @@
+package utils;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code ChunkedWorld} class is a {@link World} whose map is generated from a seed instead of being stored, so maps far bigger than the default can be played.
+ * The map is split into chunks of {@value #CHUNK_SIZE}x{@value #CHUNK_SIZE} locations, and a chunk is only generated the first time one of its locations is looked at.
+ * Only the most recently used chunks are kept. A dropped chunk is generated again if the player comes back, and the changes the player made to it, eg. searching a location, are kept separately and applied again.
+ * So the memory used only grows with the number of locations the player has changed, not with the size of the map or how far they have explored.
+ */
+public class ChunkedWorld extends World {
+
+   /** The number of columns and rows of locations in a chunk. */
+   public static final int CHUNK_SIZE = 32;
+   private static final int CHUNK_SHIFT = 5;
+   private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+   /** The number of chunks kept by default, about 128 KB. */
+   public static final int DEFAULT_CACHE_CHUNKS = 64;
+
+   // The nuclear cores and the scientist are placed near the start, so the game can be finished without crossing the whole map
+   private static final int MISSION_AREA_SIZE = 2 * CHUNK_SIZE;
+
+   private final long seed;
+   private final int cacheChunks;
+   private final int[] missionLocations; // The nuclear cores' locations, then the scientist's location
+   private final GameRandom generator = new GameRandom(0);
+
+   private final LinkedHashMap<Long, Chunk> chunks; // In order of use, least recently used first
+   private final HashMap<Long, ChunkDiff> diffs = new HashMap<>(); // The player's changes to each chunk, kept when the chunk is dropped
+
+   // Most lookups are on the same chunk as the one before, so it is kept here to skip the map
+   private long lastKey = -1;
+   private Chunk lastChunk;
+
+   /**
+    * Constructs a new {@code ChunkedWorld} that keeps {@value #DEFAULT_CACHE_CHUNKS} chunks.
+    *
+    * @param width  The number of columns
+    * @param height The number of rows
+    * @param seed   The seed the map is generated from, the same seed always generates the same map
+    */
+   public ChunkedWorld(int width, int height, long seed) {
+      this(width, height, seed, DEFAULT_CACHE_CHUNKS);
+   }
+
+   /**
+    * Checks whether a map of a size has room for the nuclear cores and the scientist, so a {@code ChunkedWorld} of that size can be constructed.
+    *
+    * @param width  The number of columns
+    * @param height The number of rows
+    * @return True if the map is large enough, otherwise false
+    */
+   public static boolean isLargeEnough(int width, int height) {
+      return width > 0 && height > 0 && (long) width * height > Player.NUCLEAR_CORE_COUNT + 1;
+   }
+
+   /**
+    * Constructs a new {@code ChunkedWorld}.
+    *
+    * @param width       The number of columns
+    * @param height      The number of rows
+    * @param seed        The seed the map is generated from, the same seed always generates the same map
+    * @param cacheChunks The most chunks to keep at once
+    * @throws IllegalArgumentException if the map is too small for the mission, or no chunks can be kept
+    */
+   public ChunkedWorld(int width, int height, long seed, int cacheChunks) {
+      super(width, height);
+      if (!isLargeEnough(width, height)) {
+         throw new IllegalArgumentException("A map of " + width + "x" + height + " is too small for the nuclear cores and the scientist");
+      }
+      if (cacheChunks < 1) {
+         throw new IllegalArgumentException("At least one chunk must be kept");
+      }
+      this.seed = seed;
+      this.cacheChunks = cacheChunks;
+      this.chunks = new LinkedHashMap<>(cacheChunks * 2, 0.75f, true);
+      this.missionLocations = placeMission(width, height, seed);
+      resetLocationVariables();
+   }
+
+   /**
+    * Picks different locations for each nuclear core and the scientist, not including the start.
+    */
+   private static int[] placeMission(int width, int height, long seed) {
+      GameRandom random = new GameRandom(GameRandom.mix64(seed));
+      int areaWidth = Math.min(MISSION_AREA_SIZE, width);
+      int areaHeight = Math.min(MISSION_AREA_SIZE, height);
+      int[] locations = new int[Player.NUCLEAR_CORE_COUNT + 1];
+
+      for (int i = 0; i < locations.length; i++) {
+         int location;
+         boolean isTaken;
+         do {
+            location = random.nextInt(areaHeight) * width + random.nextInt(areaWidth);
+            isTaken = location == 0;
+            for (int j = 0; j < i; j++) {
+               isTaken |= locations[j] == location;
+            }
+         } while (isTaken);
+         locations[i] = location;
+      }
+      return locations;
+   }
+
+   @Override
+   public int getTerrain(int location) {
+      return chunkAt(location).terrain[indexInChunk(location)];
+   }
+
+   @Override
+   byte getTile(int location) {
+      return chunkAt(location).tiles[indexInChunk(location)];
+   }
+
+   @Override
+   void setTile(int location, byte tile) {
+      // chunkAt leaves the chunk's key in lastKey
+      int index = indexInChunk(location);
+      chunkAt(location).tiles[index] = tile;
+      diffs.computeIfAbsent(lastKey, key -> new ChunkDiff()).set(index, tile);
+   }
+
+   /**
+    * Finds the nuclear cores that haven't been found and the scientist, without generating the whole map.
+    */
+   @Override
+   int[] findTargets() {
+      return Arrays.stream(missionLocations).filter(location -> isTarget(getTile(location))).toArray();
+   }
+
+   /**
+    * Gets the number of chunks that have been generated and are still kept.
+    *
+    * @return The number of chunks
+    */
+   public int getCachedChunkCount() {
+      return chunks.size();
+   }
+
+   /**
+    * Resets variables associated to locations when the game restarts, forgetting every change the player made.
+    */
+   @Override
+   public void resetLocationVariables() {
+      chunks.clear();
+      diffs.clear();
+      lastKey = -1;
+      lastChunk = null;
+      super.resetLocationVariables();
+   }
+
+   /**
+    * Gets the position of a location in its chunk's arrays.
+    */
+   private int indexInChunk(int location) {
+      int x = location % getWidth();
+      int y = location / getWidth();
+      return (y & CHUNK_MASK) << CHUNK_SHIFT | x & CHUNK_MASK;
+   }
+
+   /**
+    * Gets the chunk a location is in, generating it if it isn't kept.
+    */
+   private Chunk chunkAt(int location) {
+      int chunkX = location % getWidth() >> CHUNK_SHIFT;
+      int chunkY = location / getWidth() >> CHUNK_SHIFT;
+      long key = (long) chunkY << 32 | chunkX;
+      if (key == lastKey) {
+         return lastChunk;
+      }
+
+      Chunk chunk = chunks.get(key);
+      if (chunk == null) {
+         if (chunks.size() >= cacheChunks) {
+            // Drop the least recently used chunk and reuse its arrays
+            Iterator<Chunk> eldest = chunks.values().iterator();
+            chunk = eldest.next();
+            eldest.remove();
+         } else {
+            chunk = new Chunk();
+         }
+         generate(chunk, chunkX, chunkY);
+         ChunkDiff diff = diffs.get(key);
+         if (diff != null) {
+            diff.applyTo(chunk);
+         }
+         chunks.put(key, chunk);
+         Metrics.chunksGenerated.increment();
+      }
+
+      lastKey = key;
+      lastChunk = chunk;
+      return chunk;
+   }
+
+   /**
+    * Generates a chunk's locations as they are at the start of the game, always the same for the same seed and chunk.
+    */
+   private void generate(Chunk chunk, int chunkX, int chunkY) {
+      GameRandom random = generator;
+      random.setState(GameRandom.mix64(seed ^ GameRandom.mix64((long) chunkY << 32 | chunkX)));
+
+      // Most of a chunk has the same terrain, the start is the only Main Base
+      int terrainKinds = Catalog.get().getTerrainCount() - 1;
+      int terrain = 1 + random.nextInt(terrainKinds);
+      for (int i = 0; i < CHUNK_SIZE * CHUNK_SIZE; i++) {
+         int encounterChance = random.nextInt(20);
+         chunk.terrain[i] = (byte) (random.nextInt(4) == 0 ? 1 + random.nextInt(terrainKinds) : terrain);
+         chunk.tiles[i] = tile(random.nextInt(100) < 40 ? 1 : 0, random.nextInt(10) == 0, random.nextInt(100) < 80, encounterChance < 10 ? 1 : encounterChance < 17 ? 2 : 3);
+      }
+
+      int startX = chunkX << CHUNK_SHIFT;
+      int startY = chunkY << CHUNK_SHIFT;
+      if (chunkX == 0 && chunkY == 0) {
+         chunk.terrain[0] = 0;
+         chunk.tiles[0] = tile(1, false, false, 0);
+      }
+      for (int i = 0; i < missionLocations.length; i++) {
+         int x = missionLocations[i] % getWidth() - startX;
+         int y = missionLocations[i] / getWidth() - startY;
+         if (x >= 0 && x < CHUNK_SIZE && y >= 0 && y < CHUNK_SIZE) {
+            boolean isScientist = i == missionLocations.length - 1;
+            chunk.tiles[y << CHUNK_SHIFT | x] = isScientist ? tile(3, false, false, 0) : tile(2, false, true, 1);
+         }
+      }
+   }
+
+   /**
+    * Writes the seed, the number of chunks kept and the player's changes to each chunk, the chunks are generated again when the save is loaded.
+    */
+   @Override
+   void writeMapTo(SnapshotWriter out) {
+      out.writeByte(GENERATED_MAP);
+      out.writeLong(seed);
+      out.writeVarInt(cacheChunks);
+      out.writeVarInt(diffs.size());
+
+      for (Map.Entry<Long, ChunkDiff> entry : diffs.entrySet()) {
+         long key = entry.getKey();
+         ChunkDiff diff = entry.getValue();
+         out.writeVarInt((int) key);
+         out.writeVarInt((int) (key >>> 32));
+         out.writeVarInt(diff.size);
+         for (int i = 0; i < diff.size; i++) {
+            out.writeVarInt(diff.indexes[i]);
+            out.writeByte(diff.tiles[i]);
+         }
+      }
+   }
+
+   /**
+    * Reads a map written by {@link #writeMapTo(SnapshotWriter)}.
+    */
+   static ChunkedWorld readMapFrom(SnapshotReader in, int width, int height) {
+      ChunkedWorld world = new ChunkedWorld(width, height, in.readLong(), in.readVarInt(1, Integer.MAX_VALUE));
+      int diffCount = in.readVarInt(0, in.getRemaining());
+
+      for (int i = 0; i < diffCount; i++) {
+         int chunkX = in.readVarInt(0, (width - 1) >> CHUNK_SHIFT);
+         int chunkY = in.readVarInt(0, (height - 1) >> CHUNK_SHIFT);
+         ChunkDiff diff = new ChunkDiff();
+         int size = in.readVarInt(0, CHUNK_SIZE * CHUNK_SIZE);
+         for (int j = 0; j < size; j++) {
+            diff.set(in.readVarInt(0, CHUNK_SIZE * CHUNK_SIZE - 1), (byte) in.readByte());
+         }
+         world.diffs.put((long) chunkY << 32 | chunkX, diff);
+      }
+      return world;
+   }
+
+   /**
+    * The locations of one chunk, by their position in the chunk.
+    */
+   private static final class Chunk {
+      final byte[] terrain = new byte[CHUNK_SIZE * CHUNK_SIZE];
+      final byte[] tiles = new byte[CHUNK_SIZE * CHUNK_SIZE];
+   }
+
+   /**
+    * The tiles the player has changed in one chunk, usually only a few.
+    */
+   private static final class ChunkDiff {
+      short[] indexes = new short[4];
+      byte[] tiles = new byte[4];
+      int size;
+
+      void set(int index, byte tile) {
+         for (int i = 0; i < size; i++) {
+            if (indexes[i] == index) {
+               tiles[i] = tile;
+               return;
+            }
+         }
+         if (size == indexes.length) {
+            indexes = Arrays.copyOf(indexes, size * 2);
+            tiles = Arrays.copyOf(tiles, size * 2);
+         }
+         indexes[size] = (short) index;
+         tiles[size] = tile;
+         size++;
+      }
+
+      void applyTo(Chunk chunk) {
+         for (int i = 0; i < size; i++) {
+            chunk.tiles[indexes[i]] = tiles[i];
+         }
+      }
+   }
+}
@@ -1,6 +1,4 @@
 package utils;
-import java.util.Random;
-import java.util.Scanner;
 import static utils.Formatting.*;
 
 /**
@@ -10,312 +8,280 @@ import static utils.Formatting.*;
  */
 public class Combat {
 
-   private static final Scanner sc = new Scanner(System.in);
-   private static final Random random = new Random();
-   private static int fleeCount = 0; // The number of times the player has fled an encounter - set outside of the method so it doesn't reset every time the method is run
-
    /**
     * Handles a full combat encounter for the player, where they can face one or more enemies, each with their own health and attacks.
     * Players can choose to fight, flee, or use items during their turn.
     * The combat loop continues until the player dies, flees successfully, or defeats all enemies.
+    * The rules are played by a {@link CombatEngine}, this method only reads the player's choices and prints what happened.
     *
     * @param player The player object involved in combat
+    * @param world  The world the combat takes place in
+    * @return True if the player had to fight, false if nothing was encountered
     */
-   public static void combat(Player player) {
-      boolean isPlayerAlive = player.getIsAlive();
-
-      while (isPlayerAlive && player.getHealth() > 0) {
-         // All Enemies
-         Enemy[] enemies = {
-            new Enemy("Snake",            5),
-            new Enemy("Raven",            7),
-            new Enemy("Vulture",          7),
-            new Enemy("Wolf",             10),
-            new Enemy("Wild Boar",        15),
-            new Enemy("Bear",             20),
-            new Enemy("Sabretooth Tiger", 25)
-         };
-
-         // All Enemy Attacks
-         // Snake Attacks
-         Attacks[] snakeAttacks = {
-            new Attacks("Bite", 3),
-            new Attacks("Coil", 4),
-            new Attacks("Poison", 5)
-         };
-
-         // Raven Attacks
-         Attacks[] ravenAttacks = {
-            new Attacks("Beak", 3),
-            new Attacks("Charge", 3),
-            new Attacks("Talons", 4)
-         };
-
-         // Vulture Attacks
-         Attacks[] vultureAttacks = {
-            new Attacks("Beak", 3),
-            new Attacks("Charge", 3),
-            new Attacks("Talons", 5)
-         };
-
-         // Wolf Attacks
-         Attacks[] wolfAttacks = {
-            new Attacks("Headbutt", 2),
-            new Attacks("Claws", 3),
-            new Attacks("Bite", 4)
-         };
-
-         // Wild Boar Attacks
-         Attacks[] wildBoarAttacks = {
-            new Attacks("Kick", 4),
-            new Attacks("Charge", 5),
-            new Attacks("Ram", 6)
-         };
-
-         // Bear Attacks
-         Attacks[] bearAttacks = {
-            new Attacks("Punch", 4),
-            new Attacks("Kick", 5),
-            new Attacks("Hug", 6)
-         };
-
-         // Sabretooth Tiger Attacks
-         Attacks[] sabretoothTigerAttacks = {
-            new Attacks("Headbutt", 4),
-            new Attacks("Bite", 5),
-            new Attacks("Claws", 7)
-         };
+   public static boolean combat(Player player, World world) {
+      boolean isFighting = startCombat(player, world);
+      if (isFighting) {
+         CombatEngine engine = player.getCombatEngine();
+
+         while (!engine.getIsEncounterOver()) {
+            printTurnOptions(player);
+            if (playTurn(player, Input.nextLine(Metrics.COMBAT_MENU))) {
+               Items.useItem(player);
+            }
+         }
+      }
+      endCombat(player, world);
+      return isFighting;
+   }
 
-         // Variables for combat
-         int playerAttackChance, enemyAttackChance;
-         boolean continueFighting;
-         boolean hasTriedToFlee = false;
-         int enemyCount; // The number of enemies in the encounter
-         int fightCount = 0; // The number of enemies the player has defeated
-         int encounterChance = random.nextInt(100);
+   /**
+    * Starts a combat encounter, if the player runs into any enemies, and prints the enemies they are facing.
+    *
+    * @param player The player object involved in combat
+    * @param world  The world the combat takes place in
+    * @return True if the player has to fight, false if nothing was encountered
+    */
+   public static boolean startCombat(Player player, World world) {
+      CombatEngine engine = player.getCombatEngine();
 
+      if (player.getIsAlive() && player.getHealth() > 0) {
          // The chance of the player encountering an enemy. Chance increases with weight
-         if (encounterChance < 60 + (2 * player.getWeight())) {
-            enemyCount = random.nextInt(Navigation.getPossibleEncounters()) + 1;
+         if (engine.startEncounter(world.getPossibleEncounters())) {
+            Metrics.encountersStarted.increment();
+            Metrics.enemiesFought.increment(engine.getEnemy().getType().getIndex());
+            int enemyCount = engine.getEnemyCount();
             print(YELLOW, "<=-- Combat --=>");
             lineBreak();
 
             if (enemyCount == 1) {
                print("You have encountered an enemy!");
             } else {
-               print("You have encountered " + enemyCount + " enemies!");
+               text("You have encountered ").append(enemyCount).append(" enemies!");
             }
+            lineBreak();
+            printEnemy(engine.getEnemy());
+            return true;
          } else {
+            Metrics.encountersAvoided.increment();
             print("You did not encounter anything dangerous.");
             lineBreak();
-            break; // Exit the loop if no encounter
          }
-         lineBreak();
+      }
+      return false;
+   }
 
-         while (fightCount < enemyCount) {
-            player.setIsFighting(true);
-            continueFighting = true;
+   /**
+    * Prints the player's health and the choices they have on their turn.
+    *
+    * @param player The player object involved in combat
+    */
+   public static void printTurnOptions(Player player) {
+      lineBreak();
+      text("You have ").colour(YELLOW, player.getHealth(), " health").append('.');
+      lineBreak();
+      text("What would you like to do? ").colour(BLUE, "(1) Fight, (2) Run, (3) Use Item");
+      lineBreak();
+      print(GREEN, " > ");
+   }
 
-            // Selects an index for a random enemy every time a new fightr begins
-            int enemySelection = random.nextInt(7); // 0 to 6, since there are 7 enemy types
+   /**
+    * Plays the player's choice for their turn and prints what happened.
+    * Using an item is left to the caller, so it can show the item menu in whatever way it reads input.
+    *
+    * @param player The player object involved in combat
+    * @param choice The player's choice, as they typed it
+    * @return True if the player chose to use an item, otherwise false
+    */
+   public static boolean playTurn(Player player, String choice) {
+      CombatEngine engine = player.getCombatEngine();
 
-            // Set random Enemy based on random index outside of the main while loop so it doesn't change every fight
-            Enemy enemy = enemies[enemySelection];
+      if (choice.isEmpty()) {
+         clearLine(3);
+         return false;
+      }
 
-            print("You're fighting a " + colour(BLUE, enemy.getName()) + ".");
+      switch (choice.charAt(0)) {
+         // Attack sequence
+         case '1' -> {
+            Enemy enemy = engine.getEnemy();
+            text("You attempted to attack the ").colour(BLUE, enemy.getName()).append('.');
             lineBreak();
+            CombatResult result = engine.step(CombatEngine.Action.FIGHT);
+            recordTurn(engine, enemy, result);
+            printFight(player, enemy, result);
+            printOutcome(engine);
+         }
+         // Player flee sequence
+         case '2' -> {
+            Enemy enemy = engine.getEnemy();
+            CombatResult result = engine.step(CombatEngine.Action.FLEE);
+            recordTurn(engine, enemy, result);
+            printFlee(enemy, result);
+            printOutcome(engine);
+         }
+         // Player uses item
+         case '3' -> {
+            return true;
+         }
+         default -> {
+            clearLine(3);
+         }
+      }
+      return false;
+   }
 
-            while (continueFighting) {
-               // Select a random attack for the selected enemy
-               int weaponSelection = random.nextInt(3); // 0 to 2, since each enemy has 3 attacks
-
-               // All enemy weapons
-               Attacks[] enemyAttacks = {
-                  snakeAttacks[weaponSelection],
-                  ravenAttacks[weaponSelection],
-                  vultureAttacks[weaponSelection],
-                  wolfAttacks[weaponSelection],
-                  wildBoarAttacks[weaponSelection],
-                  bearAttacks[weaponSelection],
-                  sabretoothTigerAttacks[weaponSelection]
-               };
-
-               enemy.setAttack(enemyAttacks[enemySelection]);
-
-               // Variance in damage for attacks
-               int damageVariancePlayer = random.nextInt(5) - 3; // Randomise damage with a variance of -2 to 2
-               int damageVarianceEnemy = random.nextInt(3) - 1; // Randomise damage with a variance of -1 to 1
-               int weaponAccuracy = player.getWeapon().getRange() * 2;
-
-               int totalPlayerDamage = player.getWeapon().getDamage() + damageVariancePlayer;
-               int totalEnemyDamage = enemy.getAttack().getDamage() + damageVarianceEnemy;
-
-               lineBreak();
-               print("You have " + colour(YELLOW, player.getHealth() + " health") + ".");
-               lineBreak();
-               print("What would you like to do? " + colour(BLUE, "(1) Fight, (2) Run, (3) Use Item"));
-               lineBreak();
-               print(GREEN, " > ");
-               String choice = sc.nextLine().toUpperCase();
-
-               if (choice.isEmpty()) {
-                  clearLine(3);
-                  continue;
-               } else {
-                  char choiceChar = choice.charAt(0);
-
-                  switch (choiceChar) {
-                     // Attack sequenbce
-                     case '1' -> {
-                        // Player attack
-                        print("You attempted to attack the " + colour(BLUE, enemy.getName()) + ".");
-                        lineBreak();
-                        playerAttackChance = random.nextInt(100); // 1-6 instead of 0-5
-
-                        if (player.getWeapon().getAmmo() <= 0) {
-                           // Search for an ammo item in the player's backpack
-                           boolean foundAmmo = false;
-                           int backpackSize = player.getBackpackSize();
+   /**
+    * Ends the combat at the player's location, so the location doesn't have another encounter.
+    *
+    * @param player The player object involved in combat
+    * @param world  The world the combat took place in
+    */
+   public static void endCombat(Player player, World world) {
+      world.updateLocationFightStatus();
+      player.setIsFighting(false);
+   }
 
-                           for (int i = 0; i < backpackSize; i++) {
-                              Items item = player.getBackpackItem(i);
-                              if (item.getType() == 1) { // type 1 = ammo
-                                 player.getWeapon().setAmmo(player.getWeapon().getAmmo() + item.getValue());
-                                 print("You were out of ammo. You quickly used the " + colour(YELLOW, item.getName()) + " and added " + colour(YELLOW, item.getValue() + " ammo") + " to your " + colour(YELLOW, player.getWeapon().getName()) + ".");
-                                 player.removeBackpackItem(item);
-                                 foundAmmo = true;
-                                 break;
-                              }
-                           }
+   /**
+    * Counts what happened on the player's turn in the {@link Metrics}.
+    */
+   private static void recordTurn(CombatEngine engine, Enemy enemy, CombatResult result) {
+      int enemyType = enemy.getType().getIndex();
 
-                           if (!foundAmmo) {
-                              print("You ran out of ammo for your " + colour(YELLOW, player.getWeapon().getName()) + "... ");
-                              lineBreak();
+      if (result.getWasOutOfAmmo()) {
+         Metrics.outOfAmmo.increment(result.getReloadItem() != null ? 1 : 0);
+      }
+      if (result.getPlayerAttacked()) {
+         Metrics.playerAttacks.increment(enemyType);
+         if (result.getPlayerHit()) {
+            Metrics.playerHits.increment(enemyType);
+            Metrics.damageDealt.add(enemyType, result.getPlayerDamage());
+         }
+      }
+      if (result.getFleeAlreadyTried() || result.getFleeBlocked() || result.getFled() || result.getFleeFailed()) {
+         Metrics.fleeAttempts.increment();
+         if (result.getFled()) {
+            Metrics.fleeSuccesses.increment();
+         }
+      }
+      if (result.getEnemyHit()) {
+         Metrics.damageTaken.add(enemyType, result.getEnemyDamage());
+      }
+      if (result.getIsEnemyDefeated()) {
+         Metrics.enemiesDefeated.increment(enemyType);
+      }
+      if (result.getIsPlayerDefeated()) {
+         Metrics.playerDeaths.increment(enemyType);
+      }
+      if (result.getIsNewEnemy()) {
+         Metrics.enemiesFought.increment(engine.getEnemy().getType().getIndex());
+      }
+   }
 
-                              boolean fleeChance = random.nextBoolean();
+   /**
+    * Prints the enemy the player is now fighting.
+    */
+   private static void printEnemy(Enemy enemy) {
+      text("You're fighting a ").colour(BLUE, enemy.getName()).append('.');
+      lineBreak();
+   }
 
-                              if (fleeChance) {
-                                 print("You were able to flee, continue your mission.");
-                              } else {
-                                 print("You failed to flee and got defeated by the enemy.");
-                                 continueFighting = false;
-                                 isPlayerAlive = false;
-                                 player.setIsAlive(isPlayerAlive);
-                                 fightCount = 100;
-                                 break;
-                              }
-                           }
-                           lineBreak();
-                        }
+   /**
+    * Prints the result of the player attacking the enemy.
+    */
+   private static void printFight(Player player, Enemy enemy, CombatResult result) {
+      Weapon weapon = player.getWeapon();
 
-                        // Player attack sequence - player has a 80% chance to hit the enemy, chance increases with weapon accuracy
-                        if (playerAttackChance <= 80 + weaponAccuracy) {
-                           print("You hit the " + colour(BLUE, enemy.getName()) + " for " + colour(YELLOW, totalPlayerDamage + " damage") + ".");
-                           enemy.setHealth(enemy.getHealth() - (totalPlayerDamage));
-                        } else {
-                           print("Your attack " + colour(RED, "missed") + " the " + colour(BLUE, enemy.getName()) + ".");
-                        }
-                        lineBreak();
+      if (result.getWasOutOfAmmo()) {
+         Items reloadItem = result.getReloadItem();
 
-                        player.getWeapon().setAmmo(player.getWeapon().getAmmo() - 1);
+         if (reloadItem != null) {
+            text("You were out of ammo. You quickly used the ").colour(YELLOW, reloadItem.getName()).append(" and added ").colour(YELLOW, reloadItem.getValue(), " ammo").append(" to your ").colour(YELLOW, weapon.getName()).append('.');
+         } else {
+            text("You ran out of ammo for your ").colour(YELLOW, weapon.getName()).append("... ");
+            lineBreak();
 
-                        // Enemy attack sequence - failed to attack, attacked successfully - only run sequence if the enemy still has health
-                        if (enemy.getHealth() > 0) {
-                           print("The " + colour(BLUE, enemy.getName()) + " has " + colour(YELLOW, enemy.getHealth() + " health") + ".");
-                           lineBreak();
-                           print("The " + colour(BLUE, enemy.getName()) + " attempted to attack you with its " + colour(YELLOW, enemy.getAttack().getName()) + ".");
-                           lineBreak();
-                           enemyAttackChance = random.nextInt(6) + 1; // 1-6 instead of 0-5
+            if (result.getFledWithoutAmmo()) {
+               print("You were able to flee, continue your mission.");
+            } else {
+               print("You failed to flee and got defeated by the enemy.");
+               return;
+            }
+         }
+         lineBreak();
+      }
 
-                           if (enemyAttackChance <= 1) {
-                              print("The " + colour(BLUE, enemy.getName()) + " couldn't hit you." );
-                           } else {
-                              print("You got hit for " + colour(YELLOW, totalEnemyDamage + " damage") + ".");
-                              player.setHealth(player.getHealth() - totalEnemyDamage);
-                           }
-                           lineBreak();
-                        }
-                     }
-                     // Player flee sequence
-                     case '2' -> {
-                        int fleeFightChance;
+      if (result.getPlayerHit()) {
+         text("You hit the ").colour(BLUE, enemy.getName()).append(" for ").colour(YELLOW, result.getPlayerDamage(), " damage").append('.');
+      } else {
+         text("Your attack ").colour(RED, "missed").append(" the ").colour(BLUE, enemy.getName()).append('.');
+      }
+      lineBreak();
 
-                        // If the encounter has more than 1 enemy, the player cannot flee
-                        if (hasTriedToFlee) {
-                           print("You've already tried to flee and failed, continue fighting.");
-                        } else {
-                           if (enemyCount > 1) {
-                              print("You cannot flee during an encounter with multiple enemies.");
-                              lineBreak();
-                              break; // Prevent fleeing if multiple enemies
-                           } else {
-                              // Otherwise a random number out of 100 is generated
-                              fleeFightChance = random.nextInt(100);
-                           }
+      if (result.getEnemyAttacked()) {
+         printEnemyAttack(enemy, result);
+         if (result.getEnemyHit()) {
+            text("You got hit for ").colour(YELLOW, result.getEnemyDamage(), " damage").append('.');
+         } else {
+            text("The ").colour(BLUE, enemy.getName()).append(" couldn't hit you.");
+         }
+         lineBreak();
+      }
+   }
 
-                           if (fleeFightChance < 50 - fleeCount) {
-                              print("You managed to escape successfully. Continue your mission.");
-                              if (fleeCount != 30) {
-                                 fleeCount+=10;
-                              }
-                              continueFighting = false;
-                           } else {
-                              print("You failed to escape, the battle continues.");
-                              lineBreak();
-                              print("The " + colour(BLUE, enemy.getName()) + " has " + colour(YELLOW, enemy.getHealth() + " health") + ".");
-                              lineBreak();
-                              print("The " + colour(BLUE, enemy.getName()) + " attempted to attack you with its " + colour(YELLOW, enemy.getAttack().getName()) + ".");
-                              lineBreak();
-                              enemyAttackChance = random.nextInt(6) + 1; // 1-5 instead of 0-5
+   /**
+    * Prints the result of the player trying to flee from the enemy.
+    */
+   private static void printFlee(Enemy enemy, CombatResult result) {
+      if (result.getFleeAlreadyTried()) {
+         print("You've already tried to flee and failed, continue fighting.");
+      } else if (result.getFleeBlocked()) {
+         print("You cannot flee during an encounter with multiple enemies.");
+      } else if (result.getFled()) {
+         print("You managed to escape successfully. Continue your mission.");
+      } else {
+         print("You failed to escape, the battle continues.");
+         lineBreak();
+         printEnemyAttack(enemy, result);
+         if (result.getEnemyHit()) {
+            text("You got hit for ").colour(YELLOW, result.getEnemyDamage(), " damage").append('.');
+         } else {
+            text("The ").colour(BLUE, enemy.getName()).append(" failed to attack you.");
+         }
+      }
+      lineBreak();
+   }
 
-                              if (enemyAttackChance <= 1) {
-                                 print("The " + colour(BLUE, enemy.getName()) + " failed to attack you.");
-                              } else {
-                                 print("You got hit for " + colour(YELLOW, totalEnemyDamage + " damage") + ".");
-                                 player.setHealth(player.getHealth() - totalEnemyDamage);
-                              }
-                           }
-                           hasTriedToFlee = true;
-                        }
-                        lineBreak();
-                     }
-                     // Player uses item
-                     case '3' -> {
-                        Items.useItem(player);
-                     }
-                     default -> {
-                        clearLine(3);
-                     }
-                  }
-               }
+   /**
+    * Prints the enemy's remaining health and the attack it is attempting.
+    */
+   private static void printEnemyAttack(Enemy enemy, CombatResult result) {
+      text("The ").colour(BLUE, enemy.getName()).append(" has ").colour(YELLOW, enemy.getHealth(), " health").append('.');
+      lineBreak();
+      text("The ").colour(BLUE, enemy.getName()).append(" attempted to attack you with its ").colour(YELLOW, result.getEnemyAttack().getName()).append('.');
+      lineBreak();
+   }
 
-               if (player.getHealth() <= 0) {
-                  continueFighting = false;
-                  isPlayerAlive = false;
-                  fightCount = 100;
-                  player.setIsAlive(isPlayerAlive);
-               }
+   /**
+    * Prints whether the player survived the enemy or encounter, and the next enemy if there is one.
+    */
+   private static void printOutcome(CombatEngine engine) {
+      CombatResult result = engine.getResult();
 
-               if (enemy.getHealth() <= 0) {
-                  continueFighting = false;
-                  fightCount++;
-                  if (fightCount >= enemyCount) {
-                     print("You survived this encounter, continue your mission.");
-                     lineBreak();
-                     break;
-                  } else {
-                     print("You survived this enemy, watch out for the next one.");
-                     lineBreak(2);
-                  }
-               }
-            }
+      if (result.getIsEnemyDefeated()) {
+         if (result.getIsEncounterOver()) {
+            print("You survived this encounter, continue your mission.");
             lineBreak();
+         } else {
+            print("You survived this enemy, watch out for the next one.");
+            lineBreak(2);
          }
-         if (fightCount >= enemyCount) {
-            break;
+      }
+
+      if (result.getIsFightOver()) {
+         lineBreak();
+         if (result.getIsNewEnemy()) {
+            printEnemy(engine.getEnemy());
          }
       }
-      Navigation.updateLocationFightStatus();
-      player.setIsFighting(false);
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,253 @@
+package utils;
+
+/**
+ * The {@code CombatBatch} class plays many fights at once, keeping each fight's state in arrays instead of a {@link Player}, {@link Enemy} and {@link CombatEngine} each.
+ * Every fight is a lane: the player's health, ammo and ammo items left, the enemy's type and health, and the state of its own random number generator.
+ * {@link #step()} plays one turn of every fight still going, so a simulation can play millions of fights without creating any objects.
+ *
+ * <p>A turn follows the same rules as {@link CombatEngine} when the player fights, and draws the same random numbers in the same order from the same {@link GameRandom} algorithm,
+ * so a lane started with a generator's state ends exactly like the engine would with that generator: the player hits on a roll of up to {@code 80 + range * 2} out of 0-99,
+ * reloads from an ammo item when they are out of ammo, and without one is defeated half the time and attacks anyway otherwise, then the enemy hits back on a 2-6 of a six-sided die if it is still alive.
+ * Every ammo item in a batch gives the same ammo.
+ */
+public final class CombatBatch {
+
+   // The outcome of each lane's fight
+   public static final int NONE = 0; // No fight has been started in the lane
+   public static final int FIGHTING = 1;
+   public static final int WON = 2;
+   public static final int DEFEATED = 3;
+
+   private final int size;
+   private final int weaponDamage;
+   private final int hitLimit; // The highest roll out of 0-99 that hits
+   private final int reloadAmmo;
+
+   // Every enemy type's attacks, one after another, so a lane only needs its enemy's type
+   private final int[] attackStarts;
+   private final int[] attackCounts;
+   private final int[] attackDamages;
+   private final int[] enemyStartHealths;
+
+   // Per lane
+   private final int[] outcomes;
+   private final int[] healths;
+   private final int[] ammos;
+   private final int[] reloads; // The number of ammo items left
+   private final int[] enemyTypes;
+   private final int[] enemyHealths;
+   private final long[] randomStates;
+
+   /**
+    * Constructs a new {@code CombatBatch} where every fight is played with the same weapon and ammo items.
+    *
+    * @param size       The number of lanes, ie. how many fights can be played at once
+    * @param weapon     The player's weapon, only its damage and range are used since each lane keeps its own ammo
+    * @param reloadAmmo The ammo each ammo item gives
+    */
+   public CombatBatch(int size, Weapon weapon, int reloadAmmo) {
+      this.size = size;
+      this.weaponDamage = weapon.getDamage();
+      this.hitLimit = 80 + weapon.getRange() * 2;
+      this.reloadAmmo = reloadAmmo;
+
+      int enemyCount = EnemyType.count();
+      attackStarts = new int[enemyCount];
+      attackCounts = new int[enemyCount];
+      enemyStartHealths = new int[enemyCount];
+      int attackTotal = 0;
+      for (int i = 0; i < enemyCount; i++) {
+         attackStarts[i] = attackTotal;
+         attackCounts[i] = EnemyType.get(i).getAttackCount();
+         enemyStartHealths[i] = EnemyType.get(i).getHealth();
+         attackTotal += attackCounts[i];
+      }
+      attackDamages = new int[attackTotal];
+      for (int i = 0; i < enemyCount; i++) {
+         for (int j = 0; j < attackCounts[i]; j++) {
+            attackDamages[attackStarts[i] + j] = EnemyType.get(i).getAttack(j).getDamage();
+         }
+      }
+
+      outcomes = new int[size];
+      healths = new int[size];
+      ammos = new int[size];
+      reloads = new int[size];
+      enemyTypes = new int[size];
+      enemyHealths = new int[size];
+      randomStates = new long[size];
+   }
+
+   /**
+    * Starts a new fight in a lane, against an enemy at full health.
+    *
+    * @param lane        The lane, replacing any fight already in it
+    * @param health      The player's health
+    * @param ammo        The ammo in the player's weapon
+    * @param ammoItems   The number of ammo items in the player's backpack
+    * @param enemyType   The index of the enemy type
+    * @param randomState The state of the fight's random number generator, see {@link GameRandom#getState()}
+    */
+   public void start(int lane, int health, int ammo, int ammoItems, int enemyType, long randomState) {
+      outcomes[lane] = FIGHTING;
+      healths[lane] = health;
+      ammos[lane] = ammo;
+      reloads[lane] = ammoItems;
+      enemyTypes[lane] = enemyType;
+      enemyHealths[lane] = enemyStartHealths[enemyType];
+      randomStates[lane] = randomState;
+   }
+
+   /**
+    * Plays one turn of every fight that is still going, with the player fighting.
+    *
+    * @return The number of fights that played a turn
+    */
+   public int step() {
+      int played = 0;
+      for (int lane = 0; lane < size; lane++) {
+         if (outcomes[lane] != FIGHTING) {
+            continue;
+         }
+         played++;
+         int type = enemyTypes[lane];
+
+         // The same draws as CombatEngine.step, in the same order
+         int attack = nextInt(lane, attackCounts[type]);
+         int playerVariance = nextInt(lane, 5) - 3;
+         int enemyVariance = nextInt(lane, 3) - 1;
+         int attackChance = nextInt(lane, 100);
+
+         int ammo = ammos[lane];
+         if (ammo <= 0) {
+            if (reloads[lane] > 0) {
+               ammo += reloadAmmo;
+               reloads[lane]--;
+            } else if (!nextBoolean(lane)) {
+               outcomes[lane] = DEFEATED;
+               continue;
+            }
+         }
+         ammos[lane] = ammo - 1;
+
+         int enemyHealth = enemyHealths[lane] - (attackChance <= hitLimit ? weaponDamage + playerVariance : 0);
+         int health = healths[lane];
+         if (enemyHealth > 0) {
+            // Rolling 0 out of 0-5 is the enemy missing
+            health -= nextInt(lane, 6) > 0 ? attackDamages[attackStarts[type] + attack] + enemyVariance : 0;
+         }
+         enemyHealths[lane] = enemyHealth;
+         healths[lane] = health;
+         outcomes[lane] = health <= 0 ? DEFEATED : enemyHealth <= 0 ? WON : FIGHTING;
+      }
+      return played;
+   }
+
+   /**
+    * Plays every fight until it is over.
+    */
+   public void finish() {
+      while (step() > 0) {
+      }
+   }
+
+   /**
+    * The same as {@link GameRandom#nextInt(int)}, using a lane's state.
+    */
+   private int nextInt(int lane, int bound) {
+      int r = GameRandom.mix32(randomStates[lane] += GameRandom.GOLDEN_GAMMA);
+      int m = bound - 1;
+      if ((bound & m) == 0) {
+         return r & m;
+      }
+      for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = GameRandom.mix32(randomStates[lane] += GameRandom.GOLDEN_GAMMA) >>> 1) {
+      }
+      return r;
+   }
+
+   /**
+    * The same as {@link GameRandom#nextBoolean()}, using a lane's state.
+    */
+   private boolean nextBoolean(int lane) {
+      return GameRandom.mix32(randomStates[lane] += GameRandom.GOLDEN_GAMMA) < 0;
+   }
+
+   /**
+    * Gets the number of lanes.
+    *
+    * @return The number of lanes
+    */
+   public int getSize() {
+      return size;
+   }
+
+   /**
+    * Gets the outcome of a lane's fight so far.
+    *
+    * @param lane The lane
+    * @return {@link #NONE}, {@link #FIGHTING}, {@link #WON} or {@link #DEFEATED}
+    */
+   public int getOutcome(int lane) {
+      return outcomes[lane];
+   }
+
+   /**
+    * Gets the player's health in a lane.
+    *
+    * @param lane The lane
+    * @return The health
+    */
+   public int getHealth(int lane) {
+      return healths[lane];
+   }
+
+   /**
+    * Gets the ammo in the player's weapon in a lane.
+    *
+    * @param lane The lane
+    * @return The ammo
+    */
+   public int getAmmo(int lane) {
+      return ammos[lane];
+   }
+
+   /**
+    * Gets the number of ammo items the player has left in a lane.
+    *
+    * @param lane The lane
+    * @return The number of ammo items
+    */
+   public int getAmmoItems(int lane) {
+      return reloads[lane];
+   }
+
+   /**
+    * Gets the type of the enemy in a lane.
+    *
+    * @param lane The lane
+    * @return The index of the enemy type
+    */
+   public int getEnemyType(int lane) {
+      return enemyTypes[lane];
+   }
+
+   /**
+    * Gets the enemy's health in a lane.
+    *
+    * @param lane The lane
+    * @return The health
+    */
+   public int getEnemyHealth(int lane) {
+      return enemyHealths[lane];
+   }
+
+   /**
+    * Gets the state of a lane's random number generator, which matches {@link GameRandom#getState()} of an engine that played the same fight.
+    *
+    * @param lane The lane
+    * @return The state
+    */
+   public long getRandomState(int lane) {
+      return randomStates[lane];
+   }
+}
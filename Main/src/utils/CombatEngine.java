@@ -0,0 +1,321 @@
+package utils;
+
+/**
+ * The {@code CombatEngine} class runs the rules of a combat encounter without reading input or printing to the console.
+ * An encounter is started with {@link #startEncounter(int)} and each player turn is played with {@link #step(Action)}, which returns a {@link CombatResult} describing what happened.
+ * {@link Combat} uses it as the interactive version, but it can also be driven directly by bots and simulations.
+ */
+public class CombatEngine {
+
+   /**
+    * The actions the player can take on their turn.
+    */
+   public enum Action {
+      FIGHT,
+      FLEE
+   }
+
+   private final Player player;
+   private final GameRandom random;
+   private final CombatResult result = new CombatResult(); // Reused every turn so stepping doesn't allocate
+
+   // One per enemy type, created the first time the type is fought and reset the first time it is fought in each encounter
+   // The catalog can have thousands of enemy types, so only the ones the player meets are made or reset
+   private final Enemy[] enemies = new Enemy[EnemyType.count()];
+   private final int[] resetInEncounter = new int[enemies.length]; // The encounter each enemy was last reset in
+   private int encounterNumber;
+
+   private Enemy enemy;
+   private int enemyCount; // The number of enemies in the encounter
+   private int fightCount; // The number of enemies the player has defeated
+   private boolean hasTriedToFlee;
+   private boolean isEncounterOver = true;
+
+   /**
+    * Constructs a new {@code CombatEngine} for the player using the random number generator of the player's game.
+    *
+    * @param player The player involved in combat
+    */
+   public CombatEngine(Player player) {
+      this(player, player.getRandom());
+   }
+
+   /**
+    * Constructs a new {@code CombatEngine} for the player using the given random number generator.
+    *
+    * @param player The player involved in combat
+    * @param random The random number generator used for every roll in the encounter
+    */
+   public CombatEngine(Player player, GameRandom random) {
+      this.player = player;
+      this.random = random;
+   }
+
+   /**
+    * Rolls for an encounter at a location and, if one happens, selects the first enemy.
+    * The chance of an encounter increases with the player's weight.
+    *
+    * @param possibleEncounters The maximum number of enemies at the location
+    * @return True if the player encountered enemies, otherwise false
+    */
+   public boolean startEncounter(int possibleEncounters) {
+      // Every enemy starts the encounter at full health
+      encounterNumber++;
+
+      fightCount = 0;
+      hasTriedToFlee = false;
+      int encounterChance = random.nextInt(100);
+
+      if (encounterChance < 60 + (2 * player.getWeight())) {
+         enemyCount = random.nextInt(possibleEncounters) + 1;
+         isEncounterOver = false;
+         selectEnemy();
+         return true;
+      }
+      enemyCount = 0;
+      isEncounterOver = true;
+      return false;
+   }
+
+   /**
+    * Plays a single turn of the encounter.
+    *
+    * @param action The action the player takes
+    * @return The result of the turn, reused by the next call to this method
+    * @throws IllegalStateException if there is no encounter in progress
+    */
+   public CombatResult step(Action action) {
+      if (isEncounterOver) {
+         throw new IllegalStateException("There is no encounter in progress");
+      }
+      result.reset();
+
+      // Select a random attack for the selected enemy
+      int weaponSelection = random.nextInt(enemy.getType().getAttackCount()); // Any of the attacks the enemy type has in the catalog
+
+      enemy.setAttack(enemy.getType().getAttack(weaponSelection));
+
+      // Variance in damage for attacks
+      int damageVariancePlayer = random.nextInt(5) - 3; // Randomise damage with a variance of -3 to 1
+      int damageVarianceEnemy = random.nextInt(3) - 1; // Randomise damage with a variance of -1 to 1
+
+      int totalPlayerDamage = player.getWeapon().getDamage() + damageVariancePlayer;
+      int totalEnemyDamage = enemy.getAttack().getDamage() + damageVarianceEnemy;
+
+      switch (action) {
+         case FIGHT -> fight(totalPlayerDamage, totalEnemyDamage);
+         case FLEE -> flee(totalEnemyDamage);
+      }
+
+      endTurn();
+      return result;
+   }
+
+   /**
+    * The player attacks the enemy, automatically reloading from their backpack if they are out of ammo.
+    */
+   private void fight(int totalPlayerDamage, int totalEnemyDamage) {
+      Weapon weapon = player.getWeapon();
+      int weaponAccuracy = weapon.getRange() * 2;
+      int playerAttackChance = random.nextInt(100);
+
+      if (weapon.getAmmo() <= 0) {
+         result.wasOutOfAmmo = true;
+
+         // Use the first ammo item in the player's backpack
+         Items item = player.getFirstBackpackItem(1); // type 1 = ammo
+         if (item != null) {
+            weapon.setAmmo(weapon.getAmmo() + item.getValue());
+            player.removeBackpackItem(item);
+            result.reloadItem = item;
+         }
+
+         if (result.reloadItem == null) {
+            if (random.nextBoolean()) {
+               result.fledWithoutAmmo = true;
+            } else {
+               result.defeatedWithoutAmmo = true;
+               defeatPlayer();
+               return;
+            }
+         }
+      }
+
+      // Player attack sequence - player has a 80% chance to hit the enemy, chance increases with weapon accuracy
+      result.playerAttacked = true;
+      if (playerAttackChance <= 80 + weaponAccuracy) {
+         result.playerHit = true;
+         result.playerDamage = totalPlayerDamage;
+         enemy.setHealth(enemy.getHealth() - totalPlayerDamage);
+      }
+
+      weapon.setAmmo(weapon.getAmmo() - 1);
+
+      // Enemy attack sequence - only run if the enemy still has health
+      if (enemy.getHealth() > 0) {
+         enemyAttack(totalEnemyDamage);
+      }
+   }
+
+   /**
+    * The player tries to flee from the enemy. Fleeing is only possible once, and only from a single enemy.
+    */
+   private void flee(int totalEnemyDamage) {
+      if (hasTriedToFlee) {
+         result.fleeAlreadyTried = true;
+         return;
+      }
+      if (enemyCount > 1) {
+         result.fleeBlocked = true;
+         return;
+      }
+
+      int fleeFightChance = random.nextInt(100);
+
+      int fleeCount = player.getFleeCount();
+      if (fleeFightChance < 50 - fleeCount) {
+         result.fled = true;
+         if (fleeCount != 30) {
+            player.setFleeCount(fleeCount + 10);
+         }
+      } else {
+         result.fleeFailed = true;
+         enemyAttack(totalEnemyDamage);
+      }
+      hasTriedToFlee = true;
+   }
+
+   /**
+    * The enemy attempts to attack the player, hitting on a 2-6 of a six-sided die.
+    */
+   private void enemyAttack(int totalEnemyDamage) {
+      result.enemyAttacked = true;
+      result.enemyAttack = enemy.getAttack();
+      int enemyAttackChance = random.nextInt(6) + 1; // 1-6 instead of 0-5
+
+      if (enemyAttackChance > 1) {
+         result.enemyHit = true;
+         result.enemyDamage = totalEnemyDamage;
+         player.setHealth(player.getHealth() - totalEnemyDamage);
+      }
+   }
+
+   /**
+    * Writes the encounter in progress to a saved game: how many enemies there are, the enemy being fought and each enemy's health.
+    *
+    * @param out The saved game to write to
+    */
+   public void writeTo(SnapshotWriter out) {
+      out.writeVarInt(enemyCount);
+      out.writeVarInt(fightCount);
+      out.writeBoolean(hasTriedToFlee);
+      out.writeVarInt(enemy.getType().getIndex());
+      for (int i = 0; i < enemies.length; i++) {
+         out.writeVarInt(resetInEncounter[i] == encounterNumber ? enemies[i].getHealth() : EnemyType.get(i).getHealth());
+      }
+   }
+
+   /**
+    * Continues an encounter written by {@link #writeTo(SnapshotWriter)}.
+    *
+    * @param in The saved game to read from
+    */
+   public void readFrom(SnapshotReader in) {
+      enemyCount = in.readVarInt();
+      fightCount = in.readVarInt();
+      hasTriedToFlee = in.readBoolean();
+      encounterNumber++;
+      enemy = enemyOfType(in.readVarInt(0, enemies.length - 1));
+      for (int i = 0; i < enemies.length; i++) {
+         int health = in.readVarInt();
+         if (health != EnemyType.get(i).getHealth() || enemies[i] == enemy) {
+            enemyOfType(i).setHealth(health);
+         }
+      }
+      isEncounterOver = false;
+   }
+
+   /**
+    * Checks whether the fight against the current enemy is over, and moves on to the next enemy if there is one.
+    */
+   private void endTurn() {
+      if (player.getHealth() <= 0) {
+         defeatPlayer();
+      }
+
+      if (enemy.getHealth() <= 0) {
+         result.isFightOver = true;
+         result.isEnemyDefeated = true;
+         fightCount++;
+      }
+
+      if (result.fled) {
+         result.isFightOver = true;
+      }
+
+      if (result.isFightOver) {
+         if (fightCount >= enemyCount) {
+            result.isEncounterOver = true;
+            isEncounterOver = true;
+            player.setIsFighting(false);
+         } else {
+            selectEnemy();
+            result.isNewEnemy = true;
+         }
+      }
+   }
+
+   private void defeatPlayer() {
+      result.isFightOver = true;
+      result.isPlayerDefeated = true;
+      fightCount = 100;
+      player.setIsAlive(false);
+   }
+
+   /**
+    * Selects a random enemy for the next fight.
+    */
+   private void selectEnemy() {
+      player.setIsFighting(true);
+      enemy = enemyOfType(random.nextInt(enemies.length)); // Any enemy type in the catalog
+   }
+
+   /**
+    * Gets the enemy of a type, at full health if it hasn't been fought yet this encounter.
+    */
+   private Enemy enemyOfType(int index) {
+      Enemy typeEnemy = enemies[index];
+      if (typeEnemy == null) {
+         typeEnemy = new Enemy(EnemyType.get(index));
+         enemies[index] = typeEnemy;
+      } else if (resetInEncounter[index] != encounterNumber) {
+         typeEnemy.reset(EnemyType.get(index));
+      }
+      resetInEncounter[index] = encounterNumber;
+      return typeEnemy;
+   }
+
+   public Player getPlayer() {
+      return player;
+   }
+
+   public Enemy getEnemy() {
+      return enemy;
+   }
+
+   public CombatResult getResult() {
+      return result;
+   }
+
+   public int getEnemyCount() {
+      return enemyCount;
+   }
+
+   public int getFightCount() {
+      return fightCount;
+   }
+
+   public boolean getIsEncounterOver() {
+      return isEncounterOver;
+   }
+}
@@ -0,0 +1,144 @@
+package utils;
+
+/**
+ * The {@code CombatResult} class describes what happened during a single turn of a {@link CombatEngine}.
+ * The engine reuses one result object for every turn, so callers should read it before taking the next step.
+ */
+public class CombatResult {
+
+   // Ammo sequence - the player tried to attack without ammo
+   boolean wasOutOfAmmo;
+   Items reloadItem; // The ammo item that was used automatically, null if there was none
+   boolean fledWithoutAmmo;
+   boolean defeatedWithoutAmmo;
+
+   // Player attack sequence
+   boolean playerAttacked;
+   boolean playerHit;
+   int playerDamage;
+
+   // Flee sequence
+   boolean fleeAlreadyTried;
+   boolean fleeBlocked;
+   boolean fled;
+   boolean fleeFailed;
+
+   // Enemy attack sequence
+   boolean enemyAttacked;
+   boolean enemyHit;
+   int enemyDamage;
+   Attacks enemyAttack;
+
+   // Outcome of the turn
+   boolean isFightOver; // The fight against the current enemy has ended
+   boolean isEnemyDefeated;
+   boolean isPlayerDefeated;
+   boolean isEncounterOver;
+   boolean isNewEnemy;
+
+   /**
+    * Clears the result so it can describe the next turn.
+    */
+   void reset() {
+      wasOutOfAmmo = false;
+      reloadItem = null;
+      fledWithoutAmmo = false;
+      defeatedWithoutAmmo = false;
+      playerAttacked = false;
+      playerHit = false;
+      playerDamage = 0;
+      fleeAlreadyTried = false;
+      fleeBlocked = false;
+      fled = false;
+      fleeFailed = false;
+      enemyAttacked = false;
+      enemyHit = false;
+      enemyDamage = 0;
+      enemyAttack = null;
+      isFightOver = false;
+      isEnemyDefeated = false;
+      isPlayerDefeated = false;
+      isEncounterOver = false;
+      isNewEnemy = false;
+   }
+
+   public boolean getWasOutOfAmmo() {
+      return wasOutOfAmmo;
+   }
+
+   public Items getReloadItem() {
+      return reloadItem;
+   }
+
+   public boolean getFledWithoutAmmo() {
+      return fledWithoutAmmo;
+   }
+
+   public boolean getDefeatedWithoutAmmo() {
+      return defeatedWithoutAmmo;
+   }
+
+   public boolean getPlayerAttacked() {
+      return playerAttacked;
+   }
+
+   public boolean getPlayerHit() {
+      return playerHit;
+   }
+
+   public int getPlayerDamage() {
+      return playerDamage;
+   }
+
+   public boolean getFleeAlreadyTried() {
+      return fleeAlreadyTried;
+   }
+
+   public boolean getFleeBlocked() {
+      return fleeBlocked;
+   }
+
+   public boolean getFled() {
+      return fled;
+   }
+
+   public boolean getFleeFailed() {
+      return fleeFailed;
+   }
+
+   public boolean getEnemyAttacked() {
+      return enemyAttacked;
+   }
+
+   public boolean getEnemyHit() {
+      return enemyHit;
+   }
+
+   public int getEnemyDamage() {
+      return enemyDamage;
+   }
+
+   public Attacks getEnemyAttack() {
+      return enemyAttack;
+   }
+
+   public boolean getIsFightOver() {
+      return isFightOver;
+   }
+
+   public boolean getIsEnemyDefeated() {
+      return isEnemyDefeated;
+   }
+
+   public boolean getIsPlayerDefeated() {
+      return isPlayerDefeated;
+   }
+
+   public boolean getIsEncounterOver() {
+      return isEncounterOver;
+   }
+
+   public boolean getIsNewEnemy() {
+      return isNewEnemy;
+   }
+}
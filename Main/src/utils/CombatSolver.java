@@ -0,0 +1,360 @@
+package utils;
+import static utils.Formatting.*;
+
+/**
+ * The {@code CombatSolver} class calculates the exact chances of winning, dying and fleeing a fight against one enemy, and the health and ammo the player can expect to have used, without playing any fights.
+ * It follows the same rules as {@link CombatEngine}: the player hits on a roll of up to {@code 80 + range * 2} out of 0-99 for their weapon's damage -3 to +1, the enemy hits on a 2-6 of a six-sided die for one of its attacks' damage -1 to +1,
+ * a player with no ammo left and nothing to reload with is defeated half the time and attacks anyway otherwise, and fleeing works on a roll under {@code 50 - fleeCount}.
+ *
+ * <p>A fight is a state: the player's health, the enemy's health, how many attacks the player can make before running out of ammo, and whether they have tried to flee.
+ * Every turn moves to a state with less health or fewer attacks left, except a turn with no ammo where nothing hits, which can stay in the same state.
+ * So each state is worked out once from the states after it, and staying in the same state is solved directly: if a turn stays with chance {@code p}, the result is the other outcomes divided by {@code 1 - p}.
+ * The results are kept in a table with a slot for every state, worked out up to the most attacks asked about so far, so each answer after that is a few array reads.
+ *
+ * <p>The player is assumed to fight every turn, except that they try to flee once when their health is at or below the flee health, and not to heal during the fight.
+ * A solver isn't safe to share between threads, since it fills its table as it is used.
+ */
+public final class CombatSolver {
+
+   private static final int DEFAULT_HEALTH = 100;
+   private static final int DEFAULT_FLEE_HEALTH = 30;
+
+   private final int maxHealth;
+   private final int maxEnemyHealth;
+   private final int maxAttacks;
+   private final int fleeHealth;
+   private final boolean canFlee;
+
+   private final double hitChance;
+   private final int[] playerDamages = new int[5]; // The damage of a hit for each variance, -3 to +1
+   private final double fleeChance;
+   private final int[] enemyDamages; // Each damage the enemy can deal
+   private final double[] enemyDamageChances; // The chance of each damage when the enemy hits
+
+   // Four numbers per state, next to each other since they are always read together, by the state's index from getState
+   private static final int WIN = 0; // The chance of winning
+   private static final int LOSS = 1; // The chance of dying
+   private static final int HEALTH_LEFT = 2; // Expected health at the end of the fight, 0 if it reached 0
+   private static final int AMMO_USED = 3; // Expected number of attacks made
+   private static final int RESULT_COUNT = 4;
+   private final double[] results;
+   private int solvedAttacks = -1; // States with up to this many attacks left have been worked out
+
+   // What the state being worked out adds up to so far
+   private double win;
+   private double loss;
+   private double health; // Expected health left
+   private double ammo; // Expected attacks made
+   private double stay; // The chance of the turn staying in the same state
+
+   /**
+    * Constructs a new {@code CombatSolver} for fights with a weapon against an enemy type.
+    *
+    * @param weapon     The player's weapon, only its damage and range are used
+    * @param enemy      The type of enemy fought
+    * @param fleeCount  The player's flee count, which makes fleeing harder each time it works
+    * @param fleeHealth The health at or below which the player tries to flee, or 0 to never flee
+    * @param maxHealth  The most health the player can have when asking about a fight
+    * @param maxAttacks The most attacks the player can have left when asking about a fight, see {@link #countAttacks(Player)}
+    * @throws IllegalArgumentException if a hit could heal, since then fights could go on forever
+    */
+   public CombatSolver(Weapon weapon, EnemyType enemy, int fleeCount, int fleeHealth, int maxHealth, int maxAttacks) {
+      if (weapon.getDamage() < 3) {
+         throw new IllegalArgumentException("The weapon must deal at least 3 damage so a hit can't heal the enemy");
+      }
+      if (maxHealth < 1 || maxAttacks < 0) {
+         throw new IllegalArgumentException("The player must have at least 1 health and 0 attacks");
+      }
+      this.maxHealth = maxHealth;
+      this.maxEnemyHealth = enemy.getHealth();
+      this.maxAttacks = maxAttacks;
+      this.fleeHealth = fleeHealth;
+      this.canFlee = fleeHealth > 0;
+
+      hitChance = Math.min(100, Math.max(0, 81 + weapon.getRange() * 2)) / 100.0;
+      for (int i = 0; i < playerDamages.length; i++) {
+         playerDamages[i] = weapon.getDamage() + i - 3;
+      }
+      fleeChance = Math.min(100, Math.max(0, 50 - fleeCount)) / 100.0;
+
+      // Add up the chance of each damage over every attack and variance, eg. a 3 and a 5 attack can both deal 4
+      int minDamage = Integer.MAX_VALUE, maxDamage = 0;
+      for (int i = 0; i < enemy.getAttackCount(); i++) {
+         minDamage = Math.min(minDamage, enemy.getAttack(i).getDamage() - 1);
+         maxDamage = Math.max(maxDamage, enemy.getAttack(i).getDamage() + 1);
+      }
+      if (minDamage < 0) {
+         throw new IllegalArgumentException("Every attack of the " + enemy.getName() + " must deal at least 1 damage so a hit can't heal the player");
+      }
+      double[] chances = new double[maxDamage - minDamage + 1];
+      for (int i = 0; i < enemy.getAttackCount(); i++) {
+         for (int variance = -1; variance <= 1; variance++) {
+            chances[enemy.getAttack(i).getDamage() + variance - minDamage] += 1.0 / (3 * enemy.getAttackCount());
+         }
+      }
+      int damageCount = 0;
+      for (double chance : chances) {
+         damageCount += chance > 0 ? 1 : 0;
+      }
+      enemyDamages = new int[damageCount];
+      enemyDamageChances = new double[damageCount];
+      for (int i = 0, j = 0; i < chances.length; i++) {
+         if (chances[i] > 0) {
+            enemyDamages[j] = minDamage + i;
+            enemyDamageChances[j++] = chances[i];
+         }
+      }
+
+      int states = (canFlee ? 2 : 1) * (maxAttacks + 1) * maxEnemyHealth * maxHealth;
+      results = new double[states * RESULT_COUNT];
+   }
+
+   /**
+    * Prints the exact results of a fight against each enemy type with each weapon, starting with full health and the weapon's starting ammo.
+    * Passing {@code --health <number>}, {@code --flee-health <number>} or {@code --flee-count <number>} changes the player's health, when they flee and their flee count.
+    */
+   public static void main(String[] args) {
+      int playerHealth = DEFAULT_HEALTH;
+      int fleeHealth = DEFAULT_FLEE_HEALTH;
+      int fleeCount = 0;
+      for (int i = 0; i + 1 < args.length; i += 2) {
+         switch (args[i]) {
+            case "--health" -> playerHealth = Integer.parseInt(args[i + 1]);
+            case "--flee-health" -> fleeHealth = Integer.parseInt(args[i + 1]);
+            case "--flee-count" -> fleeCount = Integer.parseInt(args[i + 1]);
+            default -> {
+            }
+         }
+      }
+
+      Catalog catalog = Catalog.get();
+      long startTime = System.nanoTime();
+      int fights = 0;
+      for (int i = 0; i < catalog.getWeaponCount(); i++) {
+         Weapon weapon = catalog.createWeapon(i);
+         print(YELLOW, "<=-- " + weapon.getName() + " with " + weapon.getAmmo() + " ammo, " + playerHealth + " health --=>");
+         lineBreak();
+         print(BLUE, String.format("%-18s %7s %7s %7s %8s %10s", "Enemy", "Win %", "Died %", "Fled %", "HP left", "Ammo used"));
+         lineBreak();
+
+         for (int enemy = 0; enemy < EnemyType.count(); enemy++) {
+            EnemyType type = EnemyType.get(enemy);
+            CombatSolver solver = new CombatSolver(weapon, type, fleeCount, fleeHealth, playerHealth, weapon.getAmmo());
+            int state = solver.getState(playerHealth, type.getHealth(), weapon.getAmmo(), false);
+            print(String.format("%-18s %7.2f %7.2f %7.2f %8.2f %10.2f", type.getName(), 100 * solver.getWinChance(state), 100 * solver.getLossChance(state),
+                  100 * solver.getFleeChance(state), solver.getHealthLeft(state), solver.getAmmoUsed(state)));
+            lineBreak();
+            fights++;
+         }
+         lineBreak();
+      }
+      print(GREEN, String.format("Solved %d fights exactly in %.1f ms", fights, (System.nanoTime() - startTime) / 1e6));
+      lineBreak();
+      flush();
+   }
+
+   /**
+    * Counts how many attacks the player can make before running out of ammo: the weapon's ammo, then each ammo item in their backpack in order.
+    * An item is only used once the weapon is empty, and is always followed by an attack, even if the weapon's ammo is still below 1 afterwards.
+    *
+    * @param player The player
+    * @return The number of attacks
+    */
+   public static int countAttacks(Player player) {
+      int weaponAmmo = player.getWeapon().getAmmo();
+      int attacks = Math.max(0, weaponAmmo);
+      weaponAmmo = Math.min(0, weaponAmmo);
+
+      // Ammo items are used in the order they were added, like the engine reloads
+      for (int i = 0; i < player.countBackpackItems(1); i++) {
+         Items item = player.getBackpackItemOfType(1, i);
+         weaponAmmo += item.getValue();
+         if (weaponAmmo > 0) {
+            attacks += weaponAmmo;
+            weaponAmmo = 0;
+         } else {
+            attacks++;
+            weaponAmmo--;
+         }
+      }
+      return attacks;
+   }
+
+   /**
+    * Gets a fight's state, working out the results of every state with up to as many attacks left if they haven't been already.
+    *
+    * @param health         The player's health
+    * @param enemyHealth    The enemy's health
+    * @param attacks        The number of attacks the player can make before running out of ammo
+    * @param hasTriedToFlee Whether the player has already tried to flee in this encounter
+    * @return The state, to pass to the other methods
+    * @throws IllegalArgumentException if the health or attacks are outside what the solver was made for
+    */
+   public int getState(int health, int enemyHealth, int attacks, boolean hasTriedToFlee) {
+      if (health < 1 || health > maxHealth || enemyHealth < 1 || enemyHealth > maxEnemyHealth || attacks < 0 || attacks > maxAttacks) {
+         throw new IllegalArgumentException("No state for " + health + " health, " + enemyHealth + " enemy health and " + attacks + " attacks");
+      }
+      while (solvedAttacks < attacks) {
+         solve(solvedAttacks + 1);
+      }
+      return index(health, enemyHealth, attacks, hasTriedToFlee || !canFlee);
+   }
+
+   /**
+    * Gets the chance of the player defeating the enemy from a state.
+    *
+    * @param state The state, from {@link #getState(int, int, int, boolean)}
+    * @return The chance, from 0 to 1
+    */
+   public double getWinChance(int state) {
+      return results[state * RESULT_COUNT + WIN];
+   }
+
+   /**
+    * Gets the chance of the player being defeated from a state.
+    *
+    * @param state The state, from {@link #getState(int, int, int, boolean)}
+    * @return The chance, from 0 to 1
+    */
+   public double getLossChance(int state) {
+      return results[state * RESULT_COUNT + LOSS];
+   }
+
+   /**
+    * Gets the chance of the player fleeing from a state, including fleeing when they ran out of ammo.
+    *
+    * @param state The state, from {@link #getState(int, int, int, boolean)}
+    * @return The chance, from 0 to 1
+    */
+   public double getFleeChance(int state) {
+      // Every fight ends, so whatever isn't a win or a loss is fleeing
+      return Math.max(0, 1 - getWinChance(state) - getLossChance(state));
+   }
+
+   /**
+    * Gets the health the player can expect to have at the end of the fight from a state, counting 0 for the fights they lose.
+    *
+    * @param state The state, from {@link #getState(int, int, int, boolean)}
+    * @return The expected health
+    */
+   public double getHealthLeft(int state) {
+      return results[state * RESULT_COUNT + HEALTH_LEFT];
+   }
+
+   /**
+    * Gets the number of attacks the player can expect to make before the fight ends from a state.
+    *
+    * @param state The state, from {@link #getState(int, int, int, boolean)}
+    * @return The expected number of attacks
+    */
+   public double getAmmoUsed(int state) {
+      return results[state * RESULT_COUNT + AMMO_USED];
+   }
+
+   /**
+    * Gets a state's index, where states that only differ by the player's health are next to each other.
+    */
+   private int index(int health, int enemyHealth, int attacks, boolean hasTriedToFlee) {
+      int layer = (hasTriedToFlee ? 0 : maxAttacks + 1) + attacks;
+      return (layer * maxEnemyHealth + enemyHealth - 1) * maxHealth + health - 1;
+   }
+
+   /**
+    * Works out every state with a number of attacks left, which only lead to states with fewer attacks, or to states with the same attacks and less health.
+    * States where the player has tried to flee are worked out first, since trying to flee leads to them.
+    */
+   private void solve(int attacks) {
+      for (int tried = 1; tried >= (canFlee ? 0 : 1); tried--) {
+         boolean hasTriedToFlee = tried == 1;
+         for (int enemyHealth = 1; enemyHealth <= maxEnemyHealth; enemyHealth++) {
+            for (int health = 1; health <= maxHealth; health++) {
+               int state = index(health, enemyHealth, attacks, hasTriedToFlee);
+               win = 0;
+               loss = 0;
+               this.health = 0;
+               ammo = 0;
+               stay = 0;
+
+               if (!hasTriedToFlee && health <= fleeHealth) {
+                  flee(state, health, enemyHealth, attacks);
+               } else {
+                  fight(state, health, enemyHealth, attacks, hasTriedToFlee);
+               }
+
+               // The turn is played again until it leaves the state, so each outcome's chance is divided by the chance of leaving
+               double leave = 1 - stay;
+               int result = state * RESULT_COUNT;
+               results[result + WIN] = win / leave;
+               results[result + LOSS] = loss / leave;
+               results[result + HEALTH_LEFT] = this.health / leave;
+               results[result + AMMO_USED] = ammo / leave;
+            }
+         }
+      }
+      solvedAttacks = attacks;
+   }
+
+   /**
+    * Adds up a turn where the player attacks, reloading first if they need to.
+    */
+   private void fight(int state, int health, int enemyHealth, int attacks, boolean hasTriedToFlee) {
+      double attackChance = 1;
+      if (attacks == 0) {
+         // Out of ammo with nothing to reload with: defeated half the time, otherwise the player attacks anyway
+         attackChance = 0.5;
+         loss += 0.5;
+         this.health += 0.5 * health;
+      }
+      ammo += attackChance;
+      int nextAttacks = Math.max(0, attacks - 1);
+
+      enemyTurn(state, attackChance * (1 - hitChance), health, enemyHealth, nextAttacks, hasTriedToFlee);
+      double damageChance = attackChance * hitChance / playerDamages.length;
+      for (int damage : playerDamages) {
+         int nextEnemyHealth = enemyHealth - damage;
+         if (nextEnemyHealth <= 0) {
+            win += damageChance;
+            this.health += damageChance * health;
+         } else {
+            enemyTurn(state, damageChance, health, nextEnemyHealth, nextAttacks, hasTriedToFlee);
+         }
+      }
+   }
+
+   /**
+    * Adds up a turn where the player tries to flee. If it fails the enemy attacks, and the player can't try again.
+    */
+   private void flee(int state, int health, int enemyHealth, int attacks) {
+      this.health += fleeChance * health;
+      enemyTurn(state, 1 - fleeChance, health, enemyHealth, attacks, true);
+   }
+
+   /**
+    * Adds up the enemy's attack, which happens with a chance, then moves to the next state.
+    */
+   private void enemyTurn(int state, double chance, int health, int enemyHealth, int attacks, boolean hasTriedToFlee) {
+      // Losing health only moves to the states just before in the table
+      int next = index(health, enemyHealth, attacks, hasTriedToFlee);
+      addState(state, chance / 6, next);
+      for (int i = 0; i < enemyDamages.length; i++) {
+         double damageChance = chance * 5 / 6 * enemyDamageChances[i];
+         if (health - enemyDamages[i] <= 0) {
+            loss += damageChance;
+         } else {
+            addState(state, damageChance, next - enemyDamages[i]);
+         }
+      }
+   }
+
+   private void addState(int state, double chance, int next) {
+      if (next == state) {
+         stay += chance;
+      } else {
+         int result = next * RESULT_COUNT;
+         win += chance * results[result + WIN];
+         loss += chance * results[result + LOSS];
+         this.health += chance * results[result + HEALTH_LEFT];
+         ammo += chance * results[result + AMMO_USED];
+      }
+   }
+}
@@ -0,0 +1,136 @@
+package utils;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * The {@code Counter} class counts how many times something happened, eg. encounters started or damage dealt.
+ * A counter can have one label, eg. the enemy type, with a separate count for each of a fixed list of values, chosen by index so counting never looks anything up.
+ * Counting is lock-free, so any number of games can count at once without waiting for each other.
+ * A label can have thousands of values, eg. every enemy in the {@link Catalog}, so each value's count is only made the first time it is counted.
+ * When the values are looked up, only counted values are written, while a fixed list of values is always written in full, with 0 for the values never counted.
+ */
+public final class Counter implements Metric {
+
+   private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(LongAdder[].class);
+
+   private final String name;
+   private final String help;
+   private final String labelName;
+   private final IntFunction<String> labelValues;
+   private final boolean isOpenEnded; // Whether the label values are looked up, so only counted values are written
+   private final LongAdder[] counts; // Null until the label value is first counted
+
+   /**
+    * Constructs a new {@code Counter} without a label.
+    *
+    * @param name The name of the counter
+    * @param help A description of what is counted
+    */
+   public Counter(String name, String help) {
+      this(name, help, null, new String[] {null});
+   }
+
+   /**
+    * Constructs a new {@code Counter} with a count for each value of a label.
+    *
+    * @param name        The name of the counter
+    * @param help        A description of what is counted
+    * @param labelName   The name of the label
+    * @param labelValues The values of the label, in the order of their indexes
+    */
+   public Counter(String name, String help, String labelName, String[] labelValues) {
+      this(name, help, labelName, labelValues.length, i -> labelValues[i], false);
+   }
+
+   /**
+    * Constructs a new {@code Counter} with a count for each value of a label, where the values are only looked up when the counter is written, and only the values that have been counted are written.
+    *
+    * @param name        The name of the counter
+    * @param help        A description of what is counted
+    * @param labelName   The name of the label
+    * @param labelCount  The number of label values
+    * @param labelValues Gets the label value of an index
+    */
+   public Counter(String name, String help, String labelName, int labelCount, IntFunction<String> labelValues) {
+      this(name, help, labelName, labelCount, labelValues, true);
+   }
+
+   private Counter(String name, String help, String labelName, int labelCount, IntFunction<String> labelValues, boolean isOpenEnded) {
+      this.name = name;
+      this.help = help;
+      this.labelName = labelName;
+      this.labelValues = labelValues;
+      this.isOpenEnded = isOpenEnded;
+      this.counts = new LongAdder[labelCount];
+   }
+
+   /**
+    * Gets the count of a label value, making it the first time.
+    */
+   private LongAdder count(int label) {
+      LongAdder count = (LongAdder) COUNTS.getAcquire(counts, label);
+      if (count == null) {
+         // If another thread makes it first, use theirs so no counts are lost
+         LongAdder made = new LongAdder();
+         LongAdder witness = (LongAdder) COUNTS.compareAndExchange(counts, label, null, made);
+         count = witness == null ? made : witness;
+      }
+      return count;
+   }
+
+   /**
+    * Adds one to a counter without a label.
+    */
+   public void increment() {
+      count(0).increment();
+   }
+
+   /**
+    * Adds one to the count of a label value.
+    *
+    * @param label The index of the label value
+    */
+   public void increment(int label) {
+      count(label).increment();
+   }
+
+   /**
+    * Adds an amount to the count of a label value.
+    *
+    * @param label  The index of the label value
+    * @param amount The amount to add
+    */
+   public void add(int label, long amount) {
+      count(label).add(amount);
+   }
+
+   /**
+    * Gets the count of a label value, or of a counter without a label when the index is 0.
+    *
+    * @param label The index of the label value
+    * @return The count
+    */
+   public long get(int label) {
+      LongAdder count = (LongAdder) COUNTS.getAcquire(counts, label);
+      return count == null ? 0 : count.sum();
+   }
+
+   @Override
+   public void writeTo(StringBuilder out) {
+      out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+      out.append("# TYPE ").append(name).append(" counter\n");
+      for (int i = 0; i < counts.length; i++) {
+         LongAdder count = (LongAdder) COUNTS.getAcquire(counts, i);
+         if (count == null && isOpenEnded) {
+            continue; // Never counted
+         }
+         out.append(name);
+         if (labelName != null) {
+            Metrics.appendLabel(out.append('{'), labelName, labelValues.apply(i)).append('}');
+         }
+         out.append(' ').append(count == null ? 0 : count.sum()).append('\n');
+      }
+   }
+}
@@ -2,8 +2,10 @@ package utils;
 
 /**
  * The {@code Enemy} class represents an enemy with a name, health, and an attack.
+ * When it is created from an {@link EnemyType}, it only holds the enemy's current health and chosen attack, so it can be reset and reused for the next encounter.
  */
 public class Enemy {
+   private EnemyType type;
    private String name;
    private int health;
    private Attacks attack;
@@ -18,6 +20,25 @@ public class Enemy {
       this.health = health;
    }
 
+   /**
+    * Constructs a new {@code Enemy} object with the name and full health of an enemy type.
+    * @param type The type of enemy
+    */
+   public Enemy(EnemyType type) {
+      reset(type);
+   }
+
+   /**
+    * Resets the enemy to the full health of an enemy type so it can be reused.
+    * @param type The type of enemy
+    */
+   public void reset(EnemyType type) {
+      this.type = type;
+      this.name = type.getName();
+      this.health = type.getHealth();
+      this.attack = null;
+   }
+
    public void setName(String name) {
       this.name = name;
    }
@@ -30,6 +51,10 @@ public class Enemy {
       this.attack = attack;
    }
 
+   public EnemyType getType() {
+      return type;
+   }
+
    public String getName() {
       return name;
    }
@@ -0,0 +1,66 @@
+package utils;
+
+/**
+ * The {@code EnemyType} class describes a kind of enemy the player can fight: its name, starting health and the attacks it can use.
+ * Enemy types never change, so each enemy type is read from the {@link Catalog} once and shared by every encounter.
+ * The health an enemy has left during a fight is stored separately in an {@link Enemy}.
+ */
+public final class EnemyType {
+
+   private final int index;
+   private final String name;
+   private final int health;
+   private final Attacks[] attacks;
+
+   EnemyType(int index, String name, int health, Attacks[] attacks) {
+      this.index = index;
+      this.name = name;
+      this.health = health;
+      this.attacks = attacks;
+   }
+
+   /**
+    * Gets the number of enemy types in the catalog.
+    *
+    * @return The number of enemy types
+    */
+   public static int count() {
+      return Catalog.get().getEnemyCount();
+   }
+
+   /**
+    * Gets an enemy type from the catalog.
+    *
+    * @param index The index of the enemy type
+    * @return The enemy type at the index
+    */
+   public static EnemyType get(int index) {
+      return Catalog.get().getEnemy(index);
+   }
+
+   /**
+    * Gets one of the enemy type's attacks. The attacks are shared, so they should not be changed.
+    *
+    * @param index The index of the attack
+    * @return The attack at the index
+    */
+   public Attacks getAttack(int index) {
+      return attacks[index];
+   }
+
+   public int getAttackCount() {
+      return attacks.length;
+   }
+
+   public int getIndex() {
+      return index;
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public int getHealth() {
+      return health;
+   }
+}
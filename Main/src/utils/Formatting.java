@@ -1,8 +1,10 @@
 package utils;
+import java.io.OutputStream;
 
 /**
  * The {@code Formatting} class is used to enhance readability through the use of colors in the text.
  * It contains methods for printing text and managing the console's layout.
+ * Text is collected by a {@link Renderer} and only written to the console when {@link #flush()} is called, which happens before the game waits for input.
  */
 public class Formatting {
 
@@ -13,13 +15,116 @@ public class Formatting {
    public static final String YELLOW = "\u001B[93m";
    public static final String BLUE = "\u001B[94m";
 
+   // Sends the renderer's output to whatever System.out currently is
+   private static final OutputStream console = new OutputStream() {
+      @Override
+      public void write(int b) {
+         System.out.write(b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+         System.out.write(b, off, len);
+      }
+
+      @Override
+      public void flush() {
+         System.out.flush();
+      }
+   };
+
+   private static final Renderer consoleRenderer = new Renderer(console);
+
+   // Each thread prints to its own renderer, so every game on the Server prints to its own connection
+   private static final ThreadLocal<Renderer> renderers = ThreadLocal.withInitial(() -> consoleRenderer);
+
+   /**
+    * Gets the renderer that the current thread prints to.
+    *
+    * @return The current renderer
+    */
+   public static Renderer getRenderer() {
+      return renderers.get();
+   }
+
+   /**
+    * Changes the renderer that the current thread prints to, eg. to print somewhere other than the console.
+    * The renderer the thread was printing to is flushed first, unless it is the console's, see {@link #flushOwnRenderer()}.
+    *
+    * @param newRenderer The renderer to print to
+    */
+   public static void setRenderer(Renderer newRenderer) {
+      flushOwnRenderer();
+      renderers.set(newRenderer);
+   }
+
+   /**
+    * Flushes the current thread's renderer, unless it is the console's, and goes back to printing to the console.
+    */
+   public static void resetRenderer() {
+      flushOwnRenderer();
+      renderers.remove();
+   }
+
+   /**
+    * Flushes the current thread's renderer if it is the thread's own.
+    * The console's renderer is shared by every thread that hasn't set its own, and isn't thread-safe, so changing renderers never flushes it, eg. when a game on the Server starts.
+    * The thread printing to the console flushes it with {@link #flush()}.
+    */
+   private static void flushOwnRenderer() {
+      Renderer current = renderers.get();
+      if (current != consoleRenderer) {
+         current.flush();
+      }
+   }
+
+   /**
+    * Writes all of the text printed so far to the console in one go.
+    * This must be called before waiting for the player's input so they can see the prompt.
+    */
+   public static void flush() {
+      renderers.get().flush();
+   }
+
    /**
     * A method that prints text to the console, shorter than the default print method to keep the code cleaner and simpler to read.
     *
     * @param text the text to print
     */
    public static void print(String text) {
-      System.out.print(text);
+      renderers.get().append(text);
+   }
+
+   /**
+    * Starts printing a message made of several pieces of text.
+    * The rest of the message can be chained onto the returned renderer, eg. {@code text("You hit the ").colour(BLUE, name).append('.')}, which writes each piece straight into the console buffer without building any strings.
+    *
+    * @param text The start of the message
+    * @return The renderer, for adding the rest of the message
+    */
+   public static Renderer text(String text) {
+      return renderers.get().append(text);
+   }
+
+   /**
+    * Starts printing a message whose first piece of text is in a colour, eg. the name of who is speaking, resetting the colour afterwards.
+    * The rest of the message can be chained onto the returned renderer, like {@link #text(String)}.
+    *
+    * @param colour The colour to apply to the start of the message
+    * @param text   The start of the message
+    * @return The renderer, for adding the rest of the message
+    */
+   public static Renderer text(String colour, String text) {
+      return renderers.get().colour(colour, text);
+   }
+
+   /**
+    * Prints text that has already been encoded for the console, such as a cached map.
+    *
+    * @param encoded The encoded text to print
+    */
+   public static void print(byte[] encoded) {
+      renderers.get().append(encoded);
    }
 
    /**
@@ -28,7 +133,7 @@ public class Formatting {
     * @param text   The text to print
     */
    public static void print(String colour, String text) {
-      System.out.print(colour + text + RESET);
+      renderers.get().append(colour).append(text).append(RESET);
    }
 
    /**
@@ -40,14 +145,14 @@ public class Formatting {
     * @return a string with the colour applied to the text
     */
    public static String colour(String colour, String text) {
-      return String.format("%s%s%s", colour, text, RESET);
+      return colour + text + RESET;
    }
 
    /**
     * Prints a single line break.
     */
    public static void lineBreak() {
-      System.out.println();
+      renderers.get().append('\n');
    }
 
    /**
@@ -57,7 +162,7 @@ public class Formatting {
     */
    public static void lineBreak(int lineCount) {
       for (int i = 0; i < lineCount; i++) {
-         System.out.println();
+         renderers.get().append('\n');
       }
    }
 
@@ -69,7 +174,7 @@ public class Formatting {
     */
    public static void clearLine(int clearLineCount) {
       for (int i = 0; i < clearLineCount; i++) {
-         System.out.print("\033[1A\033[2K");
+         renderers.get().append("\033[1A\033[2K");
       }
    }
 
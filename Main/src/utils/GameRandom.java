@@ -0,0 +1,159 @@
+package utils;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code GameRandom} class is the random number generator used for all of the game's randomness.
+ * It uses the same SplitMix64 algorithm as {@link java.util.SplittableRandom}: the whole state is a single number, so a game can be reproduced exactly from its seed.
+ * Each game has its own generator, which is not shared between threads, and {@link #split()} creates independent generators for parallel simulations.
+ */
+public final class GameRandom {
+
+   static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+   // Used to pick a different seed for every generator created without one
+   private static final AtomicLong seeder = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+   private long state;
+   private Journal journal; // Records every number drawn, or null if the game isn't being journaled
+   private JournalReplay replay; // Checks every number drawn against a recording, or null if the game isn't a replay
+
+   /**
+    * Constructs a new {@code GameRandom} with a seed that is different every time.
+    */
+   public GameRandom() {
+      this(mix64(seeder.getAndAdd(2 * GOLDEN_GAMMA)));
+   }
+
+   /**
+    * Constructs a new {@code GameRandom} with a seed, it will always produce the same numbers for the same seed.
+    *
+    * @param seed The seed
+    */
+   public GameRandom(long seed) {
+      this.state = seed;
+   }
+
+   /**
+    * Creates a new generator that is independent of this one, eg. for another thread or simulation.
+    * The new generator is seeded from this one, so splitting is also reproducible.
+    *
+    * @return The new generator
+    */
+   public GameRandom split() {
+      GameRandom random = new GameRandom(mix64(nextSeed()));
+      random.journal = journal;
+      random.replay = replay;
+      return random;
+   }
+
+   /**
+    * Gets a random number from 0 (inclusive) up to a bound (exclusive), with every number equally likely.
+    *
+    * @param bound The upper bound, must be positive
+    * @return The random number
+    */
+   public int nextInt(int bound) {
+      if (bound <= 0) {
+         throw new IllegalArgumentException("bound must be positive");
+      }
+      int r = mix32(nextSeed());
+      int m = bound - 1;
+      if ((bound & m) == 0) {
+         r &= m; // The bound is a power of 2
+      } else {
+         // Reject values from the top of the range that would make some numbers more likely than others
+         for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1) {
+         }
+      }
+      if (journal != null) {
+         journal.recordDraw(r);
+      }
+      if (replay != null) {
+         replay.checkDraw(r);
+      }
+      return r;
+   }
+
+   /**
+    * Gets a random true or false value.
+    *
+    * @return The random value
+    */
+   public boolean nextBoolean() {
+      boolean value = mix32(nextSeed()) < 0;
+      if (journal != null) {
+         journal.recordDraw(value ? 1 : 0);
+      }
+      if (replay != null) {
+         replay.checkDraw(value ? 1 : 0);
+      }
+      return value;
+   }
+
+   /**
+    * Gets a random 64-bit number.
+    *
+    * @return The random number
+    */
+   public long nextLong() {
+      long value = mix64(nextSeed());
+      if (journal != null) {
+         journal.recordLong(value);
+      }
+      if (replay != null) {
+         replay.checkDraw(value);
+      }
+      return value;
+   }
+
+   /**
+    * Gets the generator's current state, which can be used to continue the same sequence later.
+    *
+    * @return The current state
+    */
+   public long getState() {
+      return state;
+   }
+
+   /**
+    * Sets the generator's state, eg. when a saved game is loaded.
+    *
+    * @param state The state to continue from
+    */
+   public void setState(long state) {
+      this.state = state;
+   }
+
+   /**
+    * Records every number this generator draws in a journal, and every generator split from it afterwards does the same.
+    *
+    * @param journal The journal to record in, or null to stop recording
+    */
+   public void setJournal(Journal journal) {
+      this.journal = journal;
+   }
+
+   /**
+    * Checks every number this generator draws against a recorded session, and every generator split from it afterwards does the same.
+    *
+    * @param replay The recording to check against, or null to stop checking
+    */
+   public void setReplay(JournalReplay replay) {
+      this.replay = replay;
+   }
+
+   private long nextSeed() {
+      return state += GOLDEN_GAMMA;
+   }
+
+   static long mix64(long z) {
+      z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+      z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+      return z ^ (z >>> 31);
+   }
+
+   static int mix32(long z) {
+      z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+      return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+   }
+}
@@ -0,0 +1,116 @@
+package utils;
+
+/**
+ * The {@code GameSnapshot} class saves and loads the whole state of a game, eg. so a game can be recovered after a crash or moved to another server.
+ * A typical save is around a hundred bytes and takes microseconds to write or read, because every class writes its own fields in a fixed order instead of using reflection.
+ *
+ * <p>The format, where varints are zigzag encoded and fixed-width numbers are big-endian, is:
+ * <ul>
+ *    <li>Header: the fixed 4 byte {@link #MAGIC} number and the {@link #VERSION} as a varint</li>
+ *    <li>{@link Player#writeTo(SnapshotWriter)}: the random number generator's fixed 8 byte state, name, health, weapon, weight, flags, flee count, backpack items, the nuclear cores still to be found and any encounter in progress</li>
+ *    <li>{@link World#writeTo(SnapshotWriter)}: the size of the map, the player's location, the size of the view and a byte for the state of every location</li>
+ * </ul>
+ * The version must be increased whenever the format changes, so that old saves are rejected or converted instead of being read wrongly.
+ */
+public final class GameSnapshot {
+
+   /** The first 4 bytes of every save, "GSAV". */
+   public static final int MAGIC = 0x47534156;
+   /** The version of the format written by this class. */
+   public static final int VERSION = 1;
+
+   private final Player player;
+   private final World world;
+
+   /**
+    * Constructs a new {@code GameSnapshot} holding a loaded game.
+    *
+    * @param player The loaded player
+    * @param world  The loaded world
+    */
+   public GameSnapshot(Player player, World world) {
+      this.player = player;
+      this.world = world;
+   }
+
+   /**
+    * Saves a game.
+    *
+    * @param player The player of the game
+    * @param world  The world of the game
+    * @return The saved bytes
+    */
+   public static byte[] save(Player player, World world) {
+      SnapshotWriter out = new SnapshotWriter();
+      write(out, player, world);
+      return out.toByteArray();
+   }
+
+   /**
+    * Writes a game, including the header, so other data can be saved alongside it.
+    *
+    * @param out    The saved game to write to
+    * @param player The player of the game
+    * @param world  The world of the game
+    */
+   public static void write(SnapshotWriter out, Player player, World world) {
+      out.writeInt(MAGIC);
+      out.writeVarInt(VERSION);
+      player.writeTo(out);
+      world.writeTo(out);
+   }
+
+   /**
+    * Loads a game saved by {@link #save(Player, World)}.
+    *
+    * @param bytes The saved bytes
+    * @return The loaded game
+    * @throws IllegalArgumentException if the bytes aren't a save, are from another version, or are corrupt
+    */
+   public static GameSnapshot load(byte[] bytes) {
+      SnapshotReader in = new SnapshotReader(bytes);
+      GameSnapshot snapshot = read(in);
+      if (!in.getIsFinished()) {
+         throw new IllegalArgumentException("The save has extra bytes at the end");
+      }
+      return snapshot;
+   }
+
+   /**
+    * Reads a game written by {@link #write(SnapshotWriter, Player, World)}.
+    *
+    * @param in The saved game to read from
+    * @return The loaded game
+    * @throws IllegalArgumentException if the bytes aren't a save, are from another version, or are corrupt
+    */
+   public static GameSnapshot read(SnapshotReader in) {
+      if (in.readInt() != MAGIC) {
+         throw new IllegalArgumentException("The bytes are not a saved game");
+      }
+      int version = in.readVarInt();
+      if (version != VERSION) {
+         throw new IllegalArgumentException("Saves from version " + version + " can't be loaded, only version " + VERSION);
+      }
+      Player player = Player.readFrom(in);
+      World world = World.readFrom(in);
+      return new GameSnapshot(player, world);
+   }
+
+   /**
+    * Gets the loaded player.
+    *
+    * @return The player
+    */
+   public Player getPlayer() {
+      return player;
+   }
+
+   /**
+    * Gets the loaded world.
+    *
+    * @return The world
+    */
+   public World getWorld() {
+      return world;
+   }
+}
@@ -0,0 +1,95 @@
+package utils;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code Histogram} class records how long something took, eg. handling a command, by counting the times that fall into each of a fixed set of buckets.
+ * Like a {@link Counter} it can have one label with a fixed list of values, and recording is lock-free.
+ * Times are recorded in nanoseconds and written out in seconds.
+ */
+public final class Histogram implements Metric {
+
+   // Upper bounds of the buckets, from 1 microsecond to 1 second
+   private static final long[] BUCKET_NANOS = {
+      1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+      1_000_000, 2_500_000, 5_000_000, 10_000_000, 100_000_000, 1_000_000_000
+   };
+
+   private final String name;
+   private final String help;
+   private final String labelName;
+   private final String[] labelValues;
+   private final LongAdder[][] buckets; // Per label value, one count per bucket and one for times above every bucket
+   private final LongAdder[] sums;
+
+   /**
+    * Constructs a new {@code Histogram} with a set of buckets for each value of a label.
+    *
+    * @param name        The name of the histogram
+    * @param help        A description of what is timed
+    * @param labelName   The name of the label
+    * @param labelValues The values of the label, in the order of their indexes
+    */
+   public Histogram(String name, String help, String labelName, String[] labelValues) {
+      this.name = name;
+      this.help = help;
+      this.labelName = labelName;
+      this.labelValues = labelValues;
+      this.buckets = new LongAdder[labelValues.length][BUCKET_NANOS.length + 1];
+      this.sums = new LongAdder[labelValues.length];
+
+      for (int label = 0; label < labelValues.length; label++) {
+         sums[label] = new LongAdder();
+         for (int bucket = 0; bucket <= BUCKET_NANOS.length; bucket++) {
+            buckets[label][bucket] = new LongAdder();
+         }
+      }
+   }
+
+   /**
+    * Records a time.
+    *
+    * @param label The index of the label value
+    * @param nanos The time, in nanoseconds
+    */
+   public void record(int label, long nanos) {
+      int bucket = 0;
+      while (bucket < BUCKET_NANOS.length && nanos > BUCKET_NANOS[bucket]) {
+         bucket++;
+      }
+      buckets[label][bucket].increment();
+      sums[label].add(nanos);
+   }
+
+   /**
+    * Gets the number of times recorded for a label value.
+    *
+    * @param label The index of the label value
+    * @return The number of times
+    */
+   public long getCount(int label) {
+      long count = 0;
+      for (LongAdder bucket : buckets[label]) {
+         count += bucket.sum();
+      }
+      return count;
+   }
+
+   @Override
+   public void writeTo(StringBuilder out) {
+      out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+      out.append("# TYPE ").append(name).append(" histogram\n");
+
+      for (int label = 0; label < labelValues.length; label++) {
+         // Buckets are cumulative, each counts every time up to its bound
+         long count = 0;
+         for (int bucket = 0; bucket <= BUCKET_NANOS.length; bucket++) {
+            count += buckets[label][bucket].sum();
+            String bound = bucket < BUCKET_NANOS.length ? Double.toString(BUCKET_NANOS[bucket] / 1e9) : "+Inf";
+            Metrics.appendLabel(out.append(name).append("_bucket{"), labelName, labelValues[label]);
+            Metrics.appendLabel(out.append(','), "le", bound).append("} ").append(count).append('\n');
+         }
+         Metrics.appendLabel(out.append(name).append("_sum{"), labelName, labelValues[label]).append("} ").append(sums[label].sum() / 1e9).append('\n');
+         Metrics.appendLabel(out.append(name).append("_count{"), labelName, labelValues[label]).append("} ").append(count).append('\n');
+      }
+   }
+}
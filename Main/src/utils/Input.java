@@ -0,0 +1,136 @@
+package utils;
+
+/**
+ * The {@code Input} class is the single place the game reads the player's input from.
+ * By default it reads from the console, but any {@link InputSource} can be swapped in, eg. to replay a recorded game.
+ * Each thread has its own source, so every game on the Server reads from its own connection.
+ * Each line is timed from when it is read until the game asks for the next line, and recorded in {@link Metrics#commandLatency} under the menu it was typed in.
+ * It also has helpers for turning the player's input into choices without using exceptions or regular expressions.
+ */
+public class Input {
+
+   private static final InputSource console = InputSource.fromStream(System.in);
+   private static final ThreadLocal<InputSource> sources = ThreadLocal.withInitial(() -> console);
+   private static final ThreadLocal<Command> commands = ThreadLocal.withInitial(Command::new);
+
+   /**
+    * Gets the source the current thread reads input from.
+    *
+    * @return The current input source
+    */
+   public static InputSource getSource() {
+      return sources.get();
+   }
+
+   /**
+    * Changes the source the current thread reads input from.
+    *
+    * @param newSource The input source to read from
+    */
+   public static void setSource(InputSource newSource) {
+      sources.set(newSource);
+   }
+
+   /**
+    * Goes back to reading the current thread's input from the console.
+    */
+   public static void resetSource() {
+      sources.remove();
+      commands.remove();
+   }
+
+   /**
+    * Prints everything waiting to be printed so the player can see the prompt, then reads their next line of input.
+    * The line the player typed before this one has been handled by now, so its time is recorded first.
+    *
+    * @param menu The menu the line is typed in, eg. {@link Metrics#MAIN_MENU}
+    * @return The next line of input
+    * @throws java.util.NoSuchElementException if there is no more input
+    */
+   public static String nextLine(int menu) {
+      finishCommand();
+      Formatting.flush();
+      String line = sources.get().nextLine();
+      Command command = commands.get();
+      command.menu = menu;
+      command.startTime = System.nanoTime();
+      return line;
+   }
+
+   /**
+    * Records the time taken to handle the last line the player typed, eg. once the game has ended and no more lines are read.
+    * Nothing is recorded if the line has already been recorded.
+    */
+   public static void finishCommand() {
+      Command command = commands.get();
+      if (command.menu >= 0) {
+         Metrics.commandLatency.record(command.menu, System.nanoTime() - command.startTime);
+         command.menu = -1;
+      }
+   }
+
+   /**
+    * Converts the player's input to a whole number.
+    * Like {@link Integer#parseInt(String)}, the input can only contain digits with an optional sign at the start, but invalid input returns a fallback value instead of throwing an exception.
+    *
+    * @param text    The text to convert
+    * @param invalid The value to return if the text isn't a valid number
+    * @return The number, or the fallback value if the text isn't a valid number
+    */
+   public static int parseInt(String text, int invalid) {
+      int length = text.length();
+      if (length == 0) {
+         return invalid;
+      }
+
+      int i = 0;
+      boolean isNegative = false;
+      char first = text.charAt(0);
+      if (first == '-' || first == '+') {
+         if (length == 1) {
+            return invalid;
+         }
+         isNegative = first == '-';
+         i = 1;
+      }
+
+      // Build the number as a negative value so Integer.MIN_VALUE can be represented
+      long number = 0;
+      for (; i < length; i++) {
+         int digit = text.charAt(i) - '0';
+         if (digit < 0 || digit > 9) {
+            return invalid;
+         }
+         number = number * 10 - digit;
+         if (number < Integer.MIN_VALUE) {
+            return invalid;
+         }
+      }
+
+      if (!isNegative) {
+         number = -number;
+         if (number > Integer.MAX_VALUE) {
+            return invalid;
+         }
+      }
+      return (int) number;
+   }
+
+   /**
+    * Gets the first character of the player's input in upper case, eg. for (Y)es / (N)o choices and movement keys.
+    *
+    * @param text The player's input
+    * @return The first character in upper case, or 0 if the input is empty
+    */
+   public static char firstChar(String text) {
+      return text.isEmpty() ? 0 : Character.toUpperCase(text.charAt(0));
+   }
+
+   /**
+    * The line the current thread is handling.
+    */
+   private static class Command {
+      int menu = -1; // The menu the line was typed in, or -1 once it has been recorded
+      long startTime;
+   }
+}
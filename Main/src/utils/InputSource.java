@@ -0,0 +1,64 @@
+package utils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@code InputSource} interface is where the game reads the player's input from, one line at a time.
+ * The console, a file, a socket or a recorded string of commands can all be used, see {@link Input} for the source the game is currently using.
+ */
+public interface InputSource {
+
+   /**
+    * Reads the next line of input, without the line break at the end.
+    *
+    * @return The next line
+    * @throws java.util.NoSuchElementException if there is no more input
+    */
+   String nextLine();
+
+   /**
+    * Creates an input source that reads lines from a stream using the platform's character set.
+    *
+    * @param in The stream to read from
+    * @return The input source
+    */
+   static InputSource fromStream(InputStream in) {
+      return new LineReader(in, Charset.defaultCharset());
+   }
+
+   /**
+    * Creates an input source that reads lines from a file.
+    *
+    * @param path The file to read from
+    * @return The input source
+    * @throws IOException if the file can't be opened
+    */
+   static InputSource fromFile(Path path) throws IOException {
+      return new LineReader(Files.newInputStream(path), Charset.defaultCharset());
+   }
+
+   /**
+    * Creates an input source that reads lines sent over a network connection.
+    *
+    * @param socket The connection to read from
+    * @return The input source
+    * @throws IOException if the connection's input can't be opened
+    */
+   static InputSource fromSocket(Socket socket) throws IOException {
+      return new LineReader(socket.getInputStream(), Charset.defaultCharset());
+   }
+
+   /**
+    * Creates an input source that reads lines from text held in memory, such as a recorded list of commands.
+    *
+    * @param text The lines of input, separated by line breaks
+    * @return The input source
+    */
+   static InputSource fromString(String text) {
+      return new MemoryInputSource(text);
+   }
+}
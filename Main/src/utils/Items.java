@@ -1,5 +1,4 @@
 package utils;
-import java.util.Scanner;
 import static utils.Formatting.*;
 
 /**
@@ -9,8 +8,6 @@ import static utils.Formatting.*;
  */
 public class Items {
 
-   private static final Scanner sc = new Scanner(System.in);
-
    // Fields to store item details
    private String name;
    private int value; // Value is what the item provides, eg. for ammo, it is the number of bullets, for healing items, it is the amount of health it heals
@@ -42,6 +39,22 @@ public class Items {
       this.type = 2;
    }
 
+   /**
+    * What happened when the player chose from the item menu.
+    */
+   public enum Choice {
+      /** The choice wasn't an item and was cleared, so the player has to choose again. */
+      INVALID,
+      /** The player went back without using an item. */
+      BACK,
+      /** The player used an item, or looked at a story item. */
+      USED,
+      /** The item can't be used yet, so the menu has to be shown again. */
+      RETRY,
+      /** The item would over-heal the player, so the menu has to be shown again and a blank line printed once it closes. */
+      RETRY_AFTER_HEAL
+   }
+
    /**
     * Allows the player to use an item from their backpack
     * Once an item is used, it is removed from the player's backpack.
@@ -49,91 +62,146 @@ public class Items {
     * @param player The player that is using the item
     */
    public static void useItem(Player player) {
-      boolean isValidChoice = true;
-      Weapon weapon = player.getWeapon();
-      int backpackSize = player.getBackpackSize();
+      // Choosing an item that can't be used shows the menu again, and each over-heal adds a blank line once the menu closes
+      int extraLineBreaks = 0;
+      boolean isValidChoice = printItemMenu(player);
+
+      while (isValidChoice) {
+         print(GREEN, " > ");
+
+         switch (chooseItem(player, Input.nextLine(Metrics.USE_ITEM_MENU))) {
+            case INVALID -> {
+               // The player chooses again
+            }
+            case BACK, USED -> {
+               isValidChoice = false;
+            }
+            case RETRY -> {
+               printItemMenu(player);
+            }
+            case RETRY_AFTER_HEAL -> {
+               extraLineBreaks++;
+               printItemMenu(player);
+            }
+         }
+      }
+      lineBreak(extraLineBreaks);
+   }
 
-      // If the player has no items in their backpack, print a message and exit the method
-      if (player.displayBackpackContents().isEmpty()) {
+   /**
+    * Prints the items the player can choose from.
+    *
+    * @param player The player that is using the item
+    * @return True if the player has items to choose from, false if their backpack is empty
+    */
+   public static boolean printItemMenu(Player player) {
+      // If the player has no items in their backpack, print a message and exit the menu
+      if (player.getBackpackSize() == 0) {
          print("You have no items in your backpack.");
          lineBreak();
-         isValidChoice = false;
-      } else {
-         print("What item would you like to use? \n" + colour(BLUE, "(0) Go Back \n") + player.displayBackpackContents());
+         return false;
       }
+      text("What item would you like to use? \n").colour(BLUE, "(0) Go Back \n").append(player.displayBackpackContents());
+      return true;
+   }
 
-      while (isValidChoice) {
-         print(GREEN, " > ");
-         String itemChoice = sc.nextLine();
+   /**
+    * Uses the item the player chose from the menu printed by {@link #printItemMenu(Player)}, and prints what happened.
+    *
+    * @param player     The player that is using the item
+    * @param itemChoice The player's choice, as they typed it
+    * @return What happened, which tells the caller whether the menu is finished
+    */
+   public static Choice chooseItem(Player player, String itemChoice) {
+      Weapon weapon = player.getWeapon();
+      int backpackSize = player.getBackpackSize();
 
-         if (itemChoice.isEmpty()) {
-            clearLine(1);
-         } else {
-            int itemChoiceInt;
-
-            try {
-               itemChoiceInt = Integer.parseInt(itemChoice);
-            } catch (NumberFormatException e) {
-               itemChoiceInt = -1;
-               clearLine(1);
-            }
+      if (itemChoice.isEmpty()) {
+         clearLine(1);
+         return Choice.INVALID;
+      }
 
-            if (itemChoiceInt == 0) {
-               // User chose to go back
-               isValidChoice = false;
-            } else if (itemChoiceInt > 0 && itemChoiceInt <= backpackSize) {
-               // Valid item index
-               try {
-                  Items item = player.getBackpackItem(itemChoiceInt - 1);
-
-                  switch (item.getType()) {
-                     case 0 -> {
-                        // If player will over-heal from item, don't allow healing
-                        if (player.getHealth() + item.getValue() > 90) {
-                           clearLine(backpackSize + 3);
-                           print("You can't use the " + colour(YELLOW, item.getName()) + " yet.");
-                           lineBreak();
-                           lineBreak();
-                           useItem(player);
-                        } else {
-                           player.setHealth(player.getHealth() + item.getValue());
-                           print("You used the " + colour(YELLOW, item.getName()) + " and recovered " + colour(YELLOW, item.getValue() + " health") + ".");
-                           // Remove the item after using it
-                           player.removeBackpackItem(item);
-                        }
-                     }
-                     case 1 -> {
-                        weapon.setAmmo(weapon.getAmmo() + item.getValue());
-                        print("You used the " + colour(YELLOW, item.getName()) + " and added " + colour(YELLOW, item.getValue() + " ammo") + " to your " + colour(YELLOW, weapon.getName()) + ".");
-                        // Remove the item after using it
-                        player.removeBackpackItem(item);
-                     }
-                     case 2 -> {
-                        // Player can't use story related items during combat, but can use them outside of combat
-                        if (player.getIsFighting()) {
-                           print("You cannot use this item right now.");
-                           lineBreak();
-                           useItem(player);
-                           return;
-                        } else {
-                           print("The core seems to be glowing green, I probably shouldn't mess with it right now.");
-                        }
-                     }
-                     default -> {
-                        clearLine(1);
-                     }
-                  }
-                  lineBreak();
-
-                  isValidChoice = false;
-               } catch (IndexOutOfBoundsException e) {
-                  clearLine(1);
-               }
-            } else {
-               clearLine(1);
+      int itemChoiceInt = Input.parseInt(itemChoice, Integer.MIN_VALUE);
+
+      if (itemChoiceInt == Integer.MIN_VALUE) {
+         itemChoiceInt = -1;
+         clearLine(1);
+      }
+
+      if (itemChoiceInt == 0) {
+         // User chose to go back
+         return Choice.BACK;
+      } else if (itemChoiceInt < 0 || itemChoiceInt > player.getBackpackSlotCount() || player.getBackpackItem(itemChoiceInt - 1) == null) {
+         clearLine(1);
+         return Choice.INVALID;
+      }
+
+      // Valid item slot
+      Items item = player.getBackpackItem(itemChoiceInt - 1);
+
+      switch (item.getType()) {
+         case 0 -> {
+            // If player will over-heal from item, don't allow healing
+            if (player.getHealth() + item.getValue() > 90) {
+               Metrics.itemsRefused.increment(0);
+               clearLine(backpackSize + 3);
+               text("You can't use the ").colour(YELLOW, item.getName()).append(" yet.");
+               lineBreak();
+               lineBreak();
+               return Choice.RETRY_AFTER_HEAL;
             }
+            player.setHealth(player.getHealth() + item.getValue());
+            Metrics.itemsUsed.increment(0);
+            text("You used the ").colour(YELLOW, item.getName()).append(" and recovered ").colour(YELLOW, item.getValue(), " health").append('.');
+            // Remove the item after using it
+            player.removeBackpackItem(item);
+         }
+         case 1 -> {
+            weapon.setAmmo(weapon.getAmmo() + item.getValue());
+            Metrics.itemsUsed.increment(1);
+            text("You used the ").colour(YELLOW, item.getName()).append(" and added ").colour(YELLOW, item.getValue(), " ammo").append(" to your ").colour(YELLOW, weapon.getName()).append('.');
+            // Remove the item after using it
+            player.removeBackpackItem(item);
+         }
+         case 2 -> {
+            // Player can't use story related items during combat, but can use them outside of combat
+            if (player.getIsFighting()) {
+               Metrics.itemsRefused.increment(1);
+               print("You cannot use this item right now.");
+               lineBreak();
+               return Choice.RETRY;
+            }
+            Metrics.itemsUsed.increment(2);
+            print("The core seems to be glowing green, I probably shouldn't mess with it right now.");
+         }
+         default -> {
+            clearLine(1);
          }
       }
+      lineBreak();
+      return Choice.USED;
+   }
+
+   /**
+    * Writes the item to a saved game.
+    *
+    * @param out The saved game to write to
+    */
+   public void writeTo(SnapshotWriter out) {
+      out.writeString(name);
+      out.writeVarInt(value);
+      out.writeVarInt(weight);
+      out.writeVarInt(type);
+   }
+
+   /**
+    * Reads an item written by {@link #writeTo(SnapshotWriter)}.
+    *
+    * @param in The saved game to read from
+    * @return The item
+    */
+   public static Items readFrom(SnapshotReader in) {
+      return new Items(in.readString(), in.readVarInt(), in.readVarInt(), in.readVarInt(0, 2));
    }
 
    public String getName() {
@@ -0,0 +1,323 @@
+package utils;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code Journal} class records everything that happens in one session, every line the player typed and every random number drawn, so the session can be replayed exactly.
+ * Records are written to an in-memory ring buffer, which a {@link JournalWriter} thread writes to the session's file in the background, so recording never waits for the disk.
+ * If the ring buffer is ever full, the record is dropped instead of waiting, and a gap record is put where it would have been, before the next record that fits.
+ *
+ * <p>Most records are a single byte:
+ * <ul>
+ *    <li>{@code 0x00}: an empty line</li>
+ *    <li>{@code 0x01}-{@code 0x7F}: a line that is that one character, eg. a menu choice or a movement key</li>
+ *    <li>{@code 0x80}-{@code 0xBF}: a random number from 0 to 63</li>
+ *    <li>{@code 0xC0}-{@code 0xDF} and 1 more byte: a random number from 64 to 8191</li>
+ *    <li>{@code 0xE0} and a varint: a larger random number</li>
+ *    <li>{@code 0xE1} and 8 bytes: a random 64-bit number</li>
+ *    <li>{@code 0xF0}, the length as a varint and the UTF-8 bytes: any other line, eg. the player's name or an item slot above 9</li>
+ *    <li>{@code 0xF8}, 8 bytes, 3 varints and a string: the start of the session, with the state of the session's random number generator, then the settings it was played with:
+ *    the generated map's width and height (0 for the default map), the view size and the {@code -Dcatalog.file} it was played with, as the length as a varint and the UTF-8 bytes (empty for the default catalog)</li>
+ *    <li>{@code 0xFF} and a varint: the number of bytes that were dropped at this point</li>
+ * </ul>
+ * Varints here are unsigned, 7 bits per byte, and 8 byte numbers are big-endian.
+ */
+public final class Journal {
+
+   static final int EMPTY_LINE = 0x00;
+   static final int SMALL_DRAW = 0x80;
+   static final int MEDIUM_DRAW = 0xC0;
+   static final int LARGE_DRAW = 0xE0;
+   static final int LONG_DRAW = 0xE1;
+   static final int LINE = 0xF0;
+   static final int START = 0xF8;
+   static final int GAP = 0xFF;
+
+   private final JournalWriter writer;
+   private final String name;
+   private final byte[] ring;
+   private final int mask;
+
+   // Only the game writes head and the dropped bytes, and only the writer thread writes tail
+   private volatile long head; // Total bytes recorded
+   private volatile long tail; // Total bytes written to the file
+   private volatile long droppedBytes;
+   private volatile long unmarkedDroppedBytes; // Dropped since the last gap record was put in the ring buffer
+   private volatile boolean isClosed;
+
+   // Only used by the writer thread
+   FileChannel channel;
+
+   /**
+    * Constructs a new {@code Journal}, use {@link JournalWriter#open()} to create one.
+    *
+    * @param writer   The writer that writes the journal to its file
+    * @param name     The name of the journal's file
+    * @param capacity The size of the ring buffer, a power of 2
+    */
+   Journal(JournalWriter writer, String name, int capacity) {
+      this.writer = writer;
+      this.name = name;
+      this.ring = new byte[capacity];
+      this.mask = capacity - 1;
+   }
+
+   /**
+    * Records the start of a session played on the default map with the default view size.
+    *
+    * @param randomState The state of the session's random number generator before anything was drawn
+    */
+   public void recordStart(long randomState) {
+      recordStart(randomState, 0, 0, Navigation.VIEW_SIZE);
+   }
+
+   /**
+    * Records the start of a session and the settings it is played with, so a replay can play it with the same settings.
+    *
+    * @param randomState The state of the session's random number generator before anything was drawn
+    * @param mapWidth    The width of the generated map, or 0 for the default map
+    * @param mapHeight   The height of the generated map, or 0 for the default map
+    * @param viewSize    The number of columns and rows of the map shown around the player
+    */
+   public void recordStart(long randomState, int mapWidth, int mapHeight, int viewSize) {
+      byte[] catalogFile = System.getProperty("catalog.file", "").getBytes(StandardCharsets.UTF_8);
+      long at = reserve(9 + varIntSize(mapWidth) + varIntSize(mapHeight) + varIntSize(viewSize) + varIntSize(catalogFile.length) + catalogFile.length);
+      if (at >= 0) {
+         at = putLong(put(at, START), randomState);
+         at = putVarInt(putVarInt(putVarInt(at, mapWidth), mapHeight), viewSize);
+         at = putVarInt(at, catalogFile.length);
+         for (byte b : catalogFile) {
+            at = put(at, b);
+         }
+         publish(at);
+      }
+   }
+
+   /**
+    * Records a line the player typed.
+    *
+    * @param line The line, without the line break
+    */
+   public void recordLine(String line) {
+      if (line.isEmpty()) {
+         recordByte(EMPTY_LINE);
+      } else if (line.length() == 1 && line.charAt(0) < 0x80) {
+         recordByte(line.charAt(0));
+      } else {
+         byte[] text = line.getBytes(StandardCharsets.UTF_8);
+         long at = reserve(1 + varIntSize(text.length) + text.length);
+         if (at >= 0) {
+            at = putVarInt(put(at, LINE), text.length);
+            for (byte b : text) {
+               at = put(at, b);
+            }
+            publish(at);
+         }
+      }
+   }
+
+   /**
+    * Records a random number that was drawn.
+    *
+    * @param value The number, which is never negative
+    */
+   public void recordDraw(int value) {
+      if (value < 64) {
+         recordByte(SMALL_DRAW | value);
+      } else if (value < 8192) {
+         long at = reserve(2);
+         if (at >= 0) {
+            at = put(at, MEDIUM_DRAW | (value >>> 8));
+            publish(put(at, value));
+         }
+      } else {
+         long at = reserve(1 + varIntSize(value));
+         if (at >= 0) {
+            publish(putVarInt(put(at, LARGE_DRAW), value));
+         }
+      }
+   }
+
+   /**
+    * Records a random 64-bit number that was drawn.
+    *
+    * @param value The number
+    */
+   public void recordLong(long value) {
+      long at = reserve(9);
+      if (at >= 0) {
+         publish(putLong(put(at, LONG_DRAW), value));
+      }
+   }
+
+   /**
+    * Creates an input source that records every line read from another source.
+    *
+    * @param source The source to read from
+    * @return The recording source
+    */
+   public InputSource recording(InputSource source) {
+      return () -> {
+         String line = source.nextLine();
+         recordLine(line);
+         return line;
+      };
+   }
+
+   /**
+    * Closes the journal, the writer writes whatever is left and then closes the file.
+    */
+   public void close() {
+      isClosed = true;
+      writer.wake();
+   }
+
+   /**
+    * Gets the name of the journal's file.
+    *
+    * @return The file name
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * Gets the number of bytes that were dropped because the ring buffer was full.
+    *
+    * @return The number of bytes
+    */
+   public long getDroppedBytes() {
+      return droppedBytes;
+   }
+
+   /**
+    * Gets the number of bytes dropped after the last record that fit, which the writer marks at the end of the file once the journal is closed.
+    *
+    * @return The number of bytes
+    */
+   long getUnmarkedDroppedBytes() {
+      return unmarkedDroppedBytes;
+   }
+
+   public boolean getIsClosed() {
+      return isClosed;
+   }
+
+   /**
+    * Copies recorded bytes into a buffer, for the writer thread.
+    *
+    * @param buffer The buffer to copy into
+    * @return True if there was anything to copy
+    */
+   boolean drainTo(ByteBuffer buffer) {
+      long from = tail;
+      int count = (int) Math.min(head - from, buffer.remaining());
+      if (count == 0) {
+         return false;
+      }
+
+      int start = (int) from & mask;
+      int firstPart = Math.min(count, ring.length - start);
+      buffer.put(ring, start, firstPart);
+      buffer.put(ring, 0, count - firstPart);
+      tail = from + count;
+      return true;
+   }
+
+   /**
+    * Checks if there are recorded bytes that haven't been written yet, for the writer thread.
+    */
+   boolean hasUnwrittenBytes() {
+      return head != tail;
+   }
+
+   private void recordByte(int value) {
+      long at = reserve(1);
+      if (at >= 0) {
+         publish(put(at, value));
+      }
+   }
+
+   /**
+    * Checks that a record fits in the ring buffer, and first puts a gap record in if records were dropped just before it.
+    *
+    * @param size The size of the record
+    * @return Where to write the record, or -1 if it doesn't fit and has been dropped
+    */
+   private long reserve(int size) {
+      long at = head;
+      long gap = unmarkedDroppedBytes;
+      int gapSize = gap == 0 ? 0 : 1 + varLongSize(gap);
+      if (at + gapSize + size - tail > ring.length) {
+         droppedBytes += size;
+         unmarkedDroppedBytes = gap + size;
+         writer.wake();
+         return -1;
+      }
+      if (gap != 0) {
+         // The gap record is published along with the record after it
+         at = putVarLong(put(at, GAP), gap);
+         unmarkedDroppedBytes = 0;
+      }
+      return at;
+   }
+
+   private long put(long at, int value) {
+      ring[(int) at & mask] = (byte) value;
+      return at + 1;
+   }
+
+   private long putLong(long at, long value) {
+      for (int shift = 56; shift >= 0; shift -= 8) {
+         at = put(at, (int) (value >>> shift));
+      }
+      return at;
+   }
+
+   private long putVarInt(long at, int value) {
+      while ((value & ~0x7F) != 0) {
+         at = put(at, (value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      return put(at, value);
+   }
+
+   private long putVarLong(long at, long value) {
+      while ((value & ~0x7FL) != 0) {
+         at = put(at, (int) (value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      return put(at, (int) value);
+   }
+
+   private static int varLongSize(long value) {
+      int size = 1;
+      while ((value & ~0x7FL) != 0) {
+         value >>>= 7;
+         size++;
+      }
+      return size;
+   }
+
+   private static int varIntSize(int value) {
+      int size = 1;
+      while ((value & ~0x7F) != 0) {
+         value >>>= 7;
+         size++;
+      }
+      return size;
+   }
+
+   /**
+    * Makes a record visible to the writer thread, waking it early once the ring buffer is half full.
+    */
+   private void publish(long end) {
+      long half = ring.length / 2;
+      long previous = head;
+      head = end;
+      if (previous - tail < half && end - tail >= half) {
+         writer.wake();
+      }
+   }
+}
@@ -0,0 +1,211 @@
+package utils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@code JournalReader} class reads the records of a journal file written by a {@link JournalWriter}, see {@link Journal} for the encoding.
+ * A journal whose last record was cut off, eg. because the server crashed while writing it, is read up to the last complete record.
+ */
+public final class JournalReader {
+
+   /**
+    * The kinds of records in a journal.
+    */
+   public enum Type {
+      START, LINE, DRAW, GAP
+   }
+
+   private final byte[] bytes;
+   private int position;
+
+   private Type type;
+   private String line;
+   private long value;
+
+   // The settings of the last START record
+   private int mapWidth;
+   private int mapHeight;
+   private int viewSize = Navigation.VIEW_SIZE;
+   private String catalogFile = "";
+
+   /**
+    * Constructs a new {@code JournalReader} for the bytes of a journal file.
+    *
+    * @param bytes The journal file's bytes
+    * @throws IllegalArgumentException if the bytes aren't a journal
+    */
+   public JournalReader(byte[] bytes) {
+      byte[] header = JournalWriter.HEADER;
+      int versionAt = header.length - 1; // The header ends with the version
+      for (int i = 0; i < versionAt; i++) {
+         if (i >= bytes.length || bytes[i] != header[i]) {
+            throw new IllegalArgumentException("The file is not a journal");
+         }
+      }
+      if (versionAt >= bytes.length || bytes[versionAt] != header[versionAt]) {
+         throw new IllegalArgumentException("The journal is from another version of the game");
+      }
+      this.bytes = bytes;
+      this.position = header.length;
+   }
+
+   /**
+    * Reads a journal file.
+    *
+    * @param path The journal file
+    * @return The reader
+    * @throws IOException if the file can't be read
+    */
+   public static JournalReader open(Path path) throws IOException {
+      return new JournalReader(Files.readAllBytes(path));
+   }
+
+   /**
+    * Reads the next record.
+    *
+    * @return True if a record was read, false at the end of the journal
+    */
+   public boolean next() {
+      if (position >= bytes.length) {
+         return false;
+      }
+
+      int start = position;
+      int code = bytes[position++] & 0xFF;
+      line = null;
+      value = 0;
+
+      try {
+         if (code < 0x80) {
+            type = Type.LINE;
+            line = code == Journal.EMPTY_LINE ? "" : String.valueOf((char) code);
+         } else if (code < Journal.MEDIUM_DRAW) {
+            type = Type.DRAW;
+            value = code & 0x3F;
+         } else if (code < Journal.LARGE_DRAW) {
+            type = Type.DRAW;
+            value = (code & 0x1F) << 8 | readByte();
+         } else if (code == Journal.LARGE_DRAW) {
+            type = Type.DRAW;
+            value = readVarLong();
+         } else if (code == Journal.LONG_DRAW) {
+            type = Type.DRAW;
+            value = readLong();
+         } else if (code == Journal.LINE) {
+            int length = (int) readVarLong();
+            if (length > bytes.length - position) {
+               throw new IndexOutOfBoundsException();
+            }
+            type = Type.LINE;
+            line = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+         } else if (code == Journal.START) {
+            type = Type.START;
+            value = readLong();
+            mapWidth = (int) readVarLong();
+            mapHeight = (int) readVarLong();
+            viewSize = (int) readVarLong();
+            int length = (int) readVarLong();
+            if (length > bytes.length - position) {
+               throw new IndexOutOfBoundsException();
+            }
+            catalogFile = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+         } else if (code == Journal.GAP) {
+            type = Type.GAP;
+            value = readVarLong();
+         } else {
+            throw new IllegalArgumentException("The journal is corrupt, unknown record " + code + " at byte " + start);
+         }
+      } catch (IndexOutOfBoundsException e) {
+         // The last record was cut off
+         position = bytes.length;
+         return false;
+      }
+      return true;
+   }
+
+   public Type getType() {
+      return type;
+   }
+
+   /**
+    * Gets the line of a {@link Type#LINE} record.
+    *
+    * @return The line
+    */
+   public String getLine() {
+      return line;
+   }
+
+   /**
+    * Gets the number of a {@link Type#DRAW}, {@link Type#START} or {@link Type#GAP} record: the random number, the random number generator's state, or the number of bytes dropped.
+    *
+    * @return The number
+    */
+   public long getValue() {
+      return value;
+   }
+
+   /**
+    * Gets the width of the generated map the session of the last {@link Type#START} record was played on.
+    *
+    * @return The width, or 0 for the default map
+    */
+   public int getMapWidth() {
+      return mapWidth;
+   }
+
+   /**
+    * Gets the height of the generated map the session of the last {@link Type#START} record was played on.
+    *
+    * @return The height, or 0 for the default map
+    */
+   public int getMapHeight() {
+      return mapHeight;
+   }
+
+   /**
+    * Gets the view size the session of the last {@link Type#START} record was played with.
+    *
+    * @return The number of columns and rows of the map shown around the player
+    */
+   public int getViewSize() {
+      return viewSize;
+   }
+
+   /**
+    * Gets the {@code -Dcatalog.file} the session of the last {@link Type#START} record was played with.
+    *
+    * @return The catalog file, or an empty string for the default catalog
+    */
+   public String getCatalogFile() {
+      return catalogFile;
+   }
+
+   private int readByte() {
+      return bytes[position++] & 0xFF;
+   }
+
+   private long readLong() {
+      long result = 0;
+      for (int i = 0; i < 8; i++) {
+         result = result << 8 | readByte();
+      }
+      return result;
+   }
+
+   private long readVarLong() {
+      long result = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+         int b = readByte();
+         result |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return result;
+         }
+      }
+      throw new IllegalArgumentException("The journal is corrupt, a number is too long");
+   }
+}
@@ -0,0 +1,115 @@
+package utils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code JournalReplay} class plays a session recorded in a journal again: it is the input, giving back each line the player typed,
+ * and it checks every random number the game draws against the number drawn at the same point in the recording.
+ * If the game reads a line where the recording drew a number, or draws a different number, the replay is no longer the recorded game and stops with an {@link IllegalStateException}.
+ */
+public final class JournalReplay implements InputSource {
+
+   private final long randomState;
+   private final int mapWidth;
+   private final int mapHeight;
+   private final int viewSize;
+   private final String catalogFile;
+
+   // The records after the start in order: a line, or null for a draw with its number in draws
+   private final List<String> lines = new ArrayList<>();
+   private long[] draws = new long[256];
+   private int position;
+
+   /**
+    * Constructs a new {@code JournalReplay} from the first session in a journal.
+    *
+    * @param journal The journal to replay
+    * @throws IllegalArgumentException if the journal has no start record, or is truncated because records were dropped while it was recorded
+    */
+   public JournalReplay(JournalReader journal) {
+      if (!journal.next() || journal.getType() != JournalReader.Type.START) {
+         throw new IllegalArgumentException("The journal doesn't start with a session");
+      }
+      randomState = journal.getValue();
+      mapWidth = journal.getMapWidth();
+      mapHeight = journal.getMapHeight();
+      viewSize = journal.getViewSize();
+      catalogFile = journal.getCatalogFile();
+
+      while (journal.next()) {
+         switch (journal.getType()) {
+            case LINE -> lines.add(journal.getLine());
+            case DRAW -> {
+               // Lines take up records too, so the draws can be behind by more than one record
+               if (lines.size() >= draws.length) {
+                  long[] grown = new long[Math.max(draws.length * 2, lines.size() + 1)];
+                  System.arraycopy(draws, 0, grown, 0, draws.length);
+                  draws = grown;
+               }
+               draws[lines.size()] = journal.getValue();
+               lines.add(null);
+            }
+            case GAP -> throw new IllegalArgumentException("The journal is truncated: " + journal.getValue() + " bytes were dropped after record " + lines.size() + " while it was recorded, so it can't be replayed");
+            case START -> throw new IllegalArgumentException("The journal has more than one session");
+         }
+      }
+   }
+
+   /**
+    * Gets the next line the player typed in the recording.
+    *
+    * @return The line
+    * @throws NoSuchElementException if the recording has no more lines
+    * @throws IllegalStateException  if the recording drew a number here instead
+    */
+   @Override
+   public String nextLine() {
+      if (position == lines.size()) {
+         throw new NoSuchElementException("The replay is over");
+      }
+      if (lines.get(position) == null) {
+         throw mismatch("read a line");
+      }
+      return lines.get(position++);
+   }
+
+   /**
+    * Checks a random number the game drew against the recording, called by {@link GameRandom} for every number drawn.
+    *
+    * @param value The number drawn
+    * @throws IllegalStateException if the recording drew a different number here, or read a line instead
+    */
+   void checkDraw(long value) {
+      if (position == lines.size() || lines.get(position) != null || draws[position] != value) {
+         throw mismatch("drew " + value);
+      }
+      position++;
+   }
+
+   private IllegalStateException mismatch(String happened) {
+      String recorded = position == lines.size() ? "the journal has ended"
+            : lines.get(position) == null ? "the journal drew " + draws[position] : "the journal read the line \"" + lines.get(position) + "\"";
+      return new IllegalStateException("The replay no longer matches the journal at record " + (position + 1) + ": the game " + happened + ", but " + recorded);
+   }
+
+   public long getRandomState() {
+      return randomState;
+   }
+
+   public int getMapWidth() {
+      return mapWidth;
+   }
+
+   public int getMapHeight() {
+      return mapHeight;
+   }
+
+   public int getViewSize() {
+      return viewSize;
+   }
+
+   public String getCatalogFile() {
+      return catalogFile;
+   }
+}
@@ -0,0 +1,173 @@
+package utils;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code JournalWriter} class writes the {@link Journal} of every session to its own file in a directory, on a single background thread.
+ * Every 100 milliseconds, or sooner if a journal's buffer is half full, the thread copies what each journal has recorded into one buffer and writes it to the journal's file with a {@link FileChannel}.
+ * Each file starts with the 4 bytes "GJNL" and a version byte, followed by the journal's records, see {@link JournalReader} to read them back.
+ */
+public final class JournalWriter implements Closeable {
+
+   static final byte[] HEADER = {'G', 'J', 'N', 'L', 1};
+
+   private static final int JOURNAL_CAPACITY = 1 << 13; // Bytes each journal can hold before the writer catches up, enough for thousands of actions
+   private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+   private final Path directory;
+   private final String prefix; // Keeps the names of journals from different runs apart
+   private final AtomicLong journalCount = new AtomicLong();
+   private final Set<Journal> journals = ConcurrentHashMap.newKeySet();
+   private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+   private final Thread thread;
+   private volatile boolean isClosed;
+
+   /**
+    * Constructs a new {@code JournalWriter} and starts its background thread.
+    *
+    * @param directory The directory to write the journals to, it is created if it doesn't exist
+    * @throws IOException if the directory can't be created
+    */
+   public JournalWriter(Path directory) throws IOException {
+      this.directory = Files.createDirectories(directory);
+      this.prefix = Long.toString(System.currentTimeMillis(), 36);
+      this.thread = new Thread(this::run, "journal-writer");
+      thread.setDaemon(true);
+      thread.start();
+   }
+
+   /**
+    * Opens a new journal for a session, with its own file.
+    *
+    * @return The journal
+    */
+   public Journal open() {
+      Journal journal = new Journal(this, prefix + "-" + journalCount.incrementAndGet() + ".journal", JOURNAL_CAPACITY);
+      journals.add(journal);
+      return journal;
+   }
+
+   /**
+    * Gets the file a journal is written to.
+    *
+    * @param journal The journal
+    * @return The path of the journal's file
+    */
+   public Path getPath(Journal journal) {
+      return directory.resolve(journal.getName());
+   }
+
+   /**
+    * Writes everything that has been recorded, closes every journal and stops the background thread.
+    */
+   @Override
+   public void close() {
+      isClosed = true;
+      wake();
+      try {
+         thread.join();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * Wakes the background thread early, without waiting for it.
+    */
+   void wake() {
+      LockSupport.unpark(thread);
+   }
+
+   private void run() {
+      while (!isClosed) {
+         LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+         writeAll(false);
+      }
+      writeAll(true);
+   }
+
+   private void writeAll(boolean closeAll) {
+      for (Journal journal : journals) {
+         try {
+            write(journal, closeAll);
+         } catch (IOException e) {
+            // Stop journaling the session, the game itself carries on
+            System.err.println("Unable to write journal " + journal.getName() + ": " + e.getMessage());
+            journals.remove(journal);
+            closeChannel(journal);
+         }
+      }
+   }
+
+   /**
+    * Writes what a journal has recorded to its file, then closes the file if the journal is closed.
+    */
+   private void write(Journal journal, boolean close) throws IOException {
+      // Checked first, so that everything recorded before the journal was closed is written
+      boolean isClosed = close || journal.getIsClosed();
+      // Records dropped after the last one that fit are only marked once nothing more can be recorded after them
+      long trailingGap = isClosed ? journal.getUnmarkedDroppedBytes() : 0;
+
+      if (journal.hasUnwrittenBytes() || trailingGap != 0) {
+         if (journal.channel == null) {
+            journal.channel = FileChannel.open(getPath(journal), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            buffer.clear();
+            buffer.put(HEADER);
+            writeBuffer(journal.channel);
+         }
+
+         while (true) {
+            buffer.clear();
+            if (!journal.drainTo(buffer)) {
+               break;
+            }
+            writeBuffer(journal.channel);
+         }
+
+         // Mark the records dropped at the end, so a replay knows the journal is incomplete
+         if (trailingGap != 0) {
+            buffer.clear();
+            buffer.put((byte) Journal.GAP);
+            while ((trailingGap & ~0x7FL) != 0) {
+               buffer.put((byte) ((trailingGap & 0x7F) | 0x80));
+               trailingGap >>>= 7;
+            }
+            buffer.put((byte) trailingGap);
+            writeBuffer(journal.channel);
+         }
+      }
+
+      if (isClosed) {
+         journals.remove(journal);
+         closeChannel(journal);
+      }
+   }
+
+   private void writeBuffer(FileChannel channel) throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+   }
+
+   private static void closeChannel(Journal journal) {
+      if (journal.channel != null) {
+         try {
+            journal.channel.close();
+         } catch (IOException e) {
+            // Nothing more can be written to it anyway
+         }
+         journal.channel = null;
+      }
+   }
+}
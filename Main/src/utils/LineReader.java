@@ -0,0 +1,98 @@
+package utils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code LineReader} class reads lines from a stream, such as the console, a file or a socket.
+ * It reads the stream in large blocks and looks for line breaks itself, so it is much faster than a {@link java.util.Scanner} and doesn't use regular expressions.
+ * Both {@code \n} and {@code \r\n} line breaks are supported.
+ */
+public class LineReader implements InputSource {
+
+   private final InputStream in;
+   private final Charset charset;
+   private byte[] buffer = new byte[8192];
+   private int start; // Start of the unread bytes in the buffer
+   private int end; // End of the unread bytes in the buffer
+   private boolean isFinished;
+
+   /**
+    * Constructs a new {@code LineReader} that reads from a stream.
+    *
+    * @param in      The stream to read from
+    * @param charset The character set the stream's text is encoded in
+    */
+   public LineReader(InputStream in, Charset charset) {
+      this.in = in;
+      this.charset = charset;
+   }
+
+   @Override
+   public String nextLine() {
+      int scanned = 0; // Bytes after start that have already been checked for a line break, kept relative to start because fill() can move the bytes
+
+      while (true) {
+         // Look for a line break in the bytes that have already been read
+         for (int i = start + scanned; i < end; i++) {
+            if (buffer[i] == '\n') {
+               int lineEnd = i > start && buffer[i - 1] == '\r' ? i - 1 : i;
+               String line = new String(buffer, start, lineEnd - start, charset);
+               start = i + 1;
+               return line;
+            }
+         }
+         scanned = end - start;
+
+         if (!fill()) {
+            // The last line doesn't need a line break after it
+            if (start < end) {
+               String line = new String(buffer, start, end - start, charset);
+               start = end;
+               return line;
+            }
+            throw new NoSuchElementException("No line found");
+         }
+      }
+   }
+
+   /**
+    * Reads more bytes from the stream into the buffer, moving or growing the buffer if it is full.
+    *
+    * @return True if more bytes were read, false if the stream has ended
+    */
+   private boolean fill() {
+      if (isFinished) {
+         return false;
+      }
+
+      if (start == end) {
+         start = 0;
+         end = 0;
+      } else if (end == buffer.length) {
+         if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+         } else {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, end);
+            buffer = grown;
+         }
+      }
+
+      try {
+         int read = in.read(buffer, end, buffer.length - end);
+         if (read < 0) {
+            isFinished = true;
+            return false;
+         }
+         end += read;
+         return true;
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
@@ -0,0 +1,48 @@
+package utils;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code MemoryInputSource} class reads lines from text held in memory, such as a recorded list of commands.
+ * Lines are separated by {@code \n} or {@code \r\n}.
+ */
+public class MemoryInputSource implements InputSource {
+
+   private final String text;
+   private int position;
+
+   /**
+    * Constructs a new {@code MemoryInputSource} that reads from some text.
+    *
+    * @param text The lines of input, separated by line breaks
+    */
+   public MemoryInputSource(String text) {
+      this.text = text;
+   }
+
+   @Override
+   public String nextLine() {
+      if (position >= text.length()) {
+         throw new NoSuchElementException("No line found");
+      }
+
+      int lineBreak = text.indexOf('\n', position);
+      int next = lineBreak < 0 ? text.length() : lineBreak + 1;
+      int lineEnd = lineBreak < 0 ? text.length() : lineBreak;
+      if (lineEnd > position && text.charAt(lineEnd - 1) == '\r') {
+         lineEnd--;
+      }
+
+      String line = text.substring(position, lineEnd);
+      position = next;
+      return line;
+   }
+
+   /**
+    * Checks if there are any lines left to read.
+    *
+    * @return True if there is more input, otherwise false
+    */
+   public boolean hasNextLine() {
+      return position < text.length();
+   }
+}
@@ -0,0 +1,14 @@
+package utils;
+
+/**
+ * The {@code Metric} interface is implemented by everything in the {@link Metrics} registry, so the registry can write them all out.
+ */
+public interface Metric {
+
+   /**
+    * Writes the metric's current values in the text exposition format, including its {@code # HELP} and {@code # TYPE} lines.
+    *
+    * @param out Where to write the values
+    */
+   void writeTo(StringBuilder out);
+}
@@ -0,0 +1,167 @@
+package utils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code Metrics} class is the registry of everything the game counts and times while it is played, shared by every game in the program.
+ * The metrics can be written out in the Prometheus text exposition format, and written to a file every few seconds, eg. for a server.
+ * Passing {@code -Dmetrics.file=<file>} to any of the programs writes the file, {@code -Dmetrics.interval=<seconds>} changes how often, 10 seconds by default.
+ */
+public final class Metrics {
+
+   private static final List<Metric> registry = new CopyOnWriteArrayList<>();
+
+   // Enemy names are only looked up for the enemies that have been counted, since the catalog can have thousands
+   private static final int ENEMY_COUNT = EnemyType.count();
+
+   // Combat
+   public static final Counter encountersStarted = register(new Counter("game_encounters_started_total", "Encounters where the player ran into enemies."));
+   public static final Counter encountersAvoided = register(new Counter("game_encounters_avoided_total", "Encounter checks where the player didn't run into anything."));
+   public static final Counter enemiesFought = register(new Counter("game_enemies_fought_total", "Enemies the player started fighting.", "enemy", ENEMY_COUNT, Metrics::enemyName));
+   public static final Counter enemiesDefeated = register(new Counter("game_enemies_defeated_total", "Enemies the player defeated.", "enemy", ENEMY_COUNT, Metrics::enemyName));
+   public static final Counter playerAttacks = register(new Counter("game_player_attacks_total", "Attacks the player made.", "enemy", ENEMY_COUNT, Metrics::enemyName));
+   public static final Counter playerHits = register(new Counter("game_player_hits_total", "Attacks the player hit.", "enemy", ENEMY_COUNT, Metrics::enemyName));
+   public static final Counter damageDealt = register(new Counter("game_damage_dealt_total", "Damage the player dealt to enemies.", "enemy", ENEMY_COUNT, Metrics::enemyName));
+   public static final Counter damageTaken = register(new Counter("game_damage_taken_total", "Damage enemies dealt to the player.", "enemy", ENEMY_COUNT, Metrics::enemyName));
+   public static final Counter playerDeaths = register(new Counter("game_player_deaths_total", "Players defeated by an enemy.", "enemy", ENEMY_COUNT, Metrics::enemyName));
+   public static final Counter outOfAmmo = register(new Counter("game_out_of_ammo_total", "Attacks the player tried without ammo.", "reloaded", new String[] {"false", "true"}));
+   public static final Counter fleeAttempts = register(new Counter("game_flee_attempts_total", "Times the player tried to flee, including when it wasn't allowed."));
+   public static final Counter fleeSuccesses = register(new Counter("game_flee_successes_total", "Times the player fled successfully."));
+
+   // Items
+   public static final Counter itemsUsed = register(new Counter("game_items_used_total", "Items the player used.", "type", new String[] {"healing", "ammo", "story"}));
+   public static final Counter itemsRefused = register(new Counter("game_items_refused_total", "Items the player wasn't allowed to use.", "reason", new String[] {"overheal", "in_combat"}));
+
+   // Navigation
+   public static final Counter moves = register(new Counter("game_moves_total", "Moves the player chose.", "direction", new String[] {"up", "left", "down", "right", "stay", "invalid"}));
+   public static final Counter mapViews = register(new Counter("game_map_views_total", "Times the player viewed the combined map."));
+   public static final Counter chunksGenerated = register(new Counter("game_chunks_generated_total", "Chunks of generated maps created, including chunks created again after being dropped."));
+
+   // Searching, by what the location had before it was searched
+   public static final Counter searches = register(new Counter("game_searches_total", "Locations the player searched, by what was there.", "location",
+         new String[] {"empty", "item_chance", "nuclear_core", "npc", "searched_core", "searched"}));
+
+   // Commands, by the menu the line was typed in, in the same order as the states of a GameSession
+   public static final int NAME_MENU = 0;
+   public static final int NAME_CONFIRM_MENU = 1;
+   public static final int WEAPON_MENU = 2;
+   public static final int WEAPON_CONFIRM_MENU = 3;
+   public static final int ITEM_MENU = 4;
+   public static final int ITEM_CONFIRM_MENU = 5;
+   public static final int MAIN_MENU = 6;
+   public static final int MOVE_MENU = 7;
+   public static final int COMBAT_MENU = 8;
+   public static final int USE_ITEM_MENU = 9;
+   public static final int RESTART_MENU = 10;
+   public static final Histogram commandLatency = register(new Histogram("game_command_latency_seconds", "Time taken to handle a line the player typed.", "menu",
+         new String[] {"name", "name_confirm", "weapon", "weapon_confirm", "item", "item_confirm", "main_menu", "move", "combat", "use_item", "restart"}));
+
+   private Metrics() {
+   }
+
+   /**
+    * Adds a metric to the registry, so it is written out with the others.
+    *
+    * @param metric The metric, eg. a {@link Counter} or {@link Histogram}
+    * @return The metric
+    */
+   public static <T extends Metric> T register(T metric) {
+      registry.add(metric);
+      return metric;
+   }
+
+   private static String enemyName(int index) {
+      return EnemyType.get(index).getName();
+   }
+
+   /**
+    * Writes the current value of every metric in the text exposition format.
+    *
+    * @param out Where to write the values
+    */
+   public static void writeTo(StringBuilder out) {
+      for (Metric metric : registry) {
+         metric.writeTo(out);
+      }
+   }
+
+   /**
+    * Writes the current value of every metric to a file.
+    * The values are written to a temporary file first and then moved over the file, so a reader never sees half of them.
+    *
+    * @param file The file to write
+    * @throws IOException if the file can't be written
+    */
+   public static void writeTo(Path file) throws IOException {
+      StringBuilder out = new StringBuilder(8192);
+      writeTo(out);
+
+      Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+      Files.writeString(temporary, out, StandardCharsets.UTF_8);
+      try {
+         Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+         Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+   }
+
+   /**
+    * Writes the metrics to a file every few seconds on a background thread, and once more when the program exits.
+    *
+    * @param file            The file to write
+    * @param intervalSeconds How many seconds between writes
+    */
+   public static void startWriting(Path file, long intervalSeconds) {
+      ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+         Thread thread = new Thread(task, "metrics-writer");
+         thread.setDaemon(true);
+         return thread;
+      });
+      Runnable write = () -> {
+         try {
+            writeTo(file);
+         } catch (IOException e) {
+            // Metrics are only for watching the game, so a failed write is skipped and tried again next time
+         }
+      };
+
+      executor.scheduleAtFixedRate(write, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+      Runtime.getRuntime().addShutdownHook(new Thread(write, "metrics-writer-exit"));
+   }
+
+   /**
+    * Starts writing the metrics to the file in the {@code metrics.file} system property, if it is set.
+    */
+   public static void startWritingIfConfigured() {
+      String file = System.getProperty("metrics.file");
+      if (file != null && !file.isEmpty()) {
+         startWriting(Path.of(file), Long.getLong("metrics.interval", 10));
+      }
+   }
+
+   /**
+    * Adds a label to a metric line, escaping the value like the text exposition format needs.
+    */
+   static StringBuilder appendLabel(StringBuilder out, String name, String value) {
+      out.append(name).append("=\"");
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         switch (c) {
+            case '\\' -> out.append("\\\\");
+            case '"' -> out.append("\\\"");
+            case '\n' -> out.append("\\n");
+            default -> out.append(c);
+         }
+      }
+      return out.append('"');
+   }
+}
@@ -1,376 +1,404 @@
 package utils;
-import java.util.Scanner;
+import java.nio.charset.StandardCharsets;
 import static utils.Formatting.*;
 
 /**
- * The {@code Navigation} class handles the player's location throughout the game map in a 5x5 grid system.
- * Each tile corresponds to a location with a name, description, and other data such as if the player has already searched the location, if the location has a combat encounter, and if the location has items.
+ * The {@code Navigation} class handles the player's location throughout the game map, a grid of any size.
+ * Each tile corresponds to a location with a name and description from the {@link Catalog}, and other data such as if the player has already searched the location, if the location has a combat encounter, and if the location has items.
+ * The state of each game's map is stored in a {@link World}.
+ * Only a window of the map around the player is shown, {@link World#getViewSize()} columns and rows, so showing the map or moving takes the same time however big the map is.
+ * When the player moves, the map is redrawn in place and only the rows that changed are written again.
  */
 public class Navigation {
 
-   private static final Scanner sc = new Scanner(System.in);
-
-   // Player's current location and coordinates
-   private static int currentLocation = 00;
-   private static int playerX, playerY, characterLocationIndex;
-
-   // Location features variables
-   private static final boolean[] restedLocations = new boolean[25];
-   private static final int[] locationSearchIndex = new int[25];
-   private static final boolean[] locationHasCombat = new boolean[25];
-   private static final int[] possibleCombatEncounters = new int[25];
-
-   // Location names
-   private static final String[] locationNames = {
-      "Main Base",       "Main Base",       "River",      "Destroyed Lab",  "Destroyed Lab",
-      "Main Base",       "Forest",          "River",      "Burnt Forest",   "Burnt Forest",
-      "Forest",          "Forest",          "River",      "River",          "Abandoned Camp",
-      "Forest",          "Forest",          "Mountains",  "River",          "Mountains",
-      "Abandoned Camp",  "Abandoned Camp",  "Caves",      "Mountains",      "Mountains"
-   };
-
-   // Descriptions of the locations
-   private static final String[] locationDescriptions = {
-      "There might be some useful items here.",
-      "There might be some useful items here.",
-      "This rivers currents are too harsh, it's dangerous.",
-      "This is where the scientists were working, they must be around here.",
-      "This is where the scientists were working, they must be around here.",
-
-      "There might be some useful items here.",
-      "The forest is dense, and the trees are tall. There might be something lurking here.",
-      "This rivers currents are too harsh, it's dangerous.",
-      "Its all burnt down. There might be something lurking here.",
-      "Its all burnt down. There might be something lurking here.",
-
-      "It looks very dense. There might be something lurking here.",
-      "It looks very dense. There might be something lurking here.",
-      "This rivers currents are too harsh, it's dangerous.",
-      "This rivers currents are too harsh, it's dangerous.",
-      "It seems dangerous here, but it might have something useful.",
-
-      "It looks very dense. There might be something lurking here.",
-      "It looks very dense. There might be something lurking here.",
-      "The terrain is very rough. There might be something lurking here.",
-      "This rivers currents are too harsh, it's dangerous.",
-      "The terrain is very rough. There might be something lurking here.",
-
-      "It seems dangerous here, but it might have something useful.",
-      "It seems dangerous here, but it might have something useful.",
-      "Its dark and wet here. There might be something lurking here.",
-      "The terrain is very rough. There might be something lurking here.",
-      "The terrain is very rough. There might be something lurking here.",
-   };
+   /** The most columns and rows of the map that are shown at once, unless the world is given another size. */
+   public static final int VIEW_SIZE = 5;
 
+   // The lines printed after the map while the player chooses where to move, the movement options and the player's choice
+   private static final int MOVE_PROMPT_LINES = 2;
+
+   // The label of Metrics.moves that moves off the map and unknown directions are counted as
+   private static final int INVALID_MOVE_LABEL = 5;
+
+   // Rendered maps of the player's position in a default size view, cached as encoded text so printing a map is a single copy into the console buffer
+   // They only depend on where the player is in the view, so they are rendered once and shared by every game
+   private static final byte[][] mapFrames = new byte[VIEW_SIZE * VIEW_SIZE][];
+
+   static {
+      for (int position = 0; position < mapFrames.length; position++) {
+         mapFrames[position] = renderMap(null, 0, VIEW_SIZE, VIEW_SIZE, position % VIEW_SIZE, position / VIEW_SIZE, true, false);
+      }
+   }
 
    /**
-    * Handles player navigation by taking input directions and updating the player's location on a 5x5 grid map.
+    * Handles player navigation by taking input directions and updating the player's location on the grid map.
     * Prints the map, current location, and movement options to the console.
     * Triggers combat if the new location has a combat encounter.
     *
     * @param player The player that is navigating
+    * @param world  The world the player is navigating
     */
-   public static void navigate(Player player) {
-      boolean isValidChoice = true;
-
-      // Calculate the coordinates and relative index of the player's location
-      playerX = currentLocation % 5;
-      playerY = currentLocation / 5;
-      characterLocationIndex = playerY * 5 + playerX;
+   public static void navigate(Player player, World world) {
+      printMoveOptions(world);
 
-      // Print the current location and player options
-      print("You are currently in the " + colour(YELLOW, locationNames[characterLocationIndex]) + ", where do you want to go?");
-      lineBreak();
-
-      // Print the map
-      map();
-
-      // Print the player's movement options
-      print(BLUE, "'W' - Up, 'A' - Left, 'S' - Down, 'D' - Right, '0' - Go Back");
-      lineBreak();
-
-      while (isValidChoice) {
+      while (true) {
          // Get the player's movement direction
          print(GREEN, " > ");
-         String movementDirection = sc.nextLine().toUpperCase();
+         String movementDirection = Input.nextLine(Metrics.MOVE_MENU);
 
          if (movementDirection.isEmpty()) {
-               clearLine(1);
-         } else {
-            char movementDirectionChar = movementDirection.charAt(0);
-
-            // Move the player or take them back to the player options
-            switch (movementDirectionChar) {
-               case 'W' -> {
-                  if (playerY != 0) {
-                     currentLocation -= 5;
-                     isValidChoice = false;
-                  } else {
-                     clearLine(1);
-                     continue;
-                  }
-               }
-               case 'A' -> {
-                  if (playerX != 0) {
-                     currentLocation -= 1;
-                     isValidChoice = false;
-                  } else {
-                     clearLine(1);
-                     continue;
-                  }
-               }
-               case 'S' -> {
-                  if (playerY != 4) {
-                     currentLocation += 5;
-                     isValidChoice = false;
-                  } else {
-                     clearLine(1);
-                     continue;
-                  }
-               }
-               case 'D' -> {
-                  if (playerX != 4) {
-                     currentLocation += 1;
-                     isValidChoice = false;
-                  } else {
-                     clearLine(1);
-                     continue;
-                  }
-               }
-               case '0' -> {
-                  isValidChoice = false;
-               }
-               default -> {
-                  clearLine(1);
-                  continue;
-               }
-            }
-
-            // Calculate the new relative index of the player's location
-            playerX = currentLocation % 5;
-            playerY = currentLocation / 5;
-            characterLocationIndex = playerY * 5 + playerX;
-
-            // Remove the previous map and print the updated map
-            clearLine(14);
-            map();
-
-            // Print the player's new location
-            print("You are now in the " + colour(YELLOW, locationNames[characterLocationIndex]) + ". \"" + locationDescriptions[characterLocationIndex] + "\"");
-            lineBreak();
+            clearLine(1);
+         } else if (move(world, Input.firstChar(movementDirection))) {
+            printNewLocation(world);
 
             // Check if the location has combat
-            if (locationHasCombat[characterLocationIndex]) {
-               Combat.combat(player);
+            if (world.getLocationHasCombat()) {
+               Combat.combat(player, world);
             }
+            return;
+         } else {
+            clearLine(1);
          }
       }
    }
 
    /**
-    * Prints the 5x5 grid map to the console showing the player's current position, nearby locations on the map.
+    * Prints the player's current location, the map and the player's movement options.
+    *
+    * @param world The world the player is navigating
     */
-   public static void map() {
-      // Calculate player's current location
-      playerX = currentLocation % 5;
-      playerY = currentLocation / 5;
-
-      // Print the map
-      for (int y = 0; y < 5; y++) {
-         print("+---+---+---+---+---+");
-         lineBreak();
-         for (int x = 0; x < 5; x++) {
-            print("| ");
-            if (playerY == y && playerX == x) {
-               print(GREEN, "P "); // Player's current location
-            } else if ((playerY == y && (playerX == x - 1 || playerX == x + 1)) || (playerX == x && (playerY == y - 1 || playerY == y + 1))) {
-               print(YELLOW, "O "); // Travelable locations
-            } else {
-               print(RED, "- "); // Non-travelable locations
-            }
-         }
-         print("|");
-         lineBreak();
-      }
-      print("+---+---+---+---+---+");
+   public static void printMoveOptions(World world) {
+      // Print the map with the current location below it, as a frame so it can be redrawn in place after the move
+      StringBuilder frame = renderPlayerMap(world);
+      frame.append("You are currently in the ").append(colour(YELLOW, Catalog.get().getTerrainName(world.getTerrain()))).append(", where do you want to go?\n");
+      getRenderer().drawFrame(frame);
+
+      // Print the player's movement options
+      print(BLUE, "'W' - Up, 'A' - Left, 'S' - Down, 'D' - Right, '0' - Go Back");
       lineBreak();
    }
 
    /**
-    * Displays the map of the player's location and the map required for the objective of the game.
+    * Moves the player one location in a direction, without printing anything.
+    *
+    * @param world     The world the player is navigating
+    * @param direction The upper case direction, 'W', 'A', 'S' or 'D', or '0' to stay where they are
+    * @return True if the choice was valid, false if it was not a direction or would leave the map
     */
-   public static void viewCombinedMap() {
-      // Calculate player's current location
-      playerX = currentLocation % 5;
-      playerY = currentLocation / 5;
-
-      // Print the map
-      for (int y = 0; y < 5; y++) {
-         print("+---+---+---+---+---+               +---+---+---+---+---+");
-         lineBreak();
-         for (int x = 0; x < 5; x++) {
-            print("| ");
-            if (playerY == y && playerX == x) {
-               print(GREEN, "P "); // Player's current location
-            } else if ((playerY == y && (playerX == x - 1 || playerX == x + 1)) || (playerX == x && (playerY == y - 1 || playerY == y + 1))) {
-               print(YELLOW, "O "); // Travelable locations
-            } else {
-               print(RED, "- "); // Non-travelable locations
+   public static boolean move(World world, char direction) {
+      // Calculate the coordinates and relative index of the player's location
+      int playerX = world.getPlayerX();
+      int playerY = world.getPlayerY();
+      int characterLocationIndex = world.getCurrentLocation();
+
+      switch (direction) {
+         case 'W' -> {
+            if (playerY == 0) {
+               Metrics.moves.increment(INVALID_MOVE_LABEL);
+               return false;
             }
+            world.setCurrentLocation(characterLocationIndex - world.getWidth());
          }
-         print("|               ");
-         for (int x = 0; x < 5; x++) {
-            print("| ");
-            int locationIndex = y * 5 + x;
-            switch (locationSearchIndex[locationIndex]) {
-               case 2 -> {
-                  print(RED, "X "); // Unsearched story item locations
-               }
-               case 3 -> {
-                  print(BLUE, "X "); // NPC location
-               }
-               case 8 -> {
-                  print(GREEN, "X "); // Searched story item locations
-               }
-               default -> {
-                  print("  ");
-               }
+         case 'A' -> {
+            if (playerX == 0) {
+               Metrics.moves.increment(INVALID_MOVE_LABEL);
+               return false;
             }
+            world.setCurrentLocation(characterLocationIndex - 1);
+         }
+         case 'S' -> {
+            if (playerY == world.getHeight() - 1) {
+               Metrics.moves.increment(INVALID_MOVE_LABEL);
+               return false;
+            }
+            world.setCurrentLocation(characterLocationIndex + world.getWidth());
+         }
+         case 'D' -> {
+            if (playerX == world.getWidth() - 1) {
+               Metrics.moves.increment(INVALID_MOVE_LABEL);
+               return false;
+            }
+            world.setCurrentLocation(characterLocationIndex + 1);
+         }
+         case '0' -> {
+            // The player goes back without moving
+         }
+         default -> {
+            Metrics.moves.increment(INVALID_MOVE_LABEL);
+            return false;
          }
-         print("|");
-         lineBreak();
       }
-      print("+---+---+---+---+---+               +---+---+---+---+---+");
+      Metrics.moves.increment(moveLabel(direction));
+      return true;
+   }
+
+   /**
+    * Gets the index of a direction's label in {@link Metrics#moves}, staying where they are is the last direction.
+    */
+   private static int moveLabel(char direction) {
+      return switch (direction) {
+         case 'W' -> 0;
+         case 'A' -> 1;
+         case 'S' -> 2;
+         case 'D' -> 3;
+         default -> 4;
+      };
+   }
+
+   /**
+    * Replaces the map printed by {@link #printMoveOptions(World)} with the updated map and prints the player's new location.
+    * Only the rows of the map that changed are written again, and while the player is away from the edges the view scrolls with them, so no rows change at all.
+    *
+    * @param world The world the player is navigating
+    */
+   public static void printNewLocation(World world) {
+      Catalog catalog = Catalog.get();
+      int terrain = world.getTerrain();
+      StringBuilder frame = renderPlayerMap(world);
+      frame.append("You are now in the ").append(colour(YELLOW, catalog.getTerrainName(terrain))).append(". \"").append(catalog.getTerrainDescription(terrain)).append("\"\n");
+      getRenderer().redrawFrame(frame, MOVE_PROMPT_LINES);
+   }
+
+   /**
+    * Prints the map and the player's location.
+    *
+    * @param world The world the player is navigating
+    */
+   public static void printLocation(World world) {
+      Catalog catalog = Catalog.get();
+      int terrain = world.getTerrain();
+      map(world);
+
+      // Print the player's new location
+      text("You are now in the ").colour(YELLOW, catalog.getTerrainName(terrain)).append(". \"").append(catalog.getTerrainDescription(terrain)).append('"');
       lineBreak();
    }
 
    /**
-    * Displays the map required for the objective of the game.
+    * Travels along the safest shortest path to the nearest nuclear core or the scientist, see {@link Pathfinder}.
+    * Locations on the way can still have combat, and the player stops travelling if they have to fight.
+    *
+    * @param player The player that is travelling
+    * @param world  The world the player is travelling in
     */
-   public static void viewMissionMap() {
-      // Print the map for the mission
-      for (int y = 0; y < 5; y++) {
-         print("+---+---+---+---+---+");
-         lineBreak();
-         for (int x = 0; x < 5; x++) {
-            print("| ");
-            int index = y * 5 + x;
-            switch (locationSearchIndex[index]) {
-               case 2 -> {
-                  print(RED, "X "); // Unsearched story item locations
-               }
-               case 3 -> {
-                  print(BLUE, "X "); // NPC location
-               }
-               case 8 -> {
-                  print(GREEN, "X "); // Searched story item locations
-               }
-               default -> {
-                  print("  ");
-               }
+   public static void travel(Player player, World world) {
+      if (!startTravel(world)) {
+         return;
+      }
+      while (travelStep(world)) {
+         if (world.getLocationHasCombat()) {
+            printPassingThrough(world);
+            if (Combat.combat(player, world)) {
+               return;
             }
          }
-         print("|");
+      }
+      printLocation(world);
+   }
+
+   /**
+    * Prints where the player is travelling to.
+    *
+    * @param world The world the player is travelling in
+    * @return True if the player has somewhere to travel to, false if they are already there or there is nowhere left to go
+    */
+   public static boolean startTravel(World world) {
+      int target = world.getPathfinder().getNearestTarget(world.getCurrentLocation());
+      if (target < 0) {
+         print("There's nowhere left to travel to.");
+         lineBreak();
+         return false;
+      }
+
+      String targetName = world.getLocationSearchIndex(target) == 3 ? "scientist" : "nuclear core";
+      if (target == world.getCurrentLocation()) {
+         text("The nearest ").colour(YELLOW, targetName).append(" is right here, try searching the location.");
          lineBreak();
+         return false;
       }
-      print("+---+---+---+---+---+");
+      text("You set off towards the nearest ").colour(YELLOW, targetName).append('.');
       lineBreak();
+      return true;
    }
 
    /**
-    * Checks if the player is able to rest at the location.
+    * Moves the player one location closer to where they are travelling, without printing anything.
     *
-    * @return True if the player is able to rest at the location, otherwise false
+    * @param world The world the player is travelling in
+    * @return True if the player moved, false if they have arrived
     */
-   public static boolean getRestedLocations() {
-      return restedLocations[characterLocationIndex];
+   public static boolean travelStep(World world) {
+      int next = world.getPathfinder().nextStep(world.getCurrentLocation());
+      if (next < 0) {
+         return false;
+      }
+      world.setCurrentLocation(next);
+      return true;
    }
 
    /**
-    * Checks if the player has searched the location.
+    * Prints the location the player is travelling through, before checking it for combat.
     *
-    * @return The index of the location search
+    * @param world The world the player is travelling in
     */
-   public static int getLocationSearchIndex() {
-      return locationSearchIndex[characterLocationIndex];
+   public static void printPassingThrough(World world) {
+      text("You travel through the ").colour(YELLOW, Catalog.get().getTerrainName(world.getTerrain())).append('.');
+      lineBreak();
    }
 
    /**
-    * Checks the possible encounters the player can have at the location.
+    * Prints the map around the player's position to the console, showing the player and the locations they can move to.
     *
-    * @return The number of possible encounters
+    * @param world The world to print the map of
+    */
+   public static void map(World world) {
+      int viewSize = world.getViewSize();
+      int viewX = viewStart(world.getPlayerX(), world.getWidth(), viewSize);
+      int viewY = viewStart(world.getPlayerY(), world.getHeight(), viewSize);
+      int viewWidth = Math.min(viewSize, world.getWidth());
+      int viewHeight = Math.min(viewSize, world.getHeight());
+
+      if (viewWidth == VIEW_SIZE && viewHeight == VIEW_SIZE) {
+         // The map only depends on where the player is in the view, so it is already rendered
+         print(mapFrames[(world.getPlayerY() - viewY) * VIEW_SIZE + world.getPlayerX() - viewX]);
+      } else {
+         print(renderMap(null, 0, viewWidth, viewHeight, world.getPlayerX() - viewX, world.getPlayerY() - viewY, true, false));
+      }
+   }
+
+   /**
+    * Renders the map around the player's position as text, to be drawn as a frame.
     */
-   public static int getPossibleEncounters() {
-      return possibleCombatEncounters[characterLocationIndex];
+   private static StringBuilder renderPlayerMap(World world) {
+      int viewSize = world.getViewSize();
+      int viewX = viewStart(world.getPlayerX(), world.getWidth(), viewSize);
+      int viewY = viewStart(world.getPlayerY(), world.getHeight(), viewSize);
+      StringBuilder frame = new StringBuilder(2048);
+      appendMap(frame, null, 0, Math.min(viewSize, world.getWidth()), Math.min(viewSize, world.getHeight()), world.getPlayerX() - viewX, world.getPlayerY() - viewY, true, false);
+      return frame;
    }
 
    /**
-    * Updates the search index to indicate that it has already been searched.
+    * Displays the map of the player's location and the map required for the objective of the game.
     *
-    * @param setIndex The index to set the location search index to
+    * @param world The world to print the maps of
     */
-   public static void updateLocationSearchIndex(int setIndex) {
-      // Index of 8 for searched story items and 9 for searched normal items
-      locationSearchIndex[characterLocationIndex] = setIndex;
+   public static void viewCombinedMap(World world) {
+      Metrics.mapViews.increment();
+      int location = world.getCurrentLocation();
+      if (world.combinedMapLocation != location) {
+         int viewSize = world.getViewSize();
+         int viewX = viewStart(world.getPlayerX(), world.getWidth(), viewSize);
+         int viewY = viewStart(world.getPlayerY(), world.getHeight(), viewSize);
+         world.combinedMapFrame = renderMap(world, viewY * world.getWidth() + viewX, Math.min(viewSize, world.getWidth()), Math.min(viewSize, world.getHeight()),
+               world.getPlayerX() - viewX, world.getPlayerY() - viewY, true, true);
+         world.combinedMapLocation = location;
+      }
+      print(world.combinedMapFrame);
    }
 
    /**
-    * Updates the rested locations.
+    * Displays the map required for the objective of the game, around the player's position.
+    *
+    * @param world The world to print the mission map of
     */
-   public static void updateRestedLocations() {
-      restedLocations[characterLocationIndex] = false;
+   public static void viewMissionMap(World world) {
+      int viewSize = world.getViewSize();
+      int origin = viewStart(world.getPlayerY(), world.getHeight(), viewSize) * world.getWidth() + viewStart(world.getPlayerX(), world.getWidth(), viewSize);
+      if (world.missionMapOrigin != origin) {
+         world.missionMapFrame = renderMap(world, origin, Math.min(viewSize, world.getWidth()), Math.min(viewSize, world.getHeight()), 0, 0, false, true);
+         world.missionMapOrigin = origin;
+      }
+      print(world.missionMapFrame);
    }
 
    /**
-    * Updates the location fight status.
+    * Gets the first column or row of the view, keeping the player in the middle unless the view would go past the edge of the map.
+    *
+    * @param player   The player's column or row
+    * @param mapSize  The width or height of the map
+    * @param viewSize The most columns or rows shown
+    * @return The first column or row shown
     */
-   public static void updateLocationFightStatus() {
-      locationHasCombat[characterLocationIndex] = false;
+   private static int viewStart(int player, int mapSize, int viewSize) {
+      return Math.max(0, Math.min(player - viewSize / 2, mapSize - viewSize));
    }
 
    /**
-    * Resets variables associated to locations when the game restarts.
+    * Renders the player's map, the mission map, or both side by side, for a part of the map.
+    * The map only contains ASCII characters, so it is the same in any character set the console might use.
+    *
+    * @param world       The world to show the mission of, only needed if the mission map is shown
+    * @param origin      The location at the top left of the view, only needed if the mission map is shown
+    * @param viewWidth   The number of columns shown
+    * @param viewHeight  The number of rows shown
+    * @param playerX     The column of the player's position in the view
+    * @param playerY     The row of the player's position in the view
+    * @param showPlayer  Whether to include the map of the player's position
+    * @param showMission Whether to include the mission map
+    * @return The rendered map, ready to be printed
     */
-   public static void resetLocationVariables() {
-      currentLocation = 00;
-
-      // Temporary arrays for initialization
-      boolean[] tempRestedLocations = {
-         false, false, true,  false, false,
-         false, false, true,  false, false,
-         false, false, true,  true,  false,
-         false, false, false, true,  false,
-         false, false, false, false, false
-      };
+   private static byte[] renderMap(World world, int origin, int viewWidth, int viewHeight, int playerX, int playerY, boolean showPlayer, boolean showMission) {
+      StringBuilder frame = new StringBuilder(2048);
+      appendMap(frame, world, origin, viewWidth, viewHeight, playerX, playerY, showPlayer, showMission);
+      return frame.toString().getBytes(StandardCharsets.US_ASCII);
+   }
 
-      int[] tempLocationSearchIndex = {
-         2, 1, 0, 2, 3,
-         1, 0, 0, 2, 0,
-         2, 1, 0, 0, 2,
-         0, 0, 1, 2, 1,
-         2, 1, 2, 0, 2
-      };
+   /**
+    * Adds the maps to a frame, see {@link #renderMap(World, int, int, int, int, int, boolean, boolean)}.
+    */
+   private static void appendMap(StringBuilder frame, World world, int origin, int viewWidth, int viewHeight, int playerX, int playerY, boolean showPlayer, boolean showMission) {
+      for (int y = 0; y < viewHeight; y++) {
+         appendMapBorder(frame, viewWidth, showPlayer, showMission);
+
+         if (showPlayer) {
+            for (int x = 0; x < viewWidth; x++) {
+               frame.append("| ");
+               if (playerY == y && playerX == x) {
+                  frame.append(colour(GREEN, "P ")); // Player's current location
+               } else if ((playerY == y && (playerX == x - 1 || playerX == x + 1)) || (playerX == x && (playerY == y - 1 || playerY == y + 1))) {
+                  frame.append(colour(YELLOW, "O ")); // Travelable locations
+               } else {
+                  frame.append(colour(RED, "- ")); // Non-travelable locations
+               }
+            }
+            frame.append("|");
+         }
 
-      boolean[] tempLocationHasCombat = {
-         false, false, true, false, false,
-         false, true,  true, true,  true,
-         true,  true,  true, true,  true,
-         true,  true,  true, true,  true,
-         true,  true,  true, true,  true
-      };
+         if (showPlayer && showMission) {
+            frame.append("               ");
+         }
 
-      int[] tempPossibleCombatEncounters = {
-         0, 0, 3, 0, 0,
-         0, 1, 3, 1, 1,
-         1, 1, 3, 3, 2,
-         1, 1, 2, 2, 2,
-         1, 2, 2, 2, 2
-      };
+         if (showMission) {
+            for (int x = 0; x < viewWidth; x++) {
+               frame.append("| ");
+               switch (world.getLocationSearchIndex(origin + y * world.getWidth() + x)) {
+                  case 2 -> frame.append(colour(RED, "X ")); // Unsearched story item locations
+                  case 3 -> frame.append(colour(BLUE, "X ")); // NPC location
+                  case 8 -> frame.append(colour(GREEN, "X ")); // Searched story item locations
+                  default -> frame.append("  ");
+               }
+            }
+            frame.append("|");
+         }
+         frame.append('\n');
+      }
+      appendMapBorder(frame, viewWidth, showPlayer, showMission);
+   }
 
-      // Copy the temporary arrays to the actual arrays
-      System.arraycopy(tempRestedLocations, 0, restedLocations, 0, 25);
-      System.arraycopy(tempLocationSearchIndex, 0, locationSearchIndex, 0, 25);
-      System.arraycopy(tempLocationHasCombat, 0, locationHasCombat, 0, 25);
-      System.arraycopy(tempPossibleCombatEncounters, 0, possibleCombatEncounters, 0, 25);
+   /**
+    * Adds the border between rows of the maps.
+    */
+   private static void appendMapBorder(StringBuilder frame, int viewWidth, boolean showPlayer, boolean showMission) {
+      if (showPlayer) {
+         frame.append("+---".repeat(viewWidth)).append('+');
+      }
+      if (showPlayer && showMission) {
+         frame.append("               ");
+      }
+      if (showMission) {
+         frame.append("+---".repeat(viewWidth)).append('+');
+      }
+      frame.append('\n');
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,358 @@
+package utils;
+import java.util.Arrays;
+
+/**
+ * The {@code Pathfinder} class finds the shortest way from any location to the nearest mission target: a nuclear core that hasn't been found yet, or the scientist.
+ * It keeps a distance field, the cost of the cheapest path from every location to its nearest target, so finding the next step is a few array reads.
+ * Entering a location costs 1, and if combat weighting is on, locations where the player can be attacked cost 1 more for each enemy they can meet there, so paths go around danger when it is cheap to.
+ * When a location changes, eg. a core is found or a fight is over, only the part of the field that depended on it is calculated again.
+ *
+ * <p>The field covers the area around the targets, {@value #MARGIN} locations past the furthest target in each direction, so it stays small on maps of any size.
+ * Outside that area the path goes straight towards the area, first across then up or down, without going around danger, and its cost is what entering each location on the way costs.
+ */
+public final class Pathfinder {
+
+   static final int MARGIN = 32;
+   private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+   private final World world;
+   private final boolean isCombatWeighted;
+
+   // The area the field covers, in map coordinates
+   private final int areaX;
+   private final int areaY;
+   private final int areaWidth;
+   private final int areaHeight;
+
+   // Per location in the area, by its index in the area
+   private final int[] distances; // The cost of the cheapest path to a target
+   private final int[] nearestTargets; // The area index of the target that path leads to, or -1
+
+   // A binary heap of (distance << 32 | area index), reused for every update
+   private long[] heap = new long[64];
+   private int heapSize;
+
+   /**
+    * Constructs a new {@code Pathfinder} and calculates the distance field for the targets currently on the map.
+    *
+    * @param world            The world to find paths in
+    * @param isCombatWeighted Whether locations with possible encounters cost more to enter
+    */
+   public Pathfinder(World world, boolean isCombatWeighted) {
+      this.world = world;
+      this.isCombatWeighted = isCombatWeighted;
+
+      int[] targets = world.findTargets();
+      int minX = world.getWidth(), minY = world.getHeight(), maxX = 0, maxY = 0;
+      for (int target : targets) {
+         minX = Math.min(minX, target % world.getWidth());
+         minY = Math.min(minY, target / world.getWidth());
+         maxX = Math.max(maxX, target % world.getWidth());
+         maxY = Math.max(maxY, target / world.getWidth());
+      }
+      if (targets.length == 0) {
+         minX = minY = maxX = maxY = 0;
+      }
+
+      areaX = Math.max(0, minX - MARGIN);
+      areaY = Math.max(0, minY - MARGIN);
+      areaWidth = Math.min(world.getWidth() - 1, maxX + MARGIN) - areaX + 1;
+      areaHeight = Math.min(world.getHeight() - 1, maxY + MARGIN) - areaY + 1;
+      distances = new int[areaWidth * areaHeight];
+      nearestTargets = new int[distances.length];
+      calculate();
+   }
+
+   /**
+    * Calculates the whole field from the targets in the area.
+    */
+   private void calculate() {
+      Arrays.fill(distances, UNREACHABLE);
+      Arrays.fill(nearestTargets, -1);
+      for (int index = 0; index < distances.length; index++) {
+         if (World.isTarget(world.getTile(fromArea(index)))) {
+            distances[index] = 0;
+            nearestTargets[index] = index;
+            push(0, index);
+         }
+      }
+      propagate();
+   }
+
+   /**
+    * Gets the cost of the path {@link #nextStep(int)} follows from a location to the nearest target, which is the cheapest path from inside the area.
+    *
+    * @param location The index of the location
+    * @return The cost, or -1 if there are no targets left
+    */
+   public int getDistance(int location) {
+      int width = world.getWidth();
+      int x = location % width;
+      int y = location / width;
+      int nearestX = clamp(x, areaX, areaWidth);
+      int nearestY = clamp(y, areaY, areaHeight);
+
+      int distance = distances[(nearestY - areaY) * areaWidth + nearestX - areaX];
+      if (distance == UNREACHABLE) {
+         return -1;
+      }
+
+      // Outside the area, add the cost of the straight path to it, across then up or down like nextStep
+      while (x != nearestX) {
+         x += x < nearestX ? 1 : -1;
+         distance += cost(world.getTile(y * width + x));
+      }
+      while (y != nearestY) {
+         y += y < nearestY ? 1 : -1;
+         distance += cost(world.getTile(y * width + x));
+      }
+      return distance;
+   }
+
+   /**
+    * Gets the target the cheapest path from a location leads to.
+    *
+    * @param location The index of the location
+    * @return The index of the target's location, or -1 if there are no targets left
+    */
+   public int getNearestTarget(int location) {
+      int nearestX = clamp(location % world.getWidth(), areaX, areaWidth);
+      int nearestY = clamp(location / world.getWidth(), areaY, areaHeight);
+      int target = nearestTargets[(nearestY - areaY) * areaWidth + nearestX - areaX];
+      return target < 0 ? -1 : fromArea(target);
+   }
+
+   /**
+    * Gets the next location on the cheapest path from a location to the nearest target.
+    *
+    * @param location The index of the location
+    * @return The index of the next location, or -1 if the location is a target or there are no targets left
+    */
+   public int nextStep(int location) {
+      int width = world.getWidth();
+      int x = location % width;
+      int y = location / width;
+      if (getNearestTarget(location) < 0) {
+         return -1;
+      }
+
+      // Outside the area, head straight towards it
+      if (x < areaX) {
+         return location + 1;
+      } else if (x >= areaX + areaWidth) {
+         return location - 1;
+      } else if (y < areaY) {
+         return location + width;
+      } else if (y >= areaY + areaHeight) {
+         return location - width;
+      }
+
+      int index = toArea(location);
+      if (distances[index] == 0 || distances[index] == UNREACHABLE) {
+         return -1;
+      }
+
+      // Step to the neighbour the cheapest path continues from
+      int best = -1;
+      long bestDistance = Long.MAX_VALUE;
+      int areaIndexX = x - areaX;
+      int areaIndexY = y - areaY;
+      for (int direction = 0; direction < 4; direction++) {
+         int neighbourX = areaIndexX + (direction == 1 ? -1 : direction == 3 ? 1 : 0);
+         int neighbourY = areaIndexY + (direction == 0 ? -1 : direction == 2 ? 1 : 0);
+         if (neighbourX < 0 || neighbourY < 0 || neighbourX >= areaWidth || neighbourY >= areaHeight) {
+            continue;
+         }
+         int neighbour = neighbourY * areaWidth + neighbourX;
+         if (distances[neighbour] != UNREACHABLE) {
+            long distance = (long) distances[neighbour] + cost(neighbour);
+            if (distance < bestDistance) {
+               bestDistance = distance;
+               best = neighbour;
+            }
+         }
+      }
+      return best < 0 ? -1 : fromArea(best);
+   }
+
+   /**
+    * Updates the field after a location changed.
+    * A found target only affects the locations whose nearest target it was, and a location becoming cheaper only affects the locations around it.
+    *
+    * @param location The index of the location
+    * @param oldTile  The location's tile before the change
+    * @param newTile  The location's tile after the change
+    */
+   void tileChanged(int location, byte oldTile, byte newTile) {
+      int x = location % world.getWidth();
+      int y = location / world.getWidth();
+      if (x < areaX || y < areaY || x >= areaX + areaWidth || y >= areaY + areaHeight) {
+         return;
+      }
+      int index = toArea(location);
+      boolean wasTarget = World.isTarget(oldTile);
+      boolean isTarget = World.isTarget(newTile);
+      int oldCost = cost(oldTile);
+      int newCost = cost(newTile);
+
+      if (wasTarget && !isTarget) {
+         removeTarget(index);
+      } else if (!wasTarget && isTarget) {
+         distances[index] = 0;
+         nearestTargets[index] = index;
+         push(0, index);
+         propagate();
+      }
+
+      if (newCost < oldCost && distances[index] != UNREACHABLE) {
+         // Paths through the location are now cheaper, so its neighbours might be closer to a target
+         push(distances[index], index);
+         propagate();
+      } else if (newCost > oldCost) {
+         // Never happens in the game, locations only get safer, so the field is simply calculated again
+         calculate();
+      }
+   }
+
+   /**
+    * Removes a target, finding a new nearest target for the locations whose nearest target it was.
+    */
+   private void removeTarget(int target) {
+      // Every location leading to the target is connected to it, so they are found by a flood fill from it
+      int[] invalid = new int[16];
+      int invalidCount = 0;
+      invalid[invalidCount++] = target;
+      distances[target] = UNREACHABLE;
+      nearestTargets[target] = -1;
+
+      for (int i = 0; i < invalidCount; i++) {
+         int index = invalid[i];
+         for (int direction = 0; direction < 4; direction++) {
+            int neighbour = neighbour(index, direction);
+            if (neighbour >= 0 && nearestTargets[neighbour] == target) {
+               distances[neighbour] = UNREACHABLE;
+               nearestTargets[neighbour] = -1;
+               if (invalidCount == invalid.length) {
+                  invalid = Arrays.copyOf(invalid, invalidCount * 2);
+               }
+               invalid[invalidCount++] = neighbour;
+            }
+         }
+      }
+
+      // Start again from the edge of the invalidated locations, where the rest of the field is still correct
+      for (int i = 0; i < invalidCount; i++) {
+         int index = invalid[i];
+         for (int direction = 0; direction < 4; direction++) {
+            int neighbour = neighbour(index, direction);
+            if (neighbour >= 0 && distances[neighbour] != UNREACHABLE && nearestTargets[neighbour] != -1) {
+               int distance = distances[neighbour] + cost(neighbour);
+               if (distance < distances[index]) {
+                  distances[index] = distance;
+                  nearestTargets[index] = nearestTargets[neighbour];
+               }
+            }
+         }
+         if (distances[index] != UNREACHABLE) {
+            push(distances[index], index);
+         }
+      }
+      propagate();
+   }
+
+   /**
+    * Runs Dijkstra's algorithm from the locations in the heap, lowering the distance of every location a cheaper path is found for.
+    * Moving from a location into a neighbour costs the neighbour's cost, so the field is grown outwards from the targets.
+    */
+   private void propagate() {
+      while (heapSize > 0) {
+         long entry = pop();
+         int distance = (int) (entry >>> 32);
+         int index = (int) entry;
+         if (distance != distances[index]) {
+            continue; // Already reached more cheaply
+         }
+
+         int nextDistance = distance + cost(index);
+         for (int direction = 0; direction < 4; direction++) {
+            int neighbour = neighbour(index, direction);
+            if (neighbour >= 0 && nextDistance < distances[neighbour]) {
+               distances[neighbour] = nextDistance;
+               nearestTargets[neighbour] = nearestTargets[index];
+               push(nextDistance, neighbour);
+            }
+         }
+      }
+   }
+
+   /**
+    * Gets the area index of a neighbour, up, left, down or right, or -1 if it is outside the area.
+    */
+   private int neighbour(int index, int direction) {
+      int x = index % areaWidth;
+      return switch (direction) {
+         case 0 -> index >= areaWidth ? index - areaWidth : -1;
+         case 1 -> x > 0 ? index - 1 : -1;
+         case 2 -> index + areaWidth < distances.length ? index + areaWidth : -1;
+         default -> x < areaWidth - 1 ? index + 1 : -1;
+      };
+   }
+
+   /**
+    * Gets the cost of entering a location in the area.
+    */
+   private int cost(int index) {
+      return cost(world.getTile(fromArea(index)));
+   }
+
+   private int cost(byte tile) {
+      return isCombatWeighted ? 1 + World.getCombatCost(tile) : 1;
+   }
+
+   private int toArea(int location) {
+      return (location / world.getWidth() - areaY) * areaWidth + location % world.getWidth() - areaX;
+   }
+
+   private int fromArea(int index) {
+      return (areaY + index / areaWidth) * world.getWidth() + areaX + index % areaWidth;
+   }
+
+   private static int clamp(int value, int start, int size) {
+      return Math.max(start, Math.min(start + size - 1, value));
+   }
+
+   private void push(int distance, int index) {
+      if (heapSize == heap.length) {
+         heap = Arrays.copyOf(heap, heapSize * 2);
+      }
+      long entry = (long) distance << 32 | index;
+      int i = heapSize++;
+      while (i > 0 && heap[(i - 1) >> 1] > entry) {
+         heap[i] = heap[(i - 1) >> 1];
+         i = (i - 1) >> 1;
+      }
+      heap[i] = entry;
+   }
+
+   private long pop() {
+      long top = heap[0];
+      long last = heap[--heapSize];
+      int i = 0;
+      while (true) {
+         int child = 2 * i + 1;
+         if (child >= heapSize) {
+            break;
+         }
+         if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+            child++;
+         }
+         if (heap[child] >= last) {
+            break;
+         }
+         heap[i] = heap[child];
+         i = child;
+      }
+      heap[i] = last;
+      return top;
+   }
+}
@@ -1,6 +1,5 @@
 package utils;
 import java.util.ArrayList;
-import java.util.Random;
 import static utils.Formatting.*;
 
 /**
@@ -10,8 +9,10 @@ import static utils.Formatting.*;
  */
 public class Player {
 
-   private static final Random random = new Random();
+   private static final String NUCLEAR_CORE_NAME = "Nuclear Core No. ";
+   static final int NUCLEAR_CORE_COUNT = 9;
 
+   private final GameRandom random; // All of the randomness in this player's game comes from here, so the game can be replayed from its seed
    private String name;
    private int health;
    private Weapon weapon;
@@ -20,7 +21,9 @@ public class Player {
    private boolean isFighting;
    private boolean isGameEnding;
    private boolean isFirstNPCEncounter = true; // Used to check if the player has encountered the NPC for the first time
-   private final ArrayList<Items> backpack = new ArrayList<>(); // Use an arraylist to handle items being added and removed from the backpack
+   private int fleeCount; // The number of times the player has fled an encounter, fleeing gets harder each time
+   private final Backpack backpack = new Backpack(); // Handles items being added and removed from the backpack
+   private CombatEngine combatEngine; // Created on the first encounter and reused for the rest of the game
    private final ArrayList<Items> nuclearCores = new ArrayList<>(); // All available nuclear cores - created globally so that the player can that the collected cores can be removed from the array
 
    /**
@@ -30,13 +33,108 @@ public class Player {
     * @param isAlive Whether the player is alive or not
     */
    public Player(int health, boolean isAlive) {
+      this(health, isAlive, new GameRandom());
+   }
+
+   /**
+    * Constructs a new {@code Player} with health and alive status, whose game uses a specific random number generator.
+    *
+    * @param health The initial health of the player
+    * @param isAlive Whether the player is alive or not
+    * @param random The random number generator for the player's game
+    */
+   public Player(int health, boolean isAlive, GameRandom random) {
       this.health = health;
       this.isAlive = isAlive;
+      this.random = random;
 
       // Add 9 nuclear cores to the nuclearCores arraylist
-      for (int i = 0; i < 9; i++) {
-         nuclearCores.add(new Items("Nuclear Core No. " + (i + 1)));
+      for (int i = 0; i < NUCLEAR_CORE_COUNT; i++) {
+         nuclearCores.add(new Items(NUCLEAR_CORE_NAME + (i + 1)));
+      }
+   }
+
+   /**
+    * Writes the player, their random number generator and any encounter they are in to a saved game.
+    *
+    * @param out The saved game to write to
+    */
+   public void writeTo(SnapshotWriter out) {
+      out.writeLong(random.getState());
+      out.writeString(name);
+      out.writeVarInt(health);
+      out.writeBoolean(weapon != null);
+      if (weapon != null) {
+         weapon.writeTo(out);
+      }
+      out.writeVarInt(weight);
+      out.writeVarInt((isAlive ? 1 : 0) | (isFighting ? 2 : 0) | (isGameEnding ? 4 : 0) | (isFirstNPCEncounter ? 8 : 0));
+      out.writeVarInt(fleeCount);
+
+      // Every slot, so the items keep their slot numbers
+      out.writeVarInt(backpack.getSlotCount());
+      for (int i = 0; i < backpack.getSlotCount(); i++) {
+         Items item = backpack.get(i);
+         out.writeBoolean(item != null);
+         if (item != null) {
+            item.writeTo(out);
+         }
+      }
+
+      // The cores that haven't been found yet, one bit per core number
+      int remainingCores = 0;
+      for (Items core : nuclearCores) {
+         remainingCores |= 1 << (Integer.parseInt(core.getName().substring(NUCLEAR_CORE_NAME.length())) - 1);
+      }
+      out.writeVarInt(remainingCores);
+
+      boolean isInEncounter = combatEngine != null && !combatEngine.getIsEncounterOver();
+      out.writeBoolean(isInEncounter);
+      if (isInEncounter) {
+         combatEngine.writeTo(out);
+      }
+   }
+
+   /**
+    * Reads a player written by {@link #writeTo(SnapshotWriter)}.
+    *
+    * @param in The saved game to read from
+    * @return The player, with their random number generator continuing from where it was saved
+    */
+   public static Player readFrom(SnapshotReader in) {
+      Player player = new Player(0, false, new GameRandom(in.readLong()));
+      player.name = in.readString();
+      player.health = in.readVarInt();
+      if (in.readBoolean()) {
+         player.weapon = Weapon.readFrom(in);
+      }
+      player.weight = in.readVarInt();
+      int flags = in.readVarInt(0, 15);
+      player.isAlive = (flags & 1) != 0;
+      player.isFighting = (flags & 2) != 0;
+      player.isGameEnding = (flags & 4) != 0;
+      player.isFirstNPCEncounter = (flags & 8) != 0;
+      player.fleeCount = in.readVarInt();
+
+      int slotCount = in.readVarInt(0, in.getRemaining());
+      for (int i = 0; i < slotCount; i++) {
+         if (in.readBoolean()) {
+            player.backpack.put(i, Items.readFrom(in));
+         }
+      }
+
+      int remainingCores = in.readVarInt(0, (1 << NUCLEAR_CORE_COUNT) - 1);
+      player.nuclearCores.clear();
+      for (int i = 0; i < NUCLEAR_CORE_COUNT; i++) {
+         if ((remainingCores & (1 << i)) != 0) {
+            player.nuclearCores.add(new Items(NUCLEAR_CORE_NAME + (i + 1)));
+         }
       }
+
+      if (in.readBoolean()) {
+         player.getCombatEngine().readFrom(in);
+      }
+      return player;
    }
 
    /**
@@ -44,20 +142,36 @@ public class Player {
     * @return A formatted string listing the items in the backpack
     */
    public String displayBackpackContents() {
-      String backpackString = "";
-      for (Items item : backpack) {
-         backpackString += String.format(" - (%d) %s\n", backpack.indexOf(item) + 1, item.getName());
-      }
-      return backpackString;
+      return backpack.getListing();
    }
 
    /**
-    * Calculates the number of items in the player's backpack.
+    * Gets the number of items in the player's backpack.
     *
     * @return The number of items in the backpack
     */
    public int getBackpackSize() {
-      return displayBackpackContents().split("\n").length;
+      return backpack.size();
+   }
+
+   /**
+    * Counts the items of a type in the player's backpack.
+    *
+    * @param type The type of item, where 0 is healing, 1 is ammo, and 2 is story-related
+    * @return The number of items of the type
+    */
+   public int countBackpackItems(int type) {
+      return backpack.getTypeCount(type);
+   }
+
+   /**
+    * Gets the first item of a type in the player's backpack.
+    *
+    * @param type The type of item, where 0 is healing, 1 is ammo, and 2 is story-related
+    * @return The first item of the type, or null if the player has none
+    */
+   public Items getFirstBackpackItem(int type) {
+      return backpack.getFirst(type);
    }
 
    /**
@@ -79,15 +193,43 @@ public class Player {
    }
 
    /**
-    * Gets an item from the player's backpack by index.
+    * Gets the number of slots in the player's backpack, up to the last one with an item in it.
+    * Slots keep their numbers when an item is used, so some of them may be empty.
+    *
+    * @return The number of slots
+    */
+   public int getBackpackSlotCount() {
+      return backpack.getSlotCount();
+   }
+
+   /**
+    * Gets an item from the player's backpack by slot, where slot 1 is index 0.
     *
-    * @param index The index of the item to get
-    * @return The item at the specified index
+    * @param index The index of the slot
+    * @return The item in the slot, or null if the slot is empty
     */
    public Items getBackpackItem(int index) {
       return backpack.get(index);
    }
 
+   /**
+    * Gets an item of a type from the player's backpack, in the order the items of the type were added.
+    *
+    * @param type  The type of item, where 0 is healing, 1 is ammo, and 2 is story-related
+    * @param index The index of the item among the items of its type, where 0 is the first added
+    * @return The item
+    */
+   public Items getBackpackItemOfType(int type, int index) {
+      return backpack.getOfType(type, index);
+   }
+
+   /**
+    * Removes every item from the player's backpack.
+    */
+   public void clearBackpack() {
+      backpack.clear();
+   }
+
    /**
     * Gets an item from the player's backpack by name.
     *
@@ -95,7 +237,8 @@ public class Player {
     * @return The item with the specified name
     */
    public Items getBackpackItem(String name) {
-      for (Items item : backpack) {
+      for (int i = 0; i < backpack.size(); i++) {
+         Items item = backpack.get(i);
          if (item.getName().equals(name)) {
             return item;
          }
@@ -103,16 +246,31 @@ public class Player {
       return null;
    }
 
+   /**
+    * Gets the combat engine used for the player's encounters.
+    * The same engine is reused for every encounter so combat doesn't create new enemies each time.
+    *
+    * @return The player's combat engine
+    */
+   public CombatEngine getCombatEngine() {
+      if (combatEngine == null) {
+         combatEngine = new CombatEngine(this);
+      }
+      return combatEngine;
+   }
+
    /**
     * Allows the player to rest and recover health.
     * If the player has already rested in the same location, they cannot rest again.
+    *
+    * @param world The world the player is resting in
     */
-   public void rest() {
+   public void rest(World world) {
       if (this.health >= 90) {
          print("You can't rest, you are already at full health.");
       } else {
          // If player has rested in the same location, they can't rest again
-         if (Navigation.getRestedLocations()) {
+         if (world.getRestedLocations()) {
             print("You were unable to rest at this location again.");
          } else {
             boolean canRest = random.nextBoolean();
@@ -120,13 +278,13 @@ public class Player {
             if (canRest) {
                int healingAmount = random.nextInt(3) + 1; // Player can heal 1-3 hp
                this.setHealth(this.health + healingAmount);
-               print("You rested and were able to recover " + colour(YELLOW, healingAmount + " health") + ".");
+               text("You rested and were able to recover ").colour(YELLOW, healingAmount, " health").append('.');
             } else {
                print("You weren't able to rest properly, you didn't recover any health.");
             }
 
             // Sets restedLocation to false so player cannot rest again
-            Navigation.updateRestedLocations();
+            world.updateRestedLocations();
          }
       }
       lineBreak();
@@ -140,7 +298,7 @@ public class Player {
       lineBreak();
       print("You are carrying a " + this.weapon.getName() + " with " + this.weapon.getAmmo() + " ammo.");
       lineBreak();
-      if (this.displayBackpackContents().isEmpty()) {
+      if (backpack.isEmpty()) {
          print("You are carrying no items.");
       } else {
          print("You are carrying the following items: \n" + this.displayBackpackContents());
@@ -151,27 +309,28 @@ public class Player {
     * Searches the player's current location for items.
     * The player can search for items, nuclear cores, or the NPC.
     * If the player has already searched the location, they will not find anything.
+    *
+    * @param world The world the player is searching in
     */
-   public void search() {
-      switch (Navigation.getLocationSearchIndex()) {
+   public void search(World world) {
+      int searchIndex = world.getLocationSearchIndex();
+      if (searchIndex <= 3 || searchIndex == 8 || searchIndex == 9) {
+         Metrics.searches.increment(searchIndex <= 3 ? searchIndex : searchIndex - 4); // 8 and 9 are the last two labels
+      }
+
+      switch (searchIndex) {
          case 0 -> print("You looked around but couldn't find anything useful.");
          case 1 -> {
             int searchChance = random.nextInt(100);
             if (searchChance < 40) {
-               int itemIndex = random.nextInt(4); // 0-3 for 4 items
-               Items[] itemPool = {
-                  new Items("Bundle of Rotten Fruit", 4, 1, 0),
-                  new Items("Pack of Pain Killers", 8, 1, 0),
-                  new Items("Handful of Loose Ammo", 6, 1, 1),
-                  new Items("Used Magazine", 12, 1, 1),
-               };
-
-               Items randomItem = itemPool[itemIndex];
-               print("You found a " + colour(YELLOW, randomItem.getName()) + ". ");
+               // Pick one of the items that can be found from the catalog
+               Catalog catalog = Catalog.get();
+               Items randomItem = catalog.createLoot(random.nextInt(catalog.getLootCount()));
+               text("You found a ").colour(YELLOW, randomItem.getName()).append(". ");
                if (randomItem.getType() == 0) {
-                  print("It recovers " + colour(YELLOW, randomItem.getValue() + " health") + ".");
+                  text("It recovers ").colour(YELLOW, randomItem.getValue(), " health").append('.');
                } else {
-                  print("It gives you " + colour(YELLOW, randomItem.getValue() + " ammo") + ".");
+                  text("It gives you ").colour(YELLOW, randomItem.getValue(), " ammo").append('.');
                }
 
                // Add the new item to the backpack
@@ -180,49 +339,39 @@ public class Player {
                print("You weren't able to find anything useful");
             }
             // Set the location search variable to 9 so the same location can't be searched again
-            Navigation.updateLocationSearchIndex(9);
+            world.updateLocationSearchIndex(9);
          }
          case 2 -> {
             int totalNuclearCores = nuclearCores.size(); // Size of 9 at start
             int randomNuclearCore = random.nextInt(totalNuclearCores); // Random number from 0-8 (9 indexes)
-            print("You've found what looks to be a " + colour(YELLOW, "nuclear core") + ".");
-            Navigation.updateLocationSearchIndex(8); // Update to 8 so the player can't search this location again
+            text("You've found what looks to be a ").colour(YELLOW, "nuclear core").append('.');
+            world.updateLocationSearchIndex(8); // Update to 8 so the player can't search this location again
             this.addBackpackItem(nuclearCores.get(randomNuclearCore));
             nuclearCores.remove(randomNuclearCore);
          }
          case 3 -> {
             // If its the first encounter with the NPC, print the NPC's dialogue
             if (isFirstNPCEncounter) {
-               print(colour(BLUE, "Unknown Scientist") + ": \"" + colour(YELLOW, this.name) + ", you must be here to help us, right?\"");
+               text(BLUE, "Unknown Scientist").append(": \"").colour(YELLOW, this.name).append(", you must be here to help us, right?\"");
                lineBreak();
-               print(colour(BLUE, "Unknown Scientist") + ": \"We've been waiting for you. I'm Victor, my partners in another room unconcious.\"");
+               text(BLUE, "Unknown Scientist").append(": \"We've been waiting for you. I'm Victor, my partners in another room unconcious.\"");
                lineBreak();
-               print(colour(BLUE, "Victor") + ": \"I've been trying to get into the bunker, but we have no power and " + colour(YELLOW, "we're missing the nuclear cores to run the backup reactor") + ". We won't last much longer out here with all the radiation.\"");
+               text(BLUE, "Victor").append(": \"I've been trying to get into the bunker, but we have no power and ").colour(YELLOW, "we're missing the nuclear cores to run the backup reactor").append(". We won't last much longer out here with all the radiation.\"");
                lineBreak();
-               print(colour(BLUE, "Victor") + ": \"Have you found any of the nuclear cores by any chance?\"");
+               text(BLUE, "Victor").append(": \"Have you found any of the nuclear cores by any chance?\"");
                lineBreak();
                lineBreak();
                isFirstNPCEncounter = false;
             }
-            int nuclearCoreCount = 0;
-            int backpackSize = this.getBackpackSize();
-
-            for (int i = 0; i < backpackSize; i++) {
-               Items item = this.getBackpackItem(i);
-
-               // type 2 = story items
-               if (item.getType() == 2) {
-                  nuclearCoreCount++;
-               }
-            }
+            int nuclearCoreCount = this.countBackpackItems(2); // type 2 = story items
 
             // If the player doesn't have all 9 nuclear cores, tell them how many are missing
             if (nuclearCoreCount < 9) {
-               print(colour(BLUE, "Victor") + ": \"It seems like you still need to find " + (9 - nuclearCoreCount) + " nuclear cores.\"");
+               text(BLUE, "Victor").append(": \"It seems like you still need to find ").append(9 - nuclearCoreCount).append(" nuclear cores.\"");
             } else {
-               print(colour(BLUE, "Victor") + ": \"You did it! You got all 9 nuclear cores! Now I can run the backup reactor and open the bunker.\"");
+               text(BLUE, "Victor").append(": \"You did it! You got all 9 nuclear cores! Now I can run the backup reactor and open the bunker.\"");
                lineBreak();
-               print(colour(BLUE, "Victor") + ": \"Now we have access to the bunker, we can stay here until the reinforcements come in.\"");
+               text(BLUE, "Victor").append(": \"Now we have access to the bunker, we can stay here until the reinforcements come in.\"");
                this.setIsGameEnding(true);
             }
          }
@@ -245,16 +394,10 @@ public class Player {
 
    /**
     * Calculates the player's weight based on the weapon and items in the backpack.
+    * The backpack keeps its total weight up to date, so this doesn't depend on how many items the player is carrying.
     */
    public void calculateWeight() {
-      weight = 0;
-      weight = weight + weapon.getWeight();
-
-      for (Items items : backpack) {
-         weight = weight + items.getWeight();
-      }
-
-      setWeight(weight);
+      setWeight(weapon.getWeight() + backpack.getWeight());
    }
 
    public void setName(String name) {
@@ -285,6 +428,10 @@ public class Player {
       this.isGameEnding = isGameEnding;
    }
 
+   public void setFleeCount(int fleeCount) {
+      this.fleeCount = fleeCount;
+   }
+
    public String getName() {
       return name;
    }
@@ -312,4 +459,12 @@ public class Player {
    public boolean getIsGameEnding() {
       return isGameEnding;
    }
+
+   public int getFleeCount() {
+      return fleeCount;
+   }
+
+   public GameRandom getRandom() {
+      return random;
+   }
 }
\ No newline at end of file
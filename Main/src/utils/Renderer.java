@@ -0,0 +1,290 @@
+package utils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * The {@code Renderer} class collects text for the console into a buffer and writes it all at once when it is flushed.
+ * This means a whole screen, such as a map, reaches the terminal in a single write instead of one write per piece of text.
+ * Text that has already been encoded, such as a cached map, can be added as bytes so it is copied straight into the output.
+ * It can also redraw a frame of lines in place, only rewriting the lines that changed since the frame was last drawn.
+ * The last frame is kept in a {@link Frame}, which can be swapped with {@link #setFrame(Frame)} so one renderer can print for several players, eg. on the {@code SelectorServer}.
+ */
+public class Renderer {
+
+   private static final int AUTO_FLUSH_SIZE = 1 << 16; // Flush early if this many characters are waiting, so the buffer doesn't grow forever
+   private static final String CLEAR_LINE = "\r\033[2K";
+
+   private final OutputStream out;
+   private final StringBuilder buffer = new StringBuilder(1024);
+   private final CharsetEncoder encoder;
+   private ByteBuffer bytes = ByteBuffer.allocate(4096);
+
+   private Frame frame = new Frame(); // The last frame that was drawn
+
+   /**
+    * Constructs a new {@code Renderer} that writes to an output stream using the platform's character set.
+    *
+    * @param out The stream to write to
+    */
+   public Renderer(OutputStream out) {
+      this(out, Charset.defaultCharset());
+   }
+
+   /**
+    * Constructs a new {@code Renderer} that writes to an output stream using a character set.
+    *
+    * @param out     The stream to write to
+    * @param charset The character set used to encode the text
+    */
+   public Renderer(OutputStream out, Charset charset) {
+      this.out = out;
+      this.encoder = charset.newEncoder()
+         .onMalformedInput(CodingErrorAction.REPLACE)
+         .onUnmappableCharacter(CodingErrorAction.REPLACE);
+   }
+
+   /**
+    * Adds text to the buffer.
+    *
+    * @param text The text to add
+    * @return This renderer
+    */
+   public Renderer append(CharSequence text) {
+      buffer.append(text);
+      if (buffer.length() + bytes.position() >= AUTO_FLUSH_SIZE) {
+         flush();
+      }
+      return this;
+   }
+
+   /**
+    * Adds a character to the buffer.
+    *
+    * @param character The character to add
+    * @return This renderer
+    */
+   public Renderer append(char character) {
+      buffer.append(character);
+      return this;
+   }
+
+   /**
+    * Adds a number to the buffer.
+    *
+    * @param number The number to add
+    * @return This renderer
+    */
+   public Renderer append(int number) {
+      buffer.append(number);
+      return this;
+   }
+
+   /**
+    * Adds text in a colour, resetting the colour afterwards.
+    *
+    * @param colour The colour to apply to the text
+    * @param text   The text to add
+    * @return This renderer
+    */
+   public Renderer colour(String colour, CharSequence text) {
+      buffer.append(colour).append(text).append(Formatting.RESET);
+      return this;
+   }
+
+   /**
+    * Adds a number followed by some text in a colour, eg. {@code "12 damage"}, resetting the colour afterwards.
+    *
+    * @param colour The colour to apply
+    * @param number The number to add
+    * @param suffix The text to add after the number
+    * @return This renderer
+    */
+   public Renderer colour(String colour, int number, CharSequence suffix) {
+      buffer.append(colour).append(number).append(suffix).append(Formatting.RESET);
+      return this;
+   }
+
+   /**
+    * Adds text that has already been encoded in the renderer's character set.
+    *
+    * @param encoded The encoded text to add
+    * @return This renderer
+    */
+   public Renderer append(byte[] encoded) {
+      encodeBuffer();
+      while (bytes.remaining() < encoded.length) {
+         growBytes();
+      }
+      bytes.put(encoded);
+      return this;
+   }
+
+   /**
+    * Draws a frame of lines below the cursor and remembers it so it can be redrawn later.
+    * Every line of the frame, including the last, should end with a line break.
+    *
+    * @param frame The lines to draw
+    */
+   public void drawFrame(CharSequence frame) {
+      buffer.append(frame);
+      this.frame.lineCount = splitLines(frame);
+   }
+
+   /**
+    * Redraws the last frame in place, only rewriting the lines that are different in the new frame.
+    * Any lines printed after the last frame are cleared, and the cursor is left just below the new frame.
+    *
+    * @param frame      The new lines to draw, each ending with a line break
+    * @param linesAfter The number of lines that were printed after the last frame was drawn
+    */
+   public void redrawFrame(CharSequence frame, int linesAfter) {
+      String[] previous = this.frame.lines;
+      int previousCount = this.frame.lineCount;
+
+      // Swap in a new array so the previous lines can still be compared against
+      this.frame.lines = new String[Math.max(previous.length, 16)];
+      int count = splitLines(frame);
+      String[] lines = this.frame.lines;
+
+      int up = previousCount + linesAfter;
+      if (up > 0) {
+         buffer.append("\033[").append(up).append('A');
+      }
+
+      for (int i = 0; i < count; i++) {
+         if (i < previousCount && lines[i].equals(previous[i])) {
+            buffer.append('\n'); // Line hasn't changed, just move past it
+         } else {
+            buffer.append(CLEAR_LINE).append(lines[i]).append('\n');
+         }
+      }
+
+      // Clear whatever is left of the old frame and the lines printed after it
+      int leftover = up - count;
+      for (int i = 0; i < leftover; i++) {
+         buffer.append(CLEAR_LINE).append('\n');
+      }
+      if (leftover > 0) {
+         buffer.append("\033[").append(leftover).append('A');
+      }
+      this.frame.lineCount = count;
+   }
+
+   /**
+    * Splits a frame into lines and stores them as the current frame.
+    *
+    * @return The number of lines in the frame
+    */
+   private int splitLines(CharSequence frame) {
+      int count = 0;
+      int start = 0;
+      for (int i = 0; i < frame.length(); i++) {
+         if (frame.charAt(i) == '\n') {
+            if (count == this.frame.lines.length) {
+               String[] grown = new String[count * 2 + 1];
+               System.arraycopy(this.frame.lines, 0, grown, 0, count);
+               this.frame.lines = grown;
+            }
+            this.frame.lines[count++] = frame.subSequence(start, i).toString();
+            start = i + 1;
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Forgets the last frame, eg. after the screen has been cleared.
+    */
+   public void resetFrame() {
+      frame.lineCount = 0;
+   }
+
+   /**
+    * Gets the frame that is redrawn against, see {@link #setFrame(Frame)}.
+    *
+    * @return The frame
+    */
+   public Frame getFrame() {
+      return frame;
+   }
+
+   /**
+    * Changes the frame that is drawn and redrawn against, eg. to the frame of the player whose output is being printed.
+    *
+    * @param frame The frame, which this renderer updates as it draws
+    */
+   public void setFrame(Frame frame) {
+      this.frame = frame;
+   }
+
+   /**
+    * Doubles the size of the byte buffer when the encoded text doesn't fit.
+    */
+   private void growBytes() {
+      ByteBuffer grown = ByteBuffer.allocate(bytes.capacity() * 2);
+      bytes.flip();
+      grown.put(bytes);
+      bytes = grown;
+   }
+
+   /**
+    * Encodes the text in the buffer into the byte buffer.
+    */
+   private void encodeBuffer() {
+      if (buffer.length() == 0) {
+         return;
+      }
+
+      CharBuffer chars = CharBuffer.wrap(buffer);
+      encoder.reset();
+      while (encoder.encode(chars, bytes, true).isOverflow()) {
+         growBytes();
+      }
+      while (encoder.flush(bytes).isOverflow()) {
+         growBytes();
+      }
+      buffer.setLength(0);
+   }
+
+   /**
+    * Writes everything in the buffer to the output stream in a single write.
+    */
+   public void flush() {
+      encodeBuffer();
+      if (bytes.position() == 0) {
+         return;
+      }
+
+      try {
+         out.write(bytes.array(), 0, bytes.position());
+         out.flush();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      } finally {
+         bytes.clear();
+      }
+   }
+
+   /**
+    * Gets the character set the renderer encodes text with.
+    *
+    * @return The character set
+    */
+   public Charset getCharset() {
+      return encoder.charset();
+   }
+
+   /**
+    * The lines of the last frame a renderer drew, kept apart from the renderer so each player that shares a renderer is redrawn against what they last saw.
+    */
+   public static final class Frame {
+      private String[] lines = new String[0];
+      private int lineCount;
+   }
+}
@@ -0,0 +1,153 @@
+package utils;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code SnapshotReader} class reads a saved game written by a {@link SnapshotWriter}.
+ * Values must be read in the same order they were written, and reading past the end or a malformed value means the save is corrupt.
+ */
+public final class SnapshotReader {
+
+   private final byte[] bytes;
+   private int position;
+   private final int end;
+
+   /**
+    * Constructs a new {@code SnapshotReader} that reads a whole array of saved bytes.
+    *
+    * @param bytes The saved bytes
+    */
+   public SnapshotReader(byte[] bytes) {
+      this(bytes, 0, bytes.length);
+   }
+
+   /**
+    * Constructs a new {@code SnapshotReader} that reads part of an array of saved bytes.
+    *
+    * @param bytes  The array holding the saved bytes
+    * @param offset The index of the first saved byte
+    * @param length The number of saved bytes
+    */
+   public SnapshotReader(byte[] bytes, int offset, int length) {
+      this.bytes = bytes;
+      this.position = offset;
+      this.end = offset + length;
+   }
+
+   /**
+    * Reads a single byte.
+    *
+    * @return The byte, from 0 to 255
+    * @throws IllegalArgumentException if the save has ended
+    */
+   public int readByte() {
+      if (position >= end) {
+         throw new IllegalArgumentException("The save ended early");
+      }
+      return bytes[position++] & 0xFF;
+   }
+
+   /**
+    * Reads a true or false value.
+    *
+    * @return The value
+    * @throws IllegalArgumentException if the save has ended or the byte isn't a true or false value
+    */
+   public boolean readBoolean() {
+      int value = readByte();
+      if (value > 1) {
+         throw new IllegalArgumentException("The save is corrupt, expected a true or false value");
+      }
+      return value == 1;
+   }
+
+   /**
+    * Reads a zigzag encoded varint.
+    *
+    * @return The number
+    * @throws IllegalArgumentException if the save has ended or the varint is longer than 5 bytes
+    */
+   public int readVarInt() {
+      int zigzag = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+         int b = readByte();
+         zigzag |= (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+         }
+      }
+      throw new IllegalArgumentException("The save is corrupt, a number is too long");
+   }
+
+   /**
+    * Reads a varint that has to be between two numbers, eg. a location or an enemy type.
+    *
+    * @param min The smallest valid number
+    * @param max The largest valid number
+    * @return The number
+    * @throws IllegalArgumentException if the save has ended or the number is out of range
+    */
+   public int readVarInt(int min, int max) {
+      int value = readVarInt();
+      if (value < min || value > max) {
+         throw new IllegalArgumentException("The save is corrupt, " + value + " is not between " + min + " and " + max);
+      }
+      return value;
+   }
+
+   /**
+    * Reads a fixed 4 byte number.
+    *
+    * @return The number
+    * @throws IllegalArgumentException if the save has ended
+    */
+   public int readInt() {
+      return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+   }
+
+   /**
+    * Reads a fixed 8 byte number.
+    *
+    * @return The number
+    * @throws IllegalArgumentException if the save has ended
+    */
+   public long readLong() {
+      return (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+   }
+
+   /**
+    * Reads text written by {@link SnapshotWriter#writeString(String)}.
+    *
+    * @return The text, or null if null was written
+    * @throws IllegalArgumentException if the save has ended
+    */
+   public String readString() {
+      int length = readVarInt() - 1;
+      if (length < 0) {
+         return null;
+      }
+      if (length > end - position) {
+         throw new IllegalArgumentException("The save ended early");
+      }
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+   }
+
+   /**
+    * Checks if every saved byte has been read.
+    *
+    * @return True if there is nothing left to read, otherwise false
+    */
+   public boolean getIsFinished() {
+      return position == end;
+   }
+
+   /**
+    * Gets the number of saved bytes that haven't been read yet.
+    *
+    * @return The number of bytes left
+    */
+   public int getRemaining() {
+      return end - position;
+   }
+}
@@ -0,0 +1,128 @@
+package utils;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The {@code SnapshotWriter} class writes a saved game in a compact binary format.
+ * Numbers are written as varints, so small numbers such as health or ammo only take one or two bytes, and the random number generator's state is written as a fixed 8 bytes.
+ * Each class writes its own fields in a fixed order, see {@link GameSnapshot} for the format and {@link SnapshotReader} for reading it back.
+ */
+public final class SnapshotWriter {
+
+   private byte[] bytes;
+   private int length;
+
+   /**
+    * Constructs a new, empty {@code SnapshotWriter}.
+    */
+   public SnapshotWriter() {
+      bytes = new byte[256];
+   }
+
+   /**
+    * Writes a single byte.
+    *
+    * @param value The byte, only the lowest 8 bits are written
+    */
+   public void writeByte(int value) {
+      ensureCapacity(1);
+      bytes[length++] = (byte) value;
+   }
+
+   /**
+    * Writes a true or false value as a single byte.
+    *
+    * @param value The value
+    */
+   public void writeBoolean(boolean value) {
+      writeByte(value ? 1 : 0);
+   }
+
+   /**
+    * Writes a number as a varint, 7 bits per byte.
+    * The number is zigzag encoded first, so small negative numbers, eg. ammo after fleeing without any, are also short.
+    *
+    * @param value The number
+    */
+   public void writeVarInt(int value) {
+      ensureCapacity(5);
+      int zigzag = (value << 1) ^ (value >> 31);
+      while ((zigzag & ~0x7F) != 0) {
+         bytes[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+         zigzag >>>= 7;
+      }
+      bytes[length++] = (byte) zigzag;
+   }
+
+   /**
+    * Writes a number as a fixed 4 bytes, most significant byte first.
+    *
+    * @param value The number
+    */
+   public void writeInt(int value) {
+      ensureCapacity(4);
+      bytes[length++] = (byte) (value >>> 24);
+      bytes[length++] = (byte) (value >>> 16);
+      bytes[length++] = (byte) (value >>> 8);
+      bytes[length++] = (byte) value;
+   }
+
+   /**
+    * Writes a number as a fixed 8 bytes, most significant byte first.
+    *
+    * @param value The number
+    */
+   public void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+   }
+
+   /**
+    * Writes text as its UTF-8 length followed by its UTF-8 bytes.
+    * Null can also be written, so fields that haven't been set yet, such as the player's name, can be saved.
+    *
+    * @param value The text, or null
+    */
+   public void writeString(String value) {
+      if (value == null) {
+         writeVarInt(0);
+         return;
+      }
+      byte[] text = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(text.length + 1);
+      ensureCapacity(text.length);
+      System.arraycopy(text, 0, bytes, length, text.length);
+      length += text.length;
+   }
+
+   /**
+    * Gets the number of bytes written.
+    *
+    * @return The number of bytes
+    */
+   public int size() {
+      return length;
+   }
+
+   /**
+    * Removes everything written, so the writer can be reused for another save without allocating.
+    */
+   public void reset() {
+      length = 0;
+   }
+
+   /**
+    * Copies the bytes written so far.
+    *
+    * @return The saved bytes
+    */
+   public byte[] toByteArray() {
+      return Arrays.copyOf(bytes, length);
+   }
+
+   private void ensureCapacity(int count) {
+      if (length + count > bytes.length) {
+         bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+      }
+   }
+}
@@ -27,6 +27,29 @@ public class Weapon {
       this.range = range;
    }
 
+   /**
+    * Writes the weapon to a saved game.
+    *
+    * @param out The saved game to write to
+    */
+   public void writeTo(SnapshotWriter out) {
+      out.writeString(name);
+      out.writeVarInt(damage);
+      out.writeVarInt(ammo);
+      out.writeVarInt(weight);
+      out.writeVarInt(range);
+   }
+
+   /**
+    * Reads a weapon written by {@link #writeTo(SnapshotWriter)}.
+    *
+    * @param in The saved game to read from
+    * @return The weapon
+    */
+   public static Weapon readFrom(SnapshotReader in) {
+      return new Weapon(in.readString(), in.readVarInt(), in.readVarInt(), in.readVarInt(), in.readVarInt());
+   }
+
    public String getName() {
       return name;
    }
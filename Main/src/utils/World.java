@@ -0,0 +1,506 @@
+package utils;
+
+/**
+ * The {@code World} class holds the state of the game map for a single game: where the player is, and what has happened at each location.
+ * Each game has its own world, so many games can be played in the same program at once.
+ * The map is a grid of any width and height, 5x5 by default, where the location at column x and row y has the index {@code y * width + x}.
+ * Each location is stored in two bytes, its terrain and its {@link #tile(int, boolean, boolean, int) tile}, so even a 10,000x10,000 map fits in memory.
+ */
+public class World {
+
+   // The parts of a tile byte
+   private static final int SEARCH_INDEX_MASK = 0x0F;
+   private static final int CAN_REST = 0x10;
+   private static final int HAS_COMBAT = 0x20;
+   private static final int ENCOUNTERS_SHIFT = 6;
+
+   // The kinds of map a save can hold
+   static final int CUSTOM_MAP = 0;
+   static final int DEFAULT_MAP = 1;
+   static final int GENERATED_MAP = 2;
+
+   /** The most enemies a location can have in one encounter. */
+   public static final int MAX_ENCOUNTERS = 3;
+
+   // The default 5x5 map, the terrain is an index into Navigation's location names and descriptions
+   private static final int DEFAULT_SIZE = 5;
+   private static final byte[] DEFAULT_TERRAIN = {
+      0, 0, 1, 2, 2,
+      0, 3, 1, 4, 4,
+      5, 5, 1, 1, 6,
+      5, 5, 7, 1, 7,
+      6, 6, 8, 7, 7
+   };
+   private static final byte[] DEFAULT_TILES = new byte[DEFAULT_SIZE * DEFAULT_SIZE];
+
+   static {
+      boolean[] restedLocations = {
+         false, false, true,  false, false,
+         false, false, true,  false, false,
+         false, false, true,  true,  false,
+         false, false, false, true,  false,
+         false, false, false, false, false
+      };
+
+      int[] locationSearchIndex = {
+         2, 1, 0, 2, 3,
+         1, 0, 0, 2, 0,
+         2, 1, 0, 0, 2,
+         0, 0, 1, 2, 1,
+         2, 1, 2, 0, 2
+      };
+
+      boolean[] locationHasCombat = {
+         false, false, true, false, false,
+         false, true,  true, true,  true,
+         true,  true,  true, true,  true,
+         true,  true,  true, true,  true,
+         true,  true,  true, true,  true
+      };
+
+      int[] possibleCombatEncounters = {
+         0, 0, 3, 0, 0,
+         0, 1, 3, 1, 1,
+         1, 1, 3, 3, 2,
+         1, 1, 2, 2, 2,
+         1, 2, 2, 2, 2
+      };
+
+      for (int location = 0; location < DEFAULT_TILES.length; location++) {
+         DEFAULT_TILES[location] = tile(locationSearchIndex[location], restedLocations[location], locationHasCombat[location], possibleCombatEncounters[location]);
+      }
+   }
+
+   private final int width;
+   private final int height;
+   private final byte[] terrain; // Shared between worlds and never changed, null if a subclass stores the map
+   private final byte[] initialTiles; // Shared between worlds and never changed, copied when the game restarts
+   private final byte[] tiles;
+
+   // Player's current location
+   private int currentLocation;
+
+   private Pathfinder pathfinder; // Created the first time the player travels
+
+   private int viewSize = Navigation.VIEW_SIZE; // The most columns and rows of the map shown around the player
+
+   // Rendered maps that show the mission, cached by Navigation and cleared when the mission map changes
+   byte[] combinedMapFrame;
+   int combinedMapLocation = -1; // The player's location in the cached combined map
+   byte[] missionMapFrame;
+   int missionMapOrigin = -1; // The top left location of the cached mission map
+
+   /**
+    * Constructs a new {@code World} of the default 5x5 map, with every location set up for the start of a game.
+    */
+   public World() {
+      this(DEFAULT_SIZE, DEFAULT_SIZE, DEFAULT_TERRAIN, DEFAULT_TILES);
+   }
+
+   /**
+    * Constructs a new {@code World} of any size, with every location set up for the start of a game and the player in the top left corner.
+    * The arrays are kept rather than copied, so one map can be shared by many worlds, and must not be changed afterwards.
+    *
+    * @param width   The number of columns
+    * @param height  The number of rows
+    * @param terrain Each location's terrain, an index into the terrain in the {@link Catalog}
+    * @param tiles   Each location's state at the start of the game, see {@link #tile(int, boolean, boolean, int)}
+    * @throws IllegalArgumentException if the arrays don't have a value for every location
+    */
+   public World(int width, int height, byte[] terrain, byte[] tiles) {
+      checkSize(width, height);
+      if (terrain.length != width * height || tiles.length != width * height) {
+         throw new IllegalArgumentException("The map is " + width + "x" + height + " but has " + terrain.length + " terrain and " + tiles.length + " tiles");
+      }
+      this.width = width;
+      this.height = height;
+      this.terrain = terrain;
+      this.initialTiles = tiles;
+      this.tiles = new byte[tiles.length];
+      resetLocationVariables();
+   }
+
+   /**
+    * Constructs a new {@code World} for a subclass that stores the map's locations itself, by overriding {@link #getTile(int)}, {@link #setTile(int, byte)} and {@link #getTerrain(int)}.
+    *
+    * @param width  The number of columns
+    * @param height The number of rows
+    */
+   World(int width, int height) {
+      checkSize(width, height);
+      this.width = width;
+      this.height = height;
+      this.terrain = null;
+      this.initialTiles = null;
+      this.tiles = null;
+   }
+
+   private static void checkSize(int width, int height) {
+      if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE - 8) {
+         throw new IllegalArgumentException("A map can't be " + width + "x" + height);
+      }
+   }
+
+   /**
+    * Packs the state of a location into a tile byte.
+    *
+    * @param searchIndex        What can be found by searching, see {@link Player#search(World)}
+    * @param canRest            Whether the player can rest there
+    * @param hasCombat          Whether the player can be attacked there
+    * @param possibleEncounters The most enemies the player can meet there, from 0 to {@value #MAX_ENCOUNTERS}
+    * @return The tile
+    */
+   public static byte tile(int searchIndex, boolean canRest, boolean hasCombat, int possibleEncounters) {
+      if (searchIndex < 0 || searchIndex > SEARCH_INDEX_MASK || possibleEncounters < 0 || possibleEncounters > MAX_ENCOUNTERS) {
+         throw new IllegalArgumentException("A tile can't have search index " + searchIndex + " and " + possibleEncounters + " encounters");
+      }
+      return (byte) (searchIndex | (canRest ? CAN_REST : 0) | (hasCombat ? HAS_COMBAT : 0) | possibleEncounters << ENCOUNTERS_SHIFT);
+   }
+
+   public int getWidth() {
+      return width;
+   }
+
+   public int getHeight() {
+      return height;
+   }
+
+   /**
+    * Gets the number of locations on the map.
+    *
+    * @return The width times the height
+    */
+   public int getLocationCount() {
+      return width * height;
+   }
+
+   public int getViewSize() {
+      return viewSize;
+   }
+
+   /**
+    * Changes how much of the map is shown around the player, eg. 11 to show an 11x11 window.
+    *
+    * @param viewSize The most columns and rows shown, odd sizes keep the player in the middle
+    * @throws IllegalArgumentException if the size is less than 1
+    */
+   public void setViewSize(int viewSize) {
+      if (viewSize < 1) {
+         throw new IllegalArgumentException("The view must show at least one location, not " + viewSize);
+      }
+      this.viewSize = viewSize;
+      invalidateMissionMaps();
+   }
+
+   /**
+    * Gets the index of the player's current location.
+    *
+    * @return The index of the location
+    */
+   public int getCurrentLocation() {
+      return currentLocation;
+   }
+
+   /**
+    * Moves the player to a location.
+    *
+    * @param location The index of the location
+    */
+   public void setCurrentLocation(int location) {
+      currentLocation = location;
+   }
+
+   /**
+    * Gets the column of the player's current location.
+    *
+    * @return The column, from 0 to the width - 1
+    */
+   public int getPlayerX() {
+      return currentLocation % width;
+   }
+
+   /**
+    * Gets the row of the player's current location.
+    *
+    * @return The row, from 0 to the height - 1
+    */
+   public int getPlayerY() {
+      return currentLocation / width;
+   }
+
+   /**
+    * Gets the terrain of the player's current location.
+    *
+    * @return The index of the location's terrain in the {@link Catalog}
+    */
+   public int getTerrain() {
+      return getTerrain(currentLocation);
+   }
+
+   /**
+    * Gets the terrain of any location.
+    *
+    * @param location The index of the location
+    * @return The index of the location's terrain in the {@link Catalog}
+    */
+   public int getTerrain(int location) {
+      return terrain[location];
+   }
+
+   /**
+    * Gets the packed state of a location, see {@link #tile(int, boolean, boolean, int)}.
+    */
+   byte getTile(int location) {
+      return tiles[location];
+   }
+
+   /**
+    * Changes the packed state of a location.
+    */
+   void setTile(int location, byte tile) {
+      tiles[location] = tile;
+   }
+
+   /**
+    * Gets the pathfinder that finds the way to the nearest nuclear core or the scientist, weighted to avoid combat.
+    * It is created the first time it is needed and kept up to date as the map changes.
+    *
+    * @return The pathfinder
+    */
+   public Pathfinder getPathfinder() {
+      if (pathfinder == null) {
+         pathfinder = new Pathfinder(this, true);
+      }
+      return pathfinder;
+   }
+
+   /**
+    * Finds every location that is a mission target, a nuclear core that hasn't been found or the scientist.
+    *
+    * @return The indexes of the locations
+    */
+   int[] findTargets() {
+      int count = 0;
+      for (int location = 0; location < getLocationCount(); location++) {
+         if (isTarget(getTile(location))) {
+            count++;
+         }
+      }
+      int[] targets = new int[count];
+      count = 0;
+      for (int location = 0; location < getLocationCount(); location++) {
+         if (isTarget(getTile(location))) {
+            targets[count++] = location;
+         }
+      }
+      return targets;
+   }
+
+   /**
+    * Checks if a tile is a mission target, a nuclear core that hasn't been found or the scientist.
+    */
+   static boolean isTarget(byte tile) {
+      int searchIndex = tile & SEARCH_INDEX_MASK;
+      return searchIndex == 2 || searchIndex == 3;
+   }
+
+   /**
+    * Gets the most enemies the player can meet when entering a tile, 0 if they can't be attacked there.
+    */
+   static int getCombatCost(byte tile) {
+      return (tile & HAS_COMBAT) != 0 ? (tile & 0xFF) >>> ENCOUNTERS_SHIFT : 0;
+   }
+
+   /**
+    * Changes the tile at the player's location, keeping the pathfinder up to date.
+    */
+   private void changeTile(byte tile) {
+      byte oldTile = getTile(currentLocation);
+      setTile(currentLocation, tile);
+      if (pathfinder != null) {
+         pathfinder.tileChanged(currentLocation, oldTile, tile);
+      }
+   }
+
+   /**
+    * Checks if the player is able to rest at the location.
+    *
+    * @return True if the player is able to rest at the location, otherwise false
+    */
+   public boolean getRestedLocations() {
+      return (getTile(currentLocation) & CAN_REST) != 0;
+   }
+
+   /**
+    * Checks if the player has searched the location.
+    *
+    * @return The index of the location search
+    */
+   public int getLocationSearchIndex() {
+      return getTile(currentLocation) & SEARCH_INDEX_MASK;
+   }
+
+   /**
+    * Gets the search index of any location.
+    *
+    * @param location The index of the location
+    * @return The index of the location search
+    */
+   public int getLocationSearchIndex(int location) {
+      return getTile(location) & SEARCH_INDEX_MASK;
+   }
+
+   /**
+    * Checks if the player's current location has a combat encounter.
+    *
+    * @return True if the location has combat, otherwise false
+    */
+   public boolean getLocationHasCombat() {
+      return (getTile(currentLocation) & HAS_COMBAT) != 0;
+   }
+
+   /**
+    * Checks the possible encounters the player can have at the location.
+    *
+    * @return The number of possible encounters
+    */
+   public int getPossibleEncounters() {
+      return (getTile(currentLocation) & 0xFF) >>> ENCOUNTERS_SHIFT;
+   }
+
+   /**
+    * Updates the search index to indicate that it has already been searched.
+    *
+    * @param setIndex The index to set the location search index to
+    */
+   public void updateLocationSearchIndex(int setIndex) {
+      // Index of 8 for searched story items and 9 for searched normal items
+      changeTile((byte) (getTile(currentLocation) & ~SEARCH_INDEX_MASK | setIndex));
+      invalidateMissionMaps();
+   }
+
+   /**
+    * Updates the rested locations.
+    */
+   public void updateRestedLocations() {
+      changeTile((byte) (getTile(currentLocation) & ~CAN_REST));
+   }
+
+   /**
+    * Updates the location fight status.
+    */
+   public void updateLocationFightStatus() {
+      changeTile((byte) (getTile(currentLocation) & ~HAS_COMBAT));
+   }
+
+   /**
+    * Writes the world to a saved game: the size of the map, the player's location, the size of the view, then the kind of map and its locations.
+    * The default map is written as a byte per location for its tile, other maps also write their terrain and the tiles they start with, so a loaded game restarts on the same map.
+    *
+    * @param out The saved game to write to
+    */
+   public void writeTo(SnapshotWriter out) {
+      out.writeVarInt(width);
+      out.writeVarInt(height);
+      out.writeVarInt(currentLocation);
+      out.writeVarInt(viewSize);
+      writeMapTo(out);
+   }
+
+   /**
+    * Writes the kind of map and its locations to a saved game, see {@link #writeTo(SnapshotWriter)}.
+    */
+   void writeMapTo(SnapshotWriter out) {
+      boolean isDefaultMap = terrain == DEFAULT_TERRAIN;
+      out.writeByte(isDefaultMap ? DEFAULT_MAP : CUSTOM_MAP);
+      if (!isDefaultMap) {
+         for (byte location : terrain) {
+            out.writeByte(location);
+         }
+         for (byte tile : initialTiles) {
+            out.writeByte(tile);
+         }
+      }
+      for (byte tile : tiles) {
+         out.writeByte(tile);
+      }
+   }
+
+   /**
+    * Reads a world written by {@link #writeTo(SnapshotWriter)}.
+    *
+    * @param in The saved game to read from
+    * @return The world
+    */
+   public static World readFrom(SnapshotReader in) {
+      int width = in.readVarInt(1, Integer.MAX_VALUE);
+      int height = in.readVarInt(1, Integer.MAX_VALUE / width);
+      int currentLocation = in.readVarInt(0, width * height - 1);
+      int viewSize = in.readVarInt(1, Integer.MAX_VALUE);
+      int kind = in.readByte();
+
+      World world;
+      if (kind == GENERATED_MAP) {
+         world = ChunkedWorld.readMapFrom(in, width, height);
+         world.currentLocation = currentLocation;
+         world.viewSize = viewSize;
+         return world;
+      }
+      if (kind > GENERATED_MAP || width * height > in.getRemaining()) {
+         throw new IllegalArgumentException("The save is corrupt or has ended, it is missing locations of the " + width + "x" + height + " map");
+      }
+
+      if (kind == DEFAULT_MAP) {
+         if (width != DEFAULT_SIZE || height != DEFAULT_SIZE) {
+            throw new IllegalArgumentException("The save is corrupt, the default map can't be " + width + "x" + height);
+         }
+         world = new World();
+      } else {
+         byte[] terrain = readBytes(in, width * height);
+         byte[] initialTiles = readBytes(in, terrain.length);
+         byte[] tiles = readBytes(in, terrain.length);
+         return loaded(new World(width, height, terrain, initialTiles), tiles, currentLocation, viewSize);
+      }
+      return loaded(world, readBytes(in, world.tiles.length), currentLocation, viewSize);
+   }
+
+   private static byte[] readBytes(SnapshotReader in, int length) {
+      byte[] bytes = new byte[length];
+      for (int i = 0; i < length; i++) {
+         bytes[i] = (byte) in.readByte();
+      }
+      return bytes;
+   }
+
+   /**
+    * Puts a loaded world in the state it was saved in, from the tiles and player's location in the save.
+    */
+   private static World loaded(World world, byte[] tiles, int currentLocation, int viewSize) {
+      System.arraycopy(tiles, 0, world.tiles, 0, tiles.length);
+      world.currentLocation = currentLocation;
+      world.viewSize = viewSize;
+      return world;
+   }
+
+   /**
+    * Clears the cached maps that show the mission, so they are rendered again with the latest search progress.
+    */
+   private void invalidateMissionMaps() {
+      combinedMapFrame = null;
+      combinedMapLocation = -1;
+      missionMapFrame = null;
+      missionMapOrigin = -1;
+   }
+
+   /**
+    * Resets variables associated to locations when the game restarts.
+    */
+   public void resetLocationVariables() {
+      currentLocation = 0;
+      pathfinder = null;
+      if (tiles != null) {
+         System.arraycopy(initialTiles, 0, tiles, 0, tiles.length);
+      }
+      invalidateMissionMaps();
+   }
+}
@@ -0,0 +1,9 @@
+#!/bin/sh
+# Compiles the game and the tests, then runs them, exiting with status 1 if any fail.
+# Usage: test/run.sh [filter]
+set -e
+cd "$(dirname "$0")/.."
+rm -rf test/out
+javac -d test/out $(find src test/src -name '*.java')
+java -cp test/out utils.CatalogCompiler content/catalog.txt test/out/catalog.bin
+java -cp test/out Tests "$@"
@@ -0,0 +1,59 @@
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import utils.*;
+import static utils.Test.*;
+
+/**
+ * The {@code GameSessionTest} class checks that sessions sharing a renderer, as they do on the {@code SelectorServer}, print the same as they would on their own.
+ */
+public class GameSessionTest {
+
+   // The lines that take a new session to the main menu
+   private static final String[] NEW_GAME = {"Golden", "Y", "1", "Y", "1", "Y", "2", "Y"};
+
+   /**
+    * Plays a session on a renderer shared with another session, which moves in between, and checks it prints exactly what the same session prints on its own renderer.
+    * Each session's map must be redrawn against what that player last saw, not what the other player last saw.
+    */
+   public static void sharedRenderer() {
+      ByteArrayOutputStream sharedOutput = new ByteArrayOutputStream();
+      ByteArrayOutputStream ownOutput = new ByteArrayOutputStream();
+      Renderer shared = new Renderer(sharedOutput);
+      Renderer own = new Renderer(ownOutput);
+      GameSession player = new GameSession(new GameRandom(5428));
+      GameSession other = new GameSession(new GameRandom(1));
+      GameSession alone = new GameSession(new GameRandom(5428));
+
+      other.start(shared);
+      for (String line : NEW_GAME) {
+         other.handleLine(line, shared);
+      }
+      play(player, alone, shared, sharedOutput, own, ownOutput, null);
+      for (String line : NEW_GAME) {
+         play(player, alone, shared, sharedOutput, own, ownOutput, line);
+      }
+
+      // The player opens the move menu, then the other player moves, then the player moves
+      play(player, alone, shared, sharedOutput, own, ownOutput, "2");
+      other.handleLine("2", shared);
+      other.handleLine("D", shared);
+      play(player, alone, shared, sharedOutput, own, ownOutput, "D");
+   }
+
+   /**
+    * Plays a line in the session on the shared renderer and in the same session on its own renderer, which must print the same.
+    * A null line starts the sessions instead.
+    */
+   private static void play(GameSession player, GameSession alone, Renderer shared, ByteArrayOutputStream sharedOutput, Renderer own, ByteArrayOutputStream ownOutput, String line) {
+      sharedOutput.reset();
+      ownOutput.reset();
+      if (line == null) {
+         player.start(shared);
+         alone.start(own);
+      } else {
+         player.handleLine(line, shared);
+         alone.handleLine(line, own);
+      }
+      check(Arrays.equals(ownOutput.toByteArray(), sharedOutput.toByteArray()), "After \"" + line + "\", the session printed something else on the shared renderer:\n" + sharedOutput + "\ninstead of:\n" + ownOutput);
+   }
+}
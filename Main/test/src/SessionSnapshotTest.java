@@ -0,0 +1,56 @@
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import utils.*;
+import static utils.Test.*;
+
+/**
+ * The {@code SessionSnapshotTest} class checks that saving and loading a {@link GameSession} part way through doesn't change the game.
+ */
+public class SessionSnapshotTest {
+
+   // The lines typed into the sessions, a mix of menu choices and invalid input
+   private static final String[] LINES = {"1", "2", "3", "4", "5", "6", "7", "W", "A", "S", "D", "0", "Y", "N", "", "x", "99", "5428"};
+
+   /**
+    * Plays the same random input through two sessions with the same seed, saving, loading and resuming one of them every so often.
+    * Both must print exactly the same game, and a loaded session must save to the same bytes it was loaded from.
+    */
+   public static void roundTripSessions() {
+      for (int seed = 0; seed < 100; seed++) {
+         Random random = new Random(seed);
+         List<String> lines = new ArrayList<>(List.of("Golden", "Y", "" + (1 + random.nextInt(3)), "Y", "" + (1 + random.nextInt(3)), "Y", "" + (1 + random.nextInt(3)), "Y"));
+         for (int i = 0; i < 400; i++) {
+            lines.add(LINES[random.nextInt(LINES.length)]);
+         }
+
+         ByteArrayOutputStream playedOutput = new ByteArrayOutputStream();
+         ByteArrayOutputStream savedOutput = new ByteArrayOutputStream();
+         Renderer playedRenderer = new Renderer(playedOutput);
+         Renderer savedRenderer = new Renderer(savedOutput);
+         GameSession played = new GameSession(new GameRandom(seed));
+         GameSession saved = new GameSession(new GameRandom(seed));
+         played.start(playedRenderer);
+         saved.start(savedRenderer);
+
+         for (String line : lines) {
+            if (random.nextInt(20) == 0) {
+               byte[] bytes = saved.save();
+               saved = GameSession.load(bytes);
+               check(Arrays.equals(bytes, saved.save()), "Seed " + seed + ": a loaded session saves to different bytes");
+               // A loaded session is resumed, which forgets the map the player last saw, so the other session is resumed too to print the same
+               saved.resume(savedRenderer);
+               played.resume(playedRenderer);
+            }
+            boolean isPlaying = played.handleLine(line, playedRenderer);
+            boolean isSavedPlaying = saved.handleLine(line, savedRenderer);
+            if (!isPlaying || !isSavedPlaying) {
+               break;
+            }
+         }
+         check(Arrays.equals(playedOutput.toByteArray(), savedOutput.toByteArray()), "Seed " + seed + ": the loaded session played differently");
+      }
+   }
+}
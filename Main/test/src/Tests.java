@@ -0,0 +1,45 @@
+import utils.*;
+
+/**
+ * The {@code Tests} class lists the tests for the game and runs them, exiting with status 1 if any fail.
+ * Pass a name filter as the first argument to only run matching tests, eg. {@code snapshot}.
+ */
+public class Tests {
+
+   public static void main(String[] args) {
+      String filter = args.length > 0 ? args[0].toLowerCase() : "";
+
+      // Snapshots - saving and loading games
+      run("snapshot.roundTrip.defaultMap", filter, SnapshotTest::roundTripDefaultMap);
+      run("snapshot.roundTrip.customMap", filter, SnapshotTest::roundTripCustomMap);
+      run("snapshot.roundTrip.generatedMap", filter, SnapshotTest::roundTripGeneratedMap);
+      run("snapshot.roundTrip.sessions", filter, SessionSnapshotTest::roundTripSessions);
+
+      // Backpack - items keep their slot numbers
+      run("backpack.stableSlots", filter, BackpackTest::stableSlots);
+      run("backpack.slotsAreSaved", filter, BackpackTest::slotsAreSaved);
+
+      // Sessions - several sessions printing through one renderer
+      run("session.sharedRenderer", filter, GameSessionTest::sharedRenderer);
+
+      // Combat - the exact solver against sampled fights, and the batch against the engine
+      run("combat.solver.fight", filter, CombatSolverTest::fight);
+      run("combat.solver.flee", filter, CombatSolverTest::flee);
+      run("combat.solver.outOfAmmo", filter, CombatSolverTest::outOfAmmo);
+      run("combat.batch.matchesEngine", filter, CombatBatchTest::matchesEngine);
+
+      // Navigation - the pathfinder's distance field as the map changes
+      run("navigation.pathfinder.matchesFullRecalculation", filter, PathfinderTest::matchesFullRecalculation);
+
+      System.out.println(Test.getPassed() + " passed, " + Test.getFailed() + " failed");
+      if (Test.getFailed() > 0) {
+         System.exit(1);
+      }
+   }
+
+   private static void run(String name, String filter, Runnable body) {
+      if (name.toLowerCase().contains(filter)) {
+         Test.run(name, body);
+      }
+   }
+}
@@ -0,0 +1,66 @@
+package utils;
+import static utils.Test.*;
+
+/**
+ * The {@code BackpackTest} class checks that items keep their slot numbers in a {@link Backpack} while other items are used, added and saved.
+ */
+public final class BackpackTest {
+
+   private BackpackTest() {
+   }
+
+   /**
+    * Uses items from the middle and end of a backpack and checks the other items keep their slots, then checks new items fill the lowest empty slot.
+    */
+   public static void stableSlots() {
+      Backpack backpack = new Backpack();
+      Items bandage = new Items("Bandage", 20, 1, 0);
+      Items ammoBox = new Items("Ammo Box", 6, 2, 1);
+      Items firstAid = new Items("First Aid Kit", 40, 3, 0);
+      Items core = new Items("Nuclear Core 1", 0, 0, 2);
+      backpack.add(bandage);
+      backpack.add(ammoBox);
+      backpack.add(firstAid);
+      backpack.add(core);
+
+      backpack.remove(ammoBox);
+      checkEquals(3, backpack.size(), "The number of items");
+      checkEquals(4, backpack.getSlotCount(), "The number of slots");
+      checkEquals(null, backpack.get(1), "The used item's slot");
+      checkEquals(firstAid, backpack.get(2), "The item after the used item");
+      checkEquals(" - (1) Bandage\n - (3) First Aid Kit\n - (4) Nuclear Core 1\n", backpack.getListing(), "The listing");
+
+      // The last slot is dropped rather than left empty
+      backpack.remove(3);
+      checkEquals(3, backpack.getSlotCount(), "The number of slots after using the last item");
+
+      Items newAmmo = new Items("Ammo Box", 6, 2, 1);
+      backpack.add(newAmmo);
+      checkEquals(newAmmo, backpack.get(1), "The item added to the empty slot");
+      backpack.add(core);
+      checkEquals(core, backpack.get(3), "The item added once there are no empty slots");
+      checkEquals(4, backpack.size(), "The number of items after adding");
+      checkEquals(1 + 2 + 3 + 0, backpack.getWeight(), "The weight");
+      checkEquals(bandage, backpack.getFirst(0), "The first healing item");
+      checkEquals(firstAid, backpack.getOfType(0, 1), "The second healing item");
+   }
+
+   /**
+    * Saves and loads a player whose backpack has an empty slot, and checks every item is loaded into the same slot.
+    */
+   public static void slotsAreSaved() {
+      Player player = new Player(100, true, new GameRandom(5428));
+      player.setName("Golden");
+      player.addBackpackItem(new Items("Bandage", 20, 1, 0));
+      Items ammoBox = new Items("Ammo Box", 6, 2, 1);
+      player.addBackpackItem(ammoBox);
+      player.addBackpackItem(new Items("First Aid Kit", 40, 3, 0));
+      player.removeBackpackItem(ammoBox);
+
+      Player loaded = GameSnapshot.load(GameSnapshot.save(player, new World())).getPlayer();
+      checkEquals(3, loaded.getBackpackSlotCount(), "The number of slots");
+      checkEquals(null, loaded.getBackpackItem(1), "The empty slot");
+      checkEquals("First Aid Kit", loaded.getBackpackItem(2).getName(), "The item after the empty slot");
+      checkEquals(player.displayBackpackContents(), loaded.displayBackpackContents(), "The listing");
+   }
+}
@@ -0,0 +1,84 @@
+package utils;
+import static utils.Test.*;
+
+/**
+ * The {@code CombatBatchTest} class checks that {@link CombatBatch} plays fights exactly like {@link CombatEngine} does with the same random state.
+ */
+public final class CombatBatchTest {
+
+   private static final int LANES = 10_000;
+
+   private CombatBatchTest() {
+   }
+
+   /**
+    * Plays the same fights through a batch and through an engine per fight with every weapon, a turn at a time,
+    * and checks every lane matches its engine after every turn: the outcome, the player's health, ammo and ammo items, the enemy's health and the random state.
+    * The fights start with little ammo, so players also reload and run out of ammo.
+    */
+   public static void matchesEngine() {
+      Catalog catalog = Catalog.get();
+      Items ammoItem = catalog.createStartingItem(1);
+      GameRandom seeds = new GameRandom(5428);
+      long reloads = 0;
+      long defeatsWithoutAmmo = 0;
+
+      for (int weaponIndex = 0; weaponIndex < catalog.getWeaponCount(); weaponIndex++) {
+         // The last lane is never started, so it must be left alone
+         CombatBatch batch = new CombatBatch(LANES + 1, catalog.createWeapon(weaponIndex), ammoItem.getValue());
+         Player[] players = new Player[LANES];
+         boolean[] isFighting = new boolean[LANES];
+
+         for (int lane = 0; lane < LANES; lane++) {
+            GameRandom random = new GameRandom(seeds.nextLong());
+            int health = 1 + random.nextInt(100);
+            int ammo = random.nextInt(4) - 1;
+            int ammoItems = random.nextInt(3);
+
+            Player player = new Player(health, true, random);
+            player.setWeapon(catalog.createWeapon(weaponIndex));
+            player.getWeapon().setAmmo(ammo);
+            for (int i = 0; i < ammoItems; i++) {
+               player.addBackpackItem(ammoItem);
+            }
+            CombatEngine engine = player.getCombatEngine();
+            while (!engine.startEncounter(1)) {
+            }
+
+            batch.start(lane, health, ammo, ammoItems, engine.getEnemy().getType().getIndex(), random.getState());
+            players[lane] = player;
+            isFighting[lane] = true;
+         }
+
+         for (int turn = 1, fighting = LANES; fighting > 0; turn++) {
+            checkEquals(fighting, batch.step(), "With weapon " + weaponIndex + ", the number of fights that played turn " + turn);
+            fighting = 0;
+            for (int lane = 0; lane < LANES; lane++) {
+               if (!isFighting[lane]) {
+                  continue;
+               }
+               Player player = players[lane];
+               CombatResult result = player.getCombatEngine().step(CombatEngine.Action.FIGHT);
+               reloads += result.getReloadItem() != null ? 1 : 0;
+               defeatsWithoutAmmo += result.getDefeatedWithoutAmmo() ? 1 : 0;
+               isFighting[lane] = !result.getIsFightOver();
+               fighting += isFighting[lane] ? 1 : 0;
+
+               int outcome = !result.getIsFightOver() ? CombatBatch.FIGHTING : result.getIsEnemyDefeated() ? CombatBatch.WON : CombatBatch.DEFEATED;
+               String lanePrefix = "With weapon " + weaponIndex + " after turn " + turn + ", lane " + lane + "'s ";
+               checkEquals(outcome, batch.getOutcome(lane), lanePrefix + "outcome");
+               checkEquals(player.getHealth(), batch.getHealth(lane), lanePrefix + "health");
+               checkEquals(player.getWeapon().getAmmo(), batch.getAmmo(lane), lanePrefix + "ammo");
+               checkEquals(player.countBackpackItems(1), batch.getAmmoItems(lane), lanePrefix + "ammo items");
+               checkEquals(player.getCombatEngine().getEnemy().getHealth(), batch.getEnemyHealth(lane), lanePrefix + "enemy health");
+               checkEquals(player.getRandom().getState(), batch.getRandomState(lane), lanePrefix + "random state");
+            }
+         }
+         checkEquals(0, batch.step(), "With weapon " + weaponIndex + ", the number of fights that played a turn after they were all over");
+         checkEquals(CombatBatch.NONE, batch.getOutcome(LANES), "The outcome of the lane that was never started");
+      }
+
+      check(reloads > 0, "Some players should have reloaded");
+      check(defeatsWithoutAmmo > 0, "Some players should have been defeated without ammo");
+   }
+}
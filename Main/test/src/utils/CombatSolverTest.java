@@ -0,0 +1,156 @@
+package utils;
+import static utils.Test.*;
+
+/**
+ * The {@code CombatSolverTest} class checks the exact results worked out by {@link CombatSolver} against fights played by {@link CombatEngine}.
+ * Each fight is played many times, and every sampled chance and average must be within {@value #TOLERANCE} standard errors of the solver's exact value,
+ * which a correct solver fails about once in a million comparisons; the seed is fixed, so the test always passes or always fails.
+ */
+public final class CombatSolverTest {
+
+   private static final int SAMPLES = 200_000;
+   private static final double TOLERANCE = 5;
+
+   private CombatSolverTest() {
+   }
+
+   /**
+    * Fights with plenty of ammo that the player never flees.
+    */
+   public static void fight() {
+      checkFight(0, 6, 20, 16, 0, 0, 0);
+      checkFight(2, 5, 15, 8, 0, 0, 0);
+   }
+
+   /**
+    * Fights where the player tries to flee once their health is low, including with a flee count that makes it harder.
+    */
+   public static void flee() {
+      SampledFight fight = checkFight(0, 6, 40, 16, 30, 0, 0);
+      check(fight.fled > 0, "The player should have fled some fights");
+      fight = checkFight(1, 4, 25, 16, 20, 20, 0);
+      check(fight.fled > 0, "The player should have fled some fights with a flee count");
+   }
+
+   /**
+    * Fights where the player runs out of ammo, with and without ammo items to reload from, and while trying to flee.
+    */
+   public static void outOfAmmo() {
+      SampledFight fight = checkFight(0, 6, 40, 3, 0, 0, 0);
+      check(fight.defeatedWithoutAmmo > 0 && fight.attackedWithoutAmmo > 0, "The player should have run out of ammo and both been defeated and attacked anyway");
+      fight = checkFight(0, 6, 35, 1, 0, 0, 2);
+      check(fight.reloads > 0, "The player should have reloaded from ammo items");
+      fight = checkFight(1, 6, 40, 2, 25, 10, 0);
+      check(fight.defeatedWithoutAmmo > 0 && fight.fled > 0, "The player should have both run out of ammo and fled");
+   }
+
+   /**
+    * Plays a fight against a single enemy many times and checks the results against the solver.
+    *
+    * @param weaponIndex The index of the weapon in the {@link Catalog}
+    * @param enemyIndex  The index of the enemy type
+    * @param health      The player's health
+    * @param ammo        The weapon's ammo
+    * @param fleeHealth  The health at or below which the player tries to flee, or 0 to never flee
+    * @param fleeCount   The player's flee count
+    * @param ammoItems   The number of ammo items in the player's backpack
+    * @return The sampled results
+    */
+   private static SampledFight checkFight(int weaponIndex, int enemyIndex, int health, int ammo, int fleeHealth, int fleeCount, int ammoItems) {
+      Catalog catalog = Catalog.get();
+      Weapon weapon = catalog.createWeapon(weaponIndex);
+      EnemyType enemy = EnemyType.get(enemyIndex);
+      Items ammoItem = catalog.createStartingItem(1);
+      Player player = new Player(health, true, new GameRandom(5428));
+      player.setWeapon(weapon);
+      CombatEngine engine = player.getCombatEngine();
+
+      setUp(player, health, ammo, fleeCount, ammoItem, ammoItems);
+      int attacks = CombatSolver.countAttacks(player);
+      CombatSolver solver = new CombatSolver(weapon, enemy, fleeCount, fleeHealth, health, attacks);
+      int state = solver.getState(health, enemy.getHealth(), attacks, false);
+
+      SampledFight fight = new SampledFight();
+      for (int i = 0; i < SAMPLES; i++) {
+         setUp(player, health, ammo, fleeCount, ammoItem, ammoItems);
+         // The solver is for one enemy of the type, so encounters are started until that is the enemy
+         while (!engine.startEncounter(1) || engine.getEnemy().getType() != enemy) {
+         }
+
+         // Only the first fight is played, since a fled fight carries on with a new enemy, which the solver doesn't include
+         boolean hasTriedToFlee = false;
+         int ammoUsed = 0;
+         CombatResult result;
+         do {
+            boolean isFleeing = !hasTriedToFlee && player.getHealth() <= fleeHealth;
+            hasTriedToFlee |= isFleeing;
+            result = engine.step(isFleeing ? CombatEngine.Action.FLEE : CombatEngine.Action.FIGHT);
+            ammoUsed += result.getPlayerAttacked() ? 1 : 0;
+            fight.reloads += result.getReloadItem() != null ? 1 : 0;
+            fight.attackedWithoutAmmo += result.getFledWithoutAmmo() ? 1 : 0;
+            fight.defeatedWithoutAmmo += result.getDefeatedWithoutAmmo() ? 1 : 0;
+         } while (!result.getIsFightOver());
+
+         fight.won += result.getIsEnemyDefeated() ? 1 : 0;
+         fight.lost += result.getIsPlayerDefeated() ? 1 : 0;
+         fight.fled += result.getFled() ? 1 : 0;
+         fight.healthLeft.add(Math.max(0, player.getHealth()));
+         fight.ammoUsed.add(ammoUsed);
+      }
+
+      String name = weapon.getName() + " against " + enemy.getName() + " with " + health + " health, " + ammo + " ammo, " + ammoItems + " ammo items, fleeing at " + fleeHealth + " with flee count " + fleeCount;
+      checkChance(solver.getWinChance(state), fight.won, name + ": the chance of winning");
+      checkChance(solver.getLossChance(state), fight.lost, name + ": the chance of losing");
+      checkChance(solver.getFleeChance(state), fight.fled, name + ": the chance of fleeing");
+      checkAverage(solver.getHealthLeft(state), fight.healthLeft, name + ": the health left");
+      checkAverage(solver.getAmmoUsed(state), fight.ammoUsed, name + ": the ammo used");
+      return fight;
+   }
+
+   private static void setUp(Player player, int health, int ammo, int fleeCount, Items ammoItem, int ammoItems) {
+      player.setHealth(health);
+      player.setIsAlive(true);
+      player.setFleeCount(fleeCount);
+      player.getWeapon().setAmmo(ammo);
+      player.clearBackpack();
+      for (int i = 0; i < ammoItems; i++) {
+         player.addBackpackItem(ammoItem);
+      }
+   }
+
+   private static void checkChance(double exact, long count, String what) {
+      double sampled = (double) count / SAMPLES;
+      double standardError = Math.sqrt(exact * (1 - exact) / SAMPLES);
+      check(Math.abs(sampled - exact) <= TOLERANCE * standardError + 1e-9, what + " should be " + exact + " but was " + sampled + " in " + SAMPLES + " fights");
+   }
+
+   private static void checkAverage(double exact, Sum sum, String what) {
+      double mean = sum.total / SAMPLES;
+      double standardError = Math.sqrt(Math.max(0, sum.squares / SAMPLES - mean * mean) / SAMPLES);
+      check(Math.abs(mean - exact) <= TOLERANCE * standardError + 1e-9, what + " should be " + exact + " but was " + mean + " in " + SAMPLES + " fights");
+   }
+
+   /**
+    * The results of playing a fight many times.
+    */
+   private static final class SampledFight {
+      long won;
+      long lost;
+      long fled;
+      long reloads;
+      long attackedWithoutAmmo;
+      long defeatedWithoutAmmo;
+      final Sum healthLeft = new Sum();
+      final Sum ammoUsed = new Sum();
+   }
+
+   private static final class Sum {
+      double total;
+      double squares;
+
+      void add(double value) {
+         total += value;
+         squares += value * value;
+      }
+   }
+}
@@ -0,0 +1,155 @@
+package utils;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import static utils.Test.*;
+
+/**
+ * The {@code PathfinderTest} class checks that the distance field {@link Pathfinder} keeps up to date as the map changes is the same as one calculated from scratch.
+ */
+public final class PathfinderTest {
+
+   private PathfinderTest() {
+   }
+
+   /**
+    * Changes random locations of random generated maps, the way the game does and by adding targets, and after every change checks the distance of every location,
+    * and that following the next steps from some locations reaches a target for the distance given.
+    * The maps are up to 150x150, so on some of them the field only covers the area around the targets.
+    */
+   public static void matchesFullRecalculation() {
+      Random random = new Random(5428);
+      for (int map = 0; map < 40; map++) {
+         int width = 10 + random.nextInt(141);
+         int height = 10 + random.nextInt(141);
+         World world = new ChunkedWorld(width, height, random.nextLong());
+         Pathfinder pathfinder = world.getPathfinder();
+         int[] area = findArea(world);
+
+         for (int change = 0; change < 100; change++) {
+            int[] targets = world.findTargets();
+            boolean isTargetChanged = targets.length > 0 && random.nextBoolean();
+            world.setCurrentLocation(isTargetChanged ? targets[random.nextInt(targets.length)] : random.nextInt(width * height));
+            switch (random.nextInt(3)) {
+               case 0 -> world.updateLocationSearchIndex(isTargetChanged ? 8 + random.nextInt(2) : random.nextInt(5));
+               case 1 -> world.updateLocationFightStatus();
+               default -> world.updateRestedLocations();
+            }
+
+            String what = "On map " + map + " (" + width + "x" + height + ") after change " + change + ", ";
+            int[] expected = calculate(world, area);
+            for (int location = 0; location < width * height; location++) {
+               checkEquals(expected[location], pathfinder.getDistance(location), what + "the distance from " + location);
+            }
+            for (int walk = 0; walk < 10; walk++) {
+               checkWalk(world, pathfinder, area, random.nextInt(width * height), what);
+            }
+         }
+      }
+   }
+
+   /**
+    * Finds the area the field covers: {@link Pathfinder#MARGIN} locations past the targets on the map when the pathfinder was made.
+    *
+    * @return The left, top, right and bottom of the area
+    */
+   private static int[] findArea(World world) {
+      int width = world.getWidth();
+      int left = width, top = world.getHeight(), right = 0, bottom = 0;
+      for (int target : world.findTargets()) {
+         left = Math.min(left, target % width);
+         top = Math.min(top, target / width);
+         right = Math.max(right, target % width);
+         bottom = Math.max(bottom, target / width);
+      }
+      return new int[] {Math.max(0, left - Pathfinder.MARGIN), Math.max(0, top - Pathfinder.MARGIN),
+            Math.min(width - 1, right + Pathfinder.MARGIN), Math.min(world.getHeight() - 1, bottom + Pathfinder.MARGIN)};
+   }
+
+   /**
+    * Calculates every location's distance from scratch: Dijkstra's algorithm from the targets in the area,
+    * then from outside it the cost of going straight towards the area, across then up or down.
+    *
+    * @return The distances, -1 where there are no targets
+    */
+   private static int[] calculate(World world, int[] area) {
+      int width = world.getWidth();
+      int[] distances = new int[world.getLocationCount()];
+      Arrays.fill(distances, Integer.MAX_VALUE);
+      PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+      for (int location = 0; location < distances.length; location++) {
+         if (isInArea(location, width, area) && World.isTarget(world.getTile(location))) {
+            distances[location] = 0;
+            queue.add(new long[] {0, location});
+         }
+      }
+
+      while (!queue.isEmpty()) {
+         long[] entry = queue.poll();
+         int location = (int) entry[1];
+         if (entry[0] != distances[location]) {
+            continue;
+         }
+         int distance = distances[location] + 1 + World.getCombatCost(world.getTile(location));
+         int x = location % width;
+         for (int neighbour : new int[] {location - width, x > 0 ? location - 1 : -1, location + width, x < width - 1 ? location + 1 : -1}) {
+            if (neighbour >= 0 && neighbour < distances.length && isInArea(neighbour, width, area) && distance < distances[neighbour]) {
+               distances[neighbour] = distance;
+               queue.add(new long[] {distance, neighbour});
+            }
+         }
+      }
+
+      int[] result = new int[distances.length];
+      for (int location = 0; location < result.length; location++) {
+         int x = location % width;
+         int y = location / width;
+         int nearestX = Math.max(area[0], Math.min(area[2], x));
+         int nearestY = Math.max(area[1], Math.min(area[3], y));
+         int distance = distances[nearestY * width + nearestX];
+         if (distance == Integer.MAX_VALUE) {
+            result[location] = -1;
+            continue;
+         }
+
+         // Each location on the way costs what it costs to enter
+         while (x != nearestX) {
+            x += x < nearestX ? 1 : -1;
+            distance += 1 + World.getCombatCost(world.getTile(y * width + x));
+         }
+         while (y != nearestY) {
+            y += y < nearestY ? 1 : -1;
+            distance += 1 + World.getCombatCost(world.getTile(y * width + x));
+         }
+         result[location] = distance;
+      }
+      return result;
+   }
+
+   /**
+    * Follows the next steps from a location, which must reach a target for exactly its distance.
+    * Every step costs what it costs to enter the next location, inside the area and outside it.
+    */
+   private static void checkWalk(World world, Pathfinder pathfinder, int[] area, int start, String what) {
+      int distance = pathfinder.getDistance(start);
+      int cost = 0;
+      int location = start;
+      for (int next = pathfinder.nextStep(location); next >= 0; next = pathfinder.nextStep(location)) {
+         check(cost <= distance, what + "the path from " + start + " costs more than its distance " + distance);
+         cost += 1 + World.getCombatCost(world.getTile(next));
+         location = next;
+      }
+      if (distance < 0) {
+         checkEquals(start, location, what + "with no targets left, the path from " + start + " should end where it starts at");
+      } else {
+         check(World.isTarget(world.getTile(location)), what + "the path from " + start + " ends at " + location + ", which isn't a target");
+         checkEquals(distance, cost, what + "the cost of the path from " + start);
+      }
+   }
+
+   private static boolean isInArea(int location, int width, int[] area) {
+      int x = location % width;
+      int y = location / width;
+      return x >= area[0] && x <= area[2] && y >= area[1] && y <= area[3];
+   }
+}
@@ -0,0 +1,206 @@
+package utils;
+import java.util.Arrays;
+import static utils.Test.*;
+
+/**
+ * The {@code SnapshotTest} class checks that games are saved and loaded without losing anything.
+ */
+public final class SnapshotTest {
+
+   // The state of the game on the default map once its encounter has started, which depends only on the seed
+   private static final long DEFAULT_MAP_RANDOM_STATE = -2691343689449502349L;
+   private static final String DEFAULT_MAP_ENEMY = "Wolf";
+   private static final int DEFAULT_MAP_ENEMY_HEALTH = 10;
+
+   private SnapshotTest() {
+   }
+
+   /**
+    * Saves and loads a game on the default map in the middle of an encounter.
+    */
+   public static void roundTripDefaultMap() {
+      Player player = new Player(73, true, new GameRandom(5428));
+      player.setName("Golden");
+      player.setWeapon(new Weapon("Pistol", 10, 4, 3, 5));
+      player.addBackpackItem(new Items("Bandage", 20, 1, 0));
+      player.addBackpackItem(new Items("Ammo Box", 6, 2, 1));
+      player.setFleeCount(2);
+
+      World world = new World();
+      changeDefaultMap(world);
+      world.setViewSize(9);
+      player.getCombatEngine().startEncounter(3);
+
+      GameSnapshot loaded = roundTrip(player, world);
+      checkDefaultMapGame(loaded);
+      checkEquals(9, loaded.getWorld().getViewSize(), "The view size");
+   }
+
+   /**
+    * Saves and loads a game on a custom map, which must restart with the tiles it started with rather than the tiles it was saved with.
+    */
+   public static void roundTripCustomMap() {
+      World world = new World(4, 3, customTerrain(), customTiles());
+      changeCustomMap(world);
+      world.setViewSize(3);
+
+      World loaded = roundTrip(new Player(100, true, new GameRandom(5428)), world).getWorld();
+      checkCustomMap(loaded);
+      checkEquals(3, loaded.getViewSize(), "The view size");
+
+      loaded.resetLocationVariables();
+      checkTiles(customTiles(), loaded, "After restarting, the tiles");
+   }
+
+   /**
+    * Saves and loads a game on a generated map, where only the tiles that changed are saved.
+    */
+   public static void roundTripGeneratedMap() {
+      World world = new ChunkedWorld(40, 30, 5428);
+      changeGeneratedMap(world);
+      world.setViewSize(15);
+
+      World loaded = roundTrip(new Player(100, true, new GameRandom(5428)), world).getWorld();
+      checkGeneratedMap(loaded);
+      checkEquals(15, loaded.getViewSize(), "The view size");
+   }
+
+   /**
+    * Saves a game, loads it, and checks the loaded game saves to the same bytes.
+    */
+   private static GameSnapshot roundTrip(Player player, World world) {
+      byte[] saved = GameSnapshot.save(player, world);
+      GameSnapshot loaded = GameSnapshot.load(saved);
+      check(Arrays.equals(saved, GameSnapshot.save(loaded.getPlayer(), loaded.getWorld())), "The loaded game saves to different bytes");
+      return loaded;
+   }
+
+   /**
+    * Checks a game has the state of the game saved by {@link #roundTripDefaultMap()}.
+    */
+   private static void checkDefaultMapGame(GameSnapshot game) {
+      Player player = game.getPlayer();
+      checkEquals("Golden", player.getName(), "The name");
+      checkEquals(73, player.getHealth(), "The health");
+      check(player.getIsAlive(), "The player should be alive");
+      checkEquals(2, player.getFleeCount(), "The flee count");
+      checkEquals(DEFAULT_MAP_RANDOM_STATE, player.getRandom().getState(), "The random number generator's state");
+
+      Weapon weapon = player.getWeapon();
+      checkEquals("Pistol 10 4 3 5", weapon.getName() + " " + weapon.getDamage() + " " + weapon.getAmmo() + " " + weapon.getWeight() + " " + weapon.getRange(), "The weapon");
+      checkEquals(2, player.getBackpackSize(), "The number of backpack items");
+      checkEquals("Bandage", player.getBackpackItem(0).getName(), "The first backpack item");
+      checkEquals("Ammo Box", player.getBackpackItem(1).getName(), "The second backpack item");
+
+      CombatEngine engine = player.getCombatEngine();
+      check(!engine.getIsEncounterOver(), "The encounter should still be going");
+      checkEquals(1, engine.getEnemyCount(), "The number of enemies");
+      checkEquals(DEFAULT_MAP_ENEMY, engine.getEnemy().getType().getName(), "The enemy");
+      checkEquals(DEFAULT_MAP_ENEMY_HEALTH, engine.getEnemy().getHealth(), "The enemy's health");
+
+      World world = game.getWorld();
+      checkEquals(7, world.getCurrentLocation(), "The player's location");
+      World expected = new World();
+      changeDefaultMap(expected);
+      checkTiles(tilesOf(expected), world, "The tiles");
+   }
+
+   /**
+    * Makes some changes to the default map: resting, searching and fighting at a few locations.
+    */
+   private static void changeDefaultMap(World world) {
+      world.setCurrentLocation(12);
+      world.updateRestedLocations();
+      world.updateLocationSearchIndex(8);
+      world.setCurrentLocation(6);
+      world.updateLocationFightStatus();
+      world.setCurrentLocation(7);
+   }
+
+   private static byte[] customTerrain() {
+      byte[] terrain = new byte[12];
+      for (int location = 0; location < terrain.length; location++) {
+         terrain[location] = (byte) (location % 9);
+      }
+      return terrain;
+   }
+
+   private static byte[] customTiles() {
+      byte[] tiles = new byte[12];
+      for (int location = 0; location < tiles.length; location++) {
+         tiles[location] = World.tile(location % 4, location % 2 == 0, location % 3 == 0, location % 4);
+      }
+      return tiles;
+   }
+
+   /**
+    * Makes some changes to the custom map: resting, searching and fighting at a few locations.
+    */
+   private static void changeCustomMap(World world) {
+      world.setCurrentLocation(6);
+      world.updateRestedLocations();
+      world.updateLocationFightStatus();
+      world.setCurrentLocation(9);
+      world.updateLocationSearchIndex(9);
+   }
+
+   /**
+    * Checks a world is the custom map with the changes made by {@link #changeCustomMap(World)}.
+    */
+   private static void checkCustomMap(World world) {
+      checkEquals("4x3", world.getWidth() + "x" + world.getHeight(), "The map size");
+      checkEquals(9, world.getCurrentLocation(), "The player's location");
+      byte[] terrain = customTerrain();
+      for (int location = 0; location < terrain.length; location++) {
+         checkEquals((int) terrain[location], world.getTerrain(location), "The terrain at " + location);
+      }
+
+      World expected = new World(4, 3, terrain, customTiles());
+      changeCustomMap(expected);
+      checkTiles(tilesOf(expected), world, "The tiles");
+   }
+
+   /**
+    * Makes some changes to the generated map: resting, searching and fighting at a few locations.
+    */
+   private static void changeGeneratedMap(World world) {
+      for (int location : new int[] {0, 41, 1199}) {
+         world.setCurrentLocation(location);
+         world.updateRestedLocations();
+         world.updateLocationFightStatus();
+      }
+      world.setCurrentLocation(500);
+      world.updateLocationSearchIndex(9);
+      world.setCurrentLocation(77);
+   }
+
+   /**
+    * Checks a world is the generated map with the changes made by {@link #changeGeneratedMap(World)}, and that the map is generated the same way from its seed.
+    */
+   private static void checkGeneratedMap(World world) {
+      check(world instanceof ChunkedWorld, "The map should be generated");
+      checkEquals("40x30", world.getWidth() + "x" + world.getHeight(), "The map size");
+      checkEquals(77, world.getCurrentLocation(), "The player's location");
+
+      World expected = new ChunkedWorld(40, 30, 5428);
+      changeGeneratedMap(expected);
+      checkTiles(tilesOf(expected), world, "The tiles");
+      for (int location = 0; location < expected.getLocationCount(); location++) {
+         checkEquals(expected.getTerrain(location), world.getTerrain(location), "The terrain at " + location);
+      }
+   }
+
+   private static byte[] tilesOf(World world) {
+      byte[] tiles = new byte[world.getLocationCount()];
+      for (int location = 0; location < tiles.length; location++) {
+         tiles[location] = world.getTile(location);
+      }
+      return tiles;
+   }
+
+   private static void checkTiles(byte[] expected, World world, String what) {
+      for (int location = 0; location < expected.length; location++) {
+         checkEquals(expected[location], world.getTile(location), what + " at " + location);
+      }
+   }
+}
@@ -0,0 +1,77 @@
+package utils;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Objects;
+
+/**
+ * The {@code Test} class is a small harness for checking the game works as it should.
+ * Each test is run on its own and reported as passed or failed, so one failure doesn't stop the others.
+ * Anything the game prints to the console while a test runs is discarded.
+ */
+public final class Test {
+
+   private static final PrintStream console = System.out;
+   private static final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+   private static int passed;
+   private static int failed;
+
+   private Test() {
+   }
+
+   /**
+    * Runs a test and prints a line saying if it passed, with the reason if it failed.
+    *
+    * @param name The name of the test
+    * @param body The test, which fails by throwing, eg. from {@link #check(boolean, String)}
+    */
+   public static void run(String name, Runnable body) {
+      System.setOut(discard);
+      try {
+         body.run();
+         passed++;
+         console.printf("PASS %s%n", name);
+      } catch (Throwable e) {
+         failed++;
+         console.printf("FAIL %s: %s%n", name, e);
+         if (!(e instanceof AssertionError)) {
+            e.printStackTrace(console);
+         }
+      } finally {
+         System.setOut(console);
+      }
+   }
+
+   /**
+    * Fails the test if a condition is false.
+    *
+    * @param condition The condition that should be true
+    * @param message   What went wrong if it isn't
+    */
+   public static void check(boolean condition, String message) {
+      if (!condition) {
+         throw new AssertionError(message);
+      }
+   }
+
+   /**
+    * Fails the test if a value isn't the one expected.
+    *
+    * @param expected The expected value
+    * @param actual   The actual value
+    * @param what     What the value is, for the message
+    */
+   public static void checkEquals(Object expected, Object actual, String what) {
+      if (!Objects.equals(expected, actual)) {
+         throw new AssertionError(what + " should be " + expected + " but is " + actual);
+      }
+   }
+
+   public static int getPassed() {
+      return passed;
+   }
+
+   public static int getFailed() {
+      return failed;
+   }
+}